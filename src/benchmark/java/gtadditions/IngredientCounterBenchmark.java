@@ -0,0 +1,94 @@
+package gtadditions;
+
+import gregicadditions.recipes.IngredientCounter;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IngredientCounterBenchmark {
+
+    private static final int BUSES = 16;
+    private static final int SLOTS = 16;
+    private static final int ROUNDS = 20_000;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    /**
+     * Compares counting a full set of buses with the counter against merging the stacks into a list, as the multiblocks did.
+     */
+    @Test
+    public void fullBusSet() {
+        ItemStack[] kinds = {
+                new ItemStack(Blocks.COBBLESTONE),
+                new ItemStack(Blocks.WOOL, 1, 0),
+                new ItemStack(Blocks.WOOL, 1, 5),
+                new ItemStack(Blocks.WOOL, 1, 11),
+                new ItemStack(Items.DYE, 1, 4),
+                new ItemStack(Items.IRON_INGOT),
+                new ItemStack(Items.GOLD_NUGGET),
+                new ItemStack(Items.REDSTONE)
+        };
+        List<ItemStackHandler> buses = new ArrayList<>();
+        for (int bus = 0; bus < BUSES; bus++) {
+            ItemStackHandler handler = new ItemStackHandler(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                ItemStack stack = kinds[(bus * 3 + slot) % kinds.length].copy();
+                stack.setCount(1 + (bus + slot) % 64);
+                handler.setStackInSlot(slot, stack);
+            }
+            buses.add(handler);
+        }
+
+        IngredientCounter counter = new IngredientCounter();
+        for (int warmup = 0; warmup < 3; warmup++) {
+            assertEquals(countLinear(buses), countWithCounter(counter, buses));
+        }
+
+        long start = System.nanoTime();
+        long linear = countLinear(buses);
+        long linearTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        long counted = countWithCounter(counter, buses);
+        long counterTime = System.nanoTime() - start;
+        assertEquals(linear, counted);
+        System.out.printf("count of %d buses of %d slots: linear merge %.2f us, counter %.2f us%n",
+                BUSES, SLOTS, linearTime / 1000.0 / ROUNDS, counterTime / 1000.0 / ROUNDS);
+    }
+
+    private static long countLinear(List<ItemStackHandler> buses) {
+        long types = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            List<ItemStack> merged = new ArrayList<>();
+            for (ItemStackHandler bus : buses) {
+                for (int slot = 0; slot < bus.getSlots(); slot++) {
+                    IngredientCounterTest.mergeLinear(merged, bus.getStackInSlot(slot));
+                }
+            }
+            types += merged.size();
+        }
+        return types;
+    }
+
+    private static long countWithCounter(IngredientCounter counter, List<ItemStackHandler> buses) {
+        long types = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            counter.clear();
+            for (ItemStackHandler bus : buses) {
+                counter.countItems(bus);
+            }
+            types += counter.getItemTypes();
+        }
+        return types;
+    }
+}
@@ -0,0 +1,68 @@
+package gtadditions;
+
+import gregicadditions.capabilities.impl.InputBusGroups;
+import gregicadditions.recipes.GARecipeMaps;
+import gregtech.api.capability.impl.FluidTankList;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandlerModifiable;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InputBusGroupsBenchmark {
+
+    private static final long VOLTAGE = 32;
+    private static final int ROUNDS = 2000;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    /**
+     * Sixteen buses holding four mixes, none of which has a recipe: compares searching the recipe map per bus,
+     * as the Processing Array did, with searching it per group.
+     */
+    @Test
+    public void searchesPerGroup() {
+        ItemStack[] mixes = {
+                new ItemStack(Blocks.DIRT), new ItemStack(Blocks.SAND), new ItemStack(Blocks.GRAVEL), new ItemStack(Blocks.CLAY)
+        };
+        List<IItemHandlerModifiable> buses = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            ItemStack stack = mixes[i % mixes.length].copy();
+            stack.setCount(1 + i);
+            buses.add(InputBusGroupsTest.bus(stack, new ItemStack(Items.STICK, 1 + i % 3)));
+        }
+        FluidTankList fluids = new FluidTankList(false);
+        InputBusGroups groups = new InputBusGroups();
+
+        int found = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (IItemHandlerModifiable bus : buses) {
+                if (GARecipeMaps.CLUSTER_MILL_RECIPES.findRecipe(VOLTAGE, bus, fluids, 0) != null)
+                    found++;
+            }
+        }
+        long perBusTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            groups.group(buses);
+            if (groups.findRecipe(GARecipeMaps.CLUSTER_MILL_RECIPES, VOLTAGE, fluids) != null)
+                found++;
+        }
+        long perGroupTime = System.nanoTime() - start;
+
+        assertEquals(0, found);
+        assertEquals(4, groups.getGroupCount());
+        System.out.printf("search of %d buses: per bus %.2f us, per group %.2f us with the grouping%n",
+                buses.size(), perBusTime / 1000.0 / ROUNDS, perGroupTime / 1000.0 / ROUNDS);
+    }
+}
@@ -0,0 +1,42 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.miner.Miner;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MinerSectionSkipBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    @BeforeClass
+    public static void bootStrap() {
+        MinerSectionSkipTest.bootStrap();
+    }
+
+    /**
+     * Compares scanning a chunk of stone with a single vein block by block with the scan skipping the sections without ore.
+     */
+    @Test
+    public void mostlyStoneChunk() {
+        ChunkPos chunkPos = new ChunkPos(1, -1);
+        World world = MinerSectionSkipTest.syntheticWorld(chunkPos, 0);
+        Miner miner = new TestMiner(world, 256);
+        int found = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            found += MinerSectionSkipTest.scanEveryBlock(world, chunkPos).size();
+        }
+        long everyBlockTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            found -= MinerSectionSkipTest.scan(miner, chunkPos, new int[1]).size();
+        }
+        long skippingTime = System.nanoTime() - start;
+        assertEquals(0, found);
+        System.out.printf("scan of a mostly stone chunk: every block %d us, skipping sections %d us%n", everyBlockTime / 1000 / ROUNDS, skippingTime / 1000 / ROUNDS);
+    }
+}
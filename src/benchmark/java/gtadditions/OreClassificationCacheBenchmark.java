@@ -0,0 +1,64 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.miner.Miner;
+import net.minecraft.block.state.IBlockState;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+
+public class OreClassificationCacheBenchmark {
+
+    @BeforeClass
+    public static void bootStrap() {
+        OreClassificationCacheTest.bootStrap();
+    }
+
+    /**
+     * Compares the time and allocations of classifying a chunk through the ore dictionary with the cached scan.
+     */
+    @Test
+    public void chunkScan() {
+        IBlockState[] chunk = OreClassificationCacheTest.syntheticChunk();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        int ores = 0;
+        long start = System.nanoTime();
+        long allocated = allocatedBytes(threads);
+        for (IBlockState state : chunk) {
+            if (OreClassificationCacheTest.isOreUncached(state))
+                ores++;
+        }
+        long uncachedBytes = allocatedBytes(threads) - allocated;
+        long uncachedTime = System.nanoTime() - start;
+
+        // fills the cache
+        for (IBlockState state : chunk) {
+            Miner.isOre(state);
+        }
+        start = System.nanoTime();
+        allocated = allocatedBytes(threads);
+        for (IBlockState state : chunk) {
+            if (Miner.isOre(state))
+                ores--;
+        }
+        long cachedBytes = allocatedBytes(threads) - allocated;
+        long cachedTime = System.nanoTime() - start;
+
+        assertEquals(0, ores);
+        System.out.printf("ore scan of %d blocks: uncached %d us / %d bytes, cached %d us / %d bytes%n",
+                chunk.length, uncachedTime / 1000, uncachedBytes, cachedTime / 1000, cachedBytes);
+    }
+
+    /**
+     * The bytes allocated by this thread so far, or 0 where the virtual machine does not tell.
+     */
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
+}
@@ -0,0 +1,55 @@
+package gtadditions;
+
+import gregicadditions.recipes.RecipePropertyKey;
+import gregtech.api.recipes.Recipe;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RecipePropertyKeyBenchmark {
+
+    private static final int READS = 5_000_000;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    /**
+     * Compares reading the coil tier through the property map, as the fusion logic did on every check, with the typed key.
+     */
+    @Test
+    public void coilTierReads() {
+        Recipe recipe = RecipePropertyKeyTest.fusionRecipe();
+        long expected = (long) READS * 2;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            assertEquals(expected, readByName(recipe));
+            assertEquals(expected, readByKey(recipe));
+        }
+
+        long start = System.nanoTime();
+        assertEquals(expected, readByName(recipe));
+        long byName = System.nanoTime() - start;
+        start = System.nanoTime();
+        assertEquals(expected, readByKey(recipe));
+        long byKey = System.nanoTime() - start;
+        System.out.printf("coil_tier read: %.2f ns by name, %.2f ns by key%n", (double) byName / READS, (double) byKey / READS);
+    }
+
+    private static long readByName(Recipe recipe) {
+        long sum = 0;
+        for (int i = 0; i < READS; i++) {
+            sum += recipe.getIntegerProperty("coil_tier");
+        }
+        return sum;
+    }
+
+    private static long readByKey(Recipe recipe) {
+        long sum = 0;
+        for (int i = 0; i < READS; i++) {
+            sum += RecipePropertyKey.COIL_TIER.get(recipe);
+        }
+        return sum;
+    }
+}
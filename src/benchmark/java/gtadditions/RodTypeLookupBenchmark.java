@@ -0,0 +1,45 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.nuclear.MetaTileEntityNuclearReactor.RodType;
+import net.minecraft.block.state.IBlockState;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RodTypeLookupBenchmark {
+
+    private static final int ROUNDS = 200;
+
+    @BeforeClass
+    public static void bootStrap() {
+        RodTypeLookupTest.bootStrap();
+    }
+
+    /**
+     * Compares searching the rod types for every block state with the lookup.
+     */
+    @Test
+    public void lookup() {
+        IBlockState[] states = RodTypeLookupTest.STATES.toArray(new IBlockState[0]);
+        long found = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (IBlockState state : states) {
+                if (RodTypeLookupTest.findRodType(state) != null)
+                    found++;
+            }
+        }
+        long searchTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (IBlockState state : states) {
+                if (RodType.getRodType(state) != null)
+                    found--;
+            }
+        }
+        long lookupTime = System.nanoTime() - start;
+        assertEquals(0, found);
+        System.out.printf("rod type of %d states: search %d us, lookup %d us%n", states.length * ROUNDS, searchTime / 1000, lookupTime / 1000);
+    }
+}
@@ -7,6 +7,8 @@ import gregicadditions.fluid.GAMetaFluids;
 import gregicadditions.integrations.mysticalagriculture.items.MysticalAgricultureItems;
 import gregicadditions.item.GAMetaBlocks;
 import gregicadditions.item.GAMetaItems;
+import gregicadditions.machines.multi.ProcessingArrayMachineTable;
+import gregicadditions.machines.multi.miner.VoidMinerOreTable;
 import gregicadditions.network.IPSaveData;
 import gregicadditions.network.MessageReservoirListSync;
 import gregicadditions.network.NetworkHandler;
@@ -70,6 +72,8 @@ public class CommonProxy {
     public static void syncConfigValues(ConfigChangedEvent.OnConfigChangedEvent event) {
         if (event.getModID().equals(Gregicality.MODID)) {
             ConfigManager.sync(Gregicality.MODID, Config.Type.INSTANCE);
+            ProcessingArrayMachineTable.build();
+            VoidMinerOreTable.invalidate();
         }
     }
 
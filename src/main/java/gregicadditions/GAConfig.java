@@ -465,6 +465,31 @@ public class GAConfig {
 
     }
 
+    @Config.Comment("Config options for multiblock structure checks")
+    public static Multiblocks multiblocks = new Multiblocks();
+
+    public static class Multiblocks {
+        @Config.Comment({"Ticks between two structure checks of a Gregicality multiblock when no block changed in its reach.",
+                "A block changing in its reach gets it checked at once."})
+        @Config.Name("Structure check fallback interval")
+        @Config.RangeInt(min = 20)
+        @Config.RequiresWorldRestart
+        public int structureCheckFallbackInterval = 600;
+
+        @Config.Comment({"How many Gregicality multiblock structure checks can run in a tick, the checks left wait for the next ticks.",
+                "At least one check runs every tick."})
+        @Config.Name("Structure checks per tick")
+        @Config.RangeInt(min = 1)
+        @Config.RequiresWorldRestart
+        public int structureChecksPerTick = 20;
+
+        @Config.Comment("How long Gregicality multiblock structure checks can take in a tick, in microseconds")
+        @Config.Name("Structure check time per tick")
+        @Config.RangeInt(min = 0)
+        @Config.RequiresWorldRestart
+        public int structureCheckTimePerTick = 2000;
+    }
+
     @Config.Comment({"Configs for Armor and Tools", "Tiers are from ULV-0 to MAX-14"})
     public static Equipment equipment = new Equipment();
 
@@ -1241,6 +1266,10 @@ public class GAConfig {
             @Config.RequiresMcRestart
             @Config.Name("MK3 Void Miner Whitelist")
             public String[] oreWhitelistUEV = new String[]{""};
+
+            @Config.Comment("How often the Void Miners pick each ore, as \"name=weight\" with the name of an item as in the whitelists or of a material. Ores not listed weigh 1. Example: \"gold=4\"")
+            @Config.Name("Void Miner ore weights")
+            public String[] oreWeights = new String[]{""};
         }
 
         public static class LargeMiner {
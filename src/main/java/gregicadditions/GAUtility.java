@@ -6,6 +6,7 @@ import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.recipes.CountableIngredient;
 import gregtech.api.recipes.Recipe;
 import gregtech.api.recipes.RecipeMap;
+import gregtech.api.util.GTUtility;
 import gregtech.common.ConfigHolder;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.EnumParticleTypes;
@@ -17,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 public class GAUtility {
@@ -79,5 +81,63 @@ public class GAUtility {
         }
     }
 
+    /**
+     * Rolls the item outputs of a parallel recipe whose chanced outputs hold one entry per distinct output,
+     * with the stack size of all parallel runs combined.
+     * Each entry is resolved with a single binomial draw, which gives the same yield as rolling every run on its own.
+     */
+    public static List<ItemStack> getParallelResultItemOutputs(Recipe recipe, int maxOutputSlots, Random random, int tier, int parallel) {
+        List<ItemStack> outputs = new ArrayList<>(GTUtility.copyStackList(recipe.getOutputs()));
+        List<Recipe.ChanceEntry> chancedOutputsList = recipe.getChancedOutputs();
+        int maxChancedSlots = maxOutputSlots - outputs.size();
+        if (chancedOutputsList.size() > maxChancedSlots) {
+            chancedOutputsList = chancedOutputsList.subList(0, Math.max(0, maxChancedSlots));
+        }
+        parallel = Math.max(1, parallel);
+        for (Recipe.ChanceEntry chancedOutput : chancedOutputsList) {
+            int outputChance = chancedOutput.getChance() + (chancedOutput.getBoostPerTier() * tier);
+            // same odds as the "random.nextInt(max) <= chance" roll of a single recipe
+            double probability = Math.max(0, outputChance + 1) / (double) Recipe.getMaxChancedValue();
+            int successes = binomial(random, parallel, probability);
+            if (successes > 0) {
+                ItemStack itemStack = chancedOutput.getItemStack().copy();
+                itemStack.setCount(itemStack.getCount() / parallel * successes);
+                outputs.add(itemStack);
+            }
+        }
+        return outputs;
+    }
+
+    private static final int BINOMIAL_CHUNK = 1000;
 
+    /**
+     * Draws the number of successes out of the given number of independent trials, using inverse transform sampling.
+     */
+    public static int binomial(Random random, int trials, double probability) {
+        if (trials <= 0 || probability <= 0)
+            return 0;
+        if (probability >= 1)
+            return trials;
+        if (probability > 0.5)
+            return trials - binomial(random, trials, 1 - probability);
+
+        int successes = 0;
+        // a sum of binomials is binomial, split huge counts so the starting term does not underflow
+        while (trials > BINOMIAL_CHUNK) {
+            successes += binomial(random, BINOMIAL_CHUNK, probability);
+            trials -= BINOMIAL_CHUNK;
+        }
+
+        double ratio = probability / (1 - probability);
+        double term = Math.pow(1 - probability, trials);
+        double cumulative = term;
+        double roll = random.nextDouble();
+        int k = 0;
+        while (roll > cumulative && k < trials) {
+            term *= ratio * (trials - k) / (k + 1);
+            k++;
+            cumulative += term;
+        }
+        return successes + k;
+    }
 }
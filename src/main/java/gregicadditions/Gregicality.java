@@ -13,6 +13,7 @@ import gregicadditions.integrations.opencomputers.OpenComputersCommonProxy;
 import gregicadditions.integrations.tconstruct.TinkersMaterials;
 import gregicadditions.item.GAMetaBlocks;
 import gregicadditions.machines.GATileEntities;
+import gregicadditions.machines.multi.ProcessingArrayMachineTable;
 import gregicadditions.network.IPSaveData;
 import gregicadditions.network.NetworkHandler;
 import gregicadditions.theoneprobe.TheOneProbeCompatibility;
@@ -134,6 +135,7 @@ public class Gregicality {
     @EventHandler
     public void postInit(FMLPostInitializationEvent event) {
         PumpjackHandler.recalculateChances(true);
+        ProcessingArrayMachineTable.build();
 
     }
 
@@ -0,0 +1,10 @@
+package gregicadditions.capabilities;
+
+/**
+ * Implemented by handlers that count how many times their contents changed,
+ * so callers can tell whether anything happened since they last looked by comparing a single number.
+ */
+public interface IModificationCounter {
+
+    int getModificationCount();
+}
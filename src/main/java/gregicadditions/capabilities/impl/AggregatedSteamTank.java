@@ -0,0 +1,121 @@
+package gregicadditions.capabilities.impl;
+
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.capability.impl.FluidTankList;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTankInfo;
+import net.minecraftforge.fluids.IFluidTank;
+
+import javax.annotation.Nullable;
+
+/**
+ * All the steam hatches of a steam multiblock seen as one tank.
+ * <p>
+ * The total amount and capacity are kept between calls and only summed again after one of the tanks changed.
+ * {@link NotifiableFluidTank}s tell the view when they change, any other tank makes it sum again on every read.
+ * Fills and drains go to the hatches.
+ */
+public class AggregatedSteamTank implements IFluidTank {
+
+    private final Runnable onTankChanged = this::markDirty;
+
+    private IMultipleTankHandler tankHandler = new FluidTankList(false);
+    private boolean alwaysDirty = false;
+    private boolean dirty = true;
+
+    private int amount;
+    private int capacity;
+    private FluidStack fluid;
+
+    /**
+     * Replaces the hatches seen by the view, stops listening to the previous ones.
+     */
+    public void setTanks(@Nullable IMultipleTankHandler tankHandler) {
+        for (int i = 0; i < this.tankHandler.getTanks(); i++) {
+            IFluidTank tank = this.tankHandler.getTankAt(i);
+            if (tank instanceof NotifiableFluidTank && ((NotifiableFluidTank) tank).getListener() == onTankChanged)
+                ((NotifiableFluidTank) tank).setListener(null);
+        }
+        this.tankHandler = tankHandler == null ? new FluidTankList(false) : tankHandler;
+        this.alwaysDirty = false;
+        for (int i = 0; i < this.tankHandler.getTanks(); i++) {
+            IFluidTank tank = this.tankHandler.getTankAt(i);
+            if (tank instanceof NotifiableFluidTank)
+                ((NotifiableFluidTank) tank).setListener(onTankChanged);
+            else
+                alwaysDirty = true;
+        }
+        markDirty();
+    }
+
+    public IMultipleTankHandler getTankHandler() {
+        return tankHandler;
+    }
+
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    private void update() {
+        if (!dirty && !alwaysDirty)
+            return;
+        int amount = 0;
+        int capacity = 0;
+        FluidStack fluid = null;
+        for (int i = 0; i < tankHandler.getTanks(); i++) {
+            IFluidTank tank = tankHandler.getTankAt(i);
+            capacity += tank.getCapacity();
+            FluidStack tankFluid = tank.getFluid();
+            if (tankFluid == null)
+                continue;
+            // only the first kind of fluid found is counted, like draining the hatches would
+            if (fluid == null)
+                fluid = tankFluid;
+            if (fluid.isFluidEqual(tankFluid))
+                amount += tankFluid.amount;
+        }
+        this.capacity = capacity;
+        this.amount = Math.min(amount, capacity);
+        this.fluid = fluid;
+        this.dirty = false;
+    }
+
+    @Nullable
+    @Override
+    public FluidStack getFluid() {
+        update();
+        if (fluid == null || amount == 0)
+            return null;
+        FluidStack fluidStack = fluid.copy();
+        fluidStack.amount = amount;
+        return fluidStack;
+    }
+
+    @Override
+    public int getFluidAmount() {
+        update();
+        return amount;
+    }
+
+    @Override
+    public int getCapacity() {
+        update();
+        return capacity;
+    }
+
+    @Override
+    public FluidTankInfo getInfo() {
+        return new FluidTankInfo(this);
+    }
+
+    @Override
+    public int fill(FluidStack resource, boolean doFill) {
+        return tankHandler.fill(resource, doFill);
+    }
+
+    @Nullable
+    @Override
+    public FluidStack drain(int maxDrain, boolean doDrain) {
+        return tankHandler.drain(maxDrain, doDrain);
+    }
+}
@@ -23,4 +23,11 @@ public class ControllerSlotMultiblockRecipeLogic extends GAMultiblockRecipeLogic
 
         return areItemStacksEqual(previousStack, lastControllerItem) || super.checkRecipeInputsDirty(importInventory, importFluids);
     }
+
+    @Override
+    protected long getSearchState() {
+        ItemStack controllerItem = ((RecipeMapMultiblockWithSlotController) this.getMetaTileEntity()).getStackInSlot();
+        long state = 31 * super.getSearchState() + System.identityHashCode(controllerItem);
+        return 31 * state + controllerItem.getCount();
+    }
 }
@@ -0,0 +1,40 @@
+package gregicadditions.capabilities.impl;
+
+import gregicadditions.capabilities.IModificationCounter;
+import net.minecraftforge.items.ItemStackHandler;
+
+/**
+ * Item handler bumping a counter each time one of its slots is changed through the handler.
+ * Used as the import inventory of item buses.
+ */
+public class CountingItemStackHandler extends ItemStackHandler implements IModificationCounter {
+
+    private int modificationCount = 0;
+
+    public CountingItemStackHandler(int size) {
+        super(size);
+    }
+
+    @Override
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    @Override
+    public void setSize(int size) {
+        super.setSize(size);
+        modificationCount++;
+    }
+
+    @Override
+    protected void onLoad() {
+        super.onLoad();
+        modificationCount++;
+    }
+
+    @Override
+    protected void onContentsChanged(int slot) {
+        super.onContentsChanged(slot);
+        modificationCount++;
+    }
+}
@@ -1,39 +1,85 @@
 package gregicadditions.capabilities.impl;
 
-import gregicadditions.GAValues;
+import gregicadditions.recipes.RecipeLookupCache;
+import gregtech.api.capability.IMultipleTankHandler;
 import gregtech.api.capability.impl.MultiblockRecipeLogic;
 import gregtech.api.metatileentity.multiblock.RecipeMapMultiblockController;
+import gregtech.api.recipes.Recipe;
+import net.minecraftforge.items.IItemHandlerModifiable;
 
 public class GAMultiblockRecipeLogic extends MultiblockRecipeLogic {
+
+    protected final GAOverclockCalculator overclockCalculator = new GAOverclockCalculator();
+    protected final RecipeSearchBackoff searchBackoff = new RecipeSearchBackoff();
+    // energy the last search was short of to start its recipe, 0 if it was not
+    protected long energyNeeded;
+
     public GAMultiblockRecipeLogic(RecipeMapMultiblockController tileEntity) {
         super(tileEntity);
     }
 
     @Override
     protected int[] calculateOverclock(int EUt, long voltage, int duration) {
-        if (!allowOverclocking) {
-            return new int[]{EUt, duration};
-        }
-        boolean negativeEU = EUt < 0;
-        int tier = getOverclockingTier(voltage);
-        if (GAValues.V[tier] <= EUt || tier == 0)
-            return new int[]{EUt, duration};
-        if (negativeEU)
-            EUt = -EUt;
-        if (EUt <= 16) {
-            int multiplier = EUt <= 8 ? tier : tier - 1;
-            int resultEUt = EUt * (1 << multiplier) * (1 << multiplier);
-            int resultDuration = duration / (1 << multiplier);
-            return new int[]{negativeEU ? -resultEUt : resultEUt, resultDuration};
-        } else {
-            int resultEUt = EUt;
-            double resultDuration = duration;
-            //do not overclock further if duration is already too small
-            while (resultDuration >= 3 && resultEUt <= GAValues.V[tier - 1]) {
-                resultEUt *= 4;
-                resultDuration /= 2.8;
-            }
-            return new int[]{negativeEU ? -resultEUt : resultEUt, (int) Math.ceil(resultDuration)};
-        }
+        return overclockCalculator.calculate(EUt, duration, allowOverclocking ? getOverclockingTier(voltage) : 0);
+    }
+
+    /**
+     * Looks the inputs up in the {@link RecipeLookupCache} shared by every GA multiblock before searching the recipe map.
+     */
+    @Override
+    protected Recipe findRecipe(long maxVoltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs) {
+        return RecipeLookupCache.INSTANCE.findRecipe(recipeMap, maxVoltage, inputs, fluidInputs, getMinTankCapacity(getOutputTank()));
+    }
+
+    /**
+     * Searches less and less often while the search keeps failing and nothing it depends on changes.
+     * Override {@link #searchNewRecipe()} to change how the search is done.
+     */
+    @Override
+    protected void trySearchNewRecipe() {
+        if (!searchBackoff.shouldSearch(getSearchState()))
+            return;
+        this.energyNeeded = 0;
+        searchNewRecipe();
+        searchBackoff.onSearchFinished(progressTime > 0);
+    }
+
+    protected void searchNewRecipe() {
+        super.trySearchNewRecipe();
+    }
+
+    @Override
+    protected boolean setupAndConsumeRecipeInputs(Recipe recipe) {
+        int[] resultOverclock = calculateOverclock(recipe.getEUt(), getMaxVoltage(), recipe.getDuration());
+        long totalEUt = (long) resultOverclock[0] * resultOverclock[1];
+        if (totalEUt >= 0 && !hasEnergyToStart(resultOverclock[0], totalEUt))
+            return false;
+        return super.setupAndConsumeRecipeInputs(recipe);
+    }
+
+    /**
+     * The energy check of {@code setupAndConsumeRecipeInputs} for a recipe using energy: the energy of the whole recipe,
+     * or of one tick when that is more than half the capacity. When short, the energy needed is kept for the
+     * {@link #getSearchState() search state}, so the search runs again as soon as it is stored.
+     */
+    protected boolean hasEnergyToStart(long EUt, long totalEUt) {
+        long needed = totalEUt > getEnergyCapacity() / 2 ? EUt : totalEUt;
+        if (getEnergyStored() >= needed)
+            return true;
+        this.energyNeeded = needed;
+        return false;
+    }
+
+    /**
+     * @return a value that changes whenever the item and fluid inputs or outputs do, or the stored energy
+     * reaches what the last search was short of
+     */
+    protected long getSearchState() {
+        long state = RecipeSearchBackoff.getEnergyState(getEnergyStored(), energyNeeded);
+        state = 31 * state + RecipeSearchBackoff.getItemState(getInputInventory());
+        state = 31 * state + RecipeSearchBackoff.getItemState(getOutputInventory());
+        state = 31 * state + RecipeSearchBackoff.getFluidState(getInputTank());
+        state = 31 * state + RecipeSearchBackoff.getFluidState(getOutputTank());
+        return state;
     }
 }
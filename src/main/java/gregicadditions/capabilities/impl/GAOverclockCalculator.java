@@ -0,0 +1,116 @@
+package gregicadditions.capabilities.impl;
+
+import gregicadditions.GAValues;
+
+/**
+ * Overclocking shared by every GA recipe logic: each overclock multiplies EU/t by 4 and divides the duration by 2.8.
+ * <p>
+ * The number of overclocks is worked out directly from the voltage headroom and a table of minimum durations
+ * instead of stepping through them, and the results are written into an array owned by the calculator,
+ * so the returned array is only valid until the next call.
+ */
+public class GAOverclockCalculator {
+
+    private static final double DURATION_DIVISOR = 2.8;
+    private static final int MIN_OVERCLOCK_DURATION = 3;
+
+    /**
+     * MIN_DURATION[k] is the smallest duration that is still at least 3 ticks after k overclocks,
+     * overclocking stops at the first k the recipe duration is below.
+     */
+    private static final long[] MIN_DURATION = computeMinDurations();
+
+    private final int[] result = new int[2];
+
+    /**
+     * @param EUt      the EU/t of the recipe, negative for generators
+     * @param duration the duration of the recipe
+     * @param tier     the overclocking tier of the machine, 0 when it cannot overclock
+     * @return the overclocked EU/t and duration, in an array reused on every call
+     */
+    public int[] calculate(int EUt, int duration, int tier) {
+        if (GAValues.V[tier] <= EUt || tier == 0)
+            return setResult(EUt, duration);
+        boolean negativeEU = EUt < 0;
+        if (negativeEU)
+            EUt = -EUt;
+        if (EUt <= 16) {
+            int multiplier = EUt <= 8 ? tier : tier - 1;
+            int resultEUt = EUt * (1 << multiplier) * (1 << multiplier);
+            int resultDuration = duration / (1 << multiplier);
+            return setResult(negativeEU ? -resultEUt : resultEUt, resultDuration);
+        }
+        //do not overclock further if duration is already too small
+        int overclocks = Math.min(getVoltageOverclocks(EUt, GAValues.V[tier - 1]), getDurationOverclocks(duration));
+        int resultEUt = overclocks >= 16 ? 0 : EUt << (2 * overclocks);
+        double resultDuration = duration;
+        // divide step by step, a single division by 2.8^n rounds differently
+        for (int i = 0; i < overclocks; i++) {
+            resultDuration /= DURATION_DIVISOR;
+        }
+        return setResult(negativeEU ? -resultEUt : resultEUt, (int) Math.ceil(resultDuration));
+    }
+
+    public int getResultEUt() {
+        return result[0];
+    }
+
+    public int getResultDuration() {
+        return result[1];
+    }
+
+    private int[] setResult(int EUt, int duration) {
+        result[0] = EUt;
+        result[1] = duration;
+        return result;
+    }
+
+    /**
+     * @return how many times the EU/t can be multiplied by 4 while it is still at most the limit before the multiplication
+     */
+    private static int getVoltageOverclocks(int EUt, int limit) {
+        if (EUt > limit)
+            return 0;
+        // largest k with EUt * 4^k <= limit
+        int k = (31 - Integer.numberOfLeadingZeros(limit / EUt)) / 2;
+        // EUt * 4^(k + 1) landing exactly on 2^31 overflows to a value that never exceeds the limit again
+        if (((long) EUt << (2 * (k + 1))) == 1L << 31)
+            return Integer.MAX_VALUE;
+        return k + 1;
+    }
+
+    private static int getDurationOverclocks(int duration) {
+        int overclocks = 0;
+        while (duration >= MIN_DURATION[overclocks]) {
+            overclocks++;
+        }
+        return overclocks;
+    }
+
+    private static long[] computeMinDurations() {
+        long[] minDurations = new long[32];
+        for (int overclocks = 0; overclocks < minDurations.length; overclocks++) {
+            long low = 0;
+            long high = (long) Integer.MAX_VALUE + 1;
+            // durations keep their order through each division, so binary search the first one still long enough
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                if (divide(mid, overclocks) >= MIN_OVERCLOCK_DURATION) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            minDurations[overclocks] = low;
+        }
+        return minDurations;
+    }
+
+    private static double divide(long duration, int times) {
+        double result = duration;
+        for (int i = 0; i < times; i++) {
+            result /= DURATION_DIVISOR;
+        }
+        return result;
+    }
+}
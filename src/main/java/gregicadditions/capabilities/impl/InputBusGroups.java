@@ -0,0 +1,153 @@
+package gregicadditions.capabilities.impl;
+
+import gregicadditions.recipes.IngredientCounter;
+import gregicadditions.utils.Tuple;
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.capability.impl.ItemHandlerList;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandlerModifiable;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Groups input buses holding the same kinds of items, whatever their amounts and slots,
+ * so a recipe is searched once per group instead of once per bus, against all the items of the group.
+ * Empty buses are left out.
+ * <p>
+ * Meant to be kept by the recipe logic and {@link #group regrouped} before every search.
+ */
+public class InputBusGroups {
+
+    private final List<BusKinds> kinds = new ArrayList<>();
+    private final List<List<IItemHandlerModifiable>> groups = new ArrayList<>();
+    private final List<IItemHandlerModifiable> groupInventories = new ArrayList<>();
+
+    public void group(List<IItemHandlerModifiable> buses) {
+        kinds.clear();
+        groups.clear();
+        groupInventories.clear();
+        for (IItemHandlerModifiable bus : buses) {
+            BusKinds busKinds = new BusKinds(bus);
+            if (busKinds.isEmpty())
+                continue;
+            int index = kinds.indexOf(busKinds);
+            if (index == -1) {
+                kinds.add(busKinds);
+                List<IItemHandlerModifiable> group = new ArrayList<>();
+                group.add(bus);
+                groups.add(group);
+            } else {
+                groups.get(index).add(bus);
+            }
+        }
+        for (List<IItemHandlerModifiable> group : groups) {
+            groupInventories.add(group.size() == 1 ? group.get(0) : new ItemHandlerList(group));
+        }
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * @return the buses of a group, in the order they were given
+     */
+    public List<IItemHandlerModifiable> getBuses(int group) {
+        return groups.get(group);
+    }
+
+    /**
+     * @return the items of every bus in a group as a single inventory
+     */
+    public IItemHandlerModifiable getInventory(int group) {
+        return groupInventories.get(group);
+    }
+
+    /**
+     * Searches the recipe map once per group, in order, until one has a recipe.
+     *
+     * @return the recipe with the inventory of the group it was found for, or null if no group has one
+     */
+    @Nullable
+    public Tuple<Recipe, IItemHandlerModifiable> findRecipe(RecipeMap<?> recipeMap, long maxVoltage, IMultipleTankHandler fluidInputs) {
+        for (IItemHandlerModifiable groupInventory : groupInventories) {
+            Recipe recipe = recipeMap.findRecipe(maxVoltage, groupInventory, fluidInputs, 0);
+            if (recipe != null)
+                return new Tuple<>(recipe, groupInventory);
+        }
+        return null;
+    }
+
+    /**
+     * The kinds of items in a bus, sorted so the slots they sit in do not matter.
+     */
+    private static final class BusKinds {
+
+        private final List<ItemStack> stacks = new ArrayList<>();
+        private final int hash;
+
+        BusKinds(IItemHandlerModifiable bus) {
+            for (int slot = 0; slot < bus.getSlots(); slot++) {
+                ItemStack stack = bus.getStackInSlot(slot);
+                if (stack.isEmpty() || contains(stack))
+                    continue;
+                int index = 0;
+                while (index < stacks.size() && compare(stacks.get(index), stack) < 0) {
+                    index++;
+                }
+                stacks.add(index, stack);
+            }
+            int hash = 1;
+            for (ItemStack stack : stacks) {
+                hash = 31 * hash + Long.hashCode(IngredientCounter.getItemKey(stack));
+                hash = 31 * hash + Objects.hashCode(stack.getTagCompound());
+            }
+            this.hash = hash;
+        }
+
+        private boolean contains(ItemStack stack) {
+            for (ItemStack kind : stacks) {
+                if (isSameKind(kind, stack))
+                    return true;
+            }
+            return false;
+        }
+
+        private static boolean isSameKind(ItemStack a, ItemStack b) {
+            return a.getItem() == b.getItem() && a.getMetadata() == b.getMetadata() && ItemStack.areItemStackTagsEqual(a, b);
+        }
+
+        private static int compare(ItemStack a, ItemStack b) {
+            int result = Long.compare(IngredientCounter.getItemKey(a), IngredientCounter.getItemKey(b));
+            return result != 0 ? result : Integer.compare(Objects.hashCode(a.getTagCompound()), Objects.hashCode(b.getTagCompound()));
+        }
+
+        boolean isEmpty() {
+            return stacks.isEmpty();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof BusKinds))
+                return false;
+            BusKinds other = (BusKinds) obj;
+            if (hash != other.hash || stacks.size() != other.stacks.size())
+                return false;
+            for (int i = 0; i < stacks.size(); i++) {
+                if (!isSameKind(stacks.get(i), other.stacks.get(i)))
+                    return false;
+            }
+            return true;
+        }
+    }
+}
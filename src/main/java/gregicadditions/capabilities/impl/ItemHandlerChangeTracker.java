@@ -0,0 +1,74 @@
+package gregicadditions.capabilities.impl;
+
+import gregicadditions.capabilities.IModificationCounter;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the state of a list of item handlers to tell which of them changed since they were last checked.
+ * <p>
+ * Every handler is checked by remembering the stack instance and count of each slot, which needs no copying,
+ * and handlers implementing {@link IModificationCounter} by their modification count as well.
+ * The slots are still compared for those: stacks grown or shrunk in place, e.g. by a container click merging
+ * into a slot or by recipe consumption, do not go through the handler and so do not move the counter.
+ */
+public class ItemHandlerChangeTracker {
+
+    private IItemHandler[] handlers = new IItemHandler[0];
+    private int[] modificationCounts = new int[0];
+    private ItemStack[][] lastStacks = new ItemStack[0][];
+    private int[][] lastCounts = new int[0][];
+
+    public void setSize(int size) {
+        if (handlers.length != size) {
+            handlers = new IItemHandler[size];
+            modificationCounts = new int[size];
+            lastStacks = new ItemStack[size][];
+            lastCounts = new int[size][];
+        }
+    }
+
+    public int getSize() {
+        return handlers.length;
+    }
+
+    /**
+     * Forces the next {@link #checkDirty} of this index to report a change.
+     */
+    public void markDirty(int index) {
+        handlers[index] = null;
+    }
+
+    /**
+     * @return true if the handler at this index is not the one last checked or its contents changed since then
+     */
+    public boolean checkDirty(int index, IItemHandler handler) {
+        boolean dirty = handlers[index] != handler;
+        handlers[index] = handler;
+        if (handler instanceof IModificationCounter) {
+            int modificationCount = ((IModificationCounter) handler).getModificationCount();
+            dirty |= modificationCounts[index] != modificationCount;
+            modificationCounts[index] = modificationCount;
+        }
+        int slots = handler.getSlots();
+        if (lastStacks[index] == null || lastStacks[index].length != slots) {
+            lastStacks[index] = new ItemStack[slots];
+            lastCounts[index] = new int[slots];
+            Arrays.fill(lastStacks[index], ItemStack.EMPTY);
+            dirty = true;
+        }
+        ItemStack[] stacks = lastStacks[index];
+        int[] counts = lastCounts[index];
+        for (int slot = 0; slot < slots; slot++) {
+            ItemStack currentStack = handler.getStackInSlot(slot);
+            if (stacks[slot] != currentStack || counts[slot] != currentStack.getCount()) {
+                stacks[slot] = currentStack;
+                counts[slot] = currentStack.getCount();
+                dirty = true;
+            }
+        }
+        return dirty;
+    }
+}
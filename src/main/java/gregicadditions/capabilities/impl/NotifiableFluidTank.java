@@ -0,0 +1,45 @@
+package gregicadditions.capabilities.impl;
+
+import gregtech.api.capability.impl.FilteredFluidHandler;
+import net.minecraftforge.fluids.FluidStack;
+
+import javax.annotation.Nullable;
+
+/**
+ * Fluid tank telling a listener each time its contents change through fill, drain or {@link #setFluid}.
+ */
+public class NotifiableFluidTank extends FilteredFluidHandler {
+
+    private Runnable listener;
+
+    public NotifiableFluidTank(int capacity) {
+        super(capacity);
+    }
+
+    @Nullable
+    public Runnable getListener() {
+        return listener;
+    }
+
+    public void setListener(@Nullable Runnable listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setFluid(@Nullable FluidStack fluid) {
+        super.setFluid(fluid);
+        notifyListener();
+    }
+
+    @Override
+    protected void onContentsChanged() {
+        super.onContentsChanged();
+        notifyListener();
+    }
+
+    private void notifyListener() {
+        if (listener != null) {
+            listener.run();
+        }
+    }
+}
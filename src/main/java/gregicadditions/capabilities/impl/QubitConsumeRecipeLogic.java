@@ -3,6 +3,7 @@ package gregicadditions.capabilities.impl;
 
 import gregicadditions.capabilities.IQubitContainer;
 import gregicadditions.machines.multi.qubit.QubitRecipeMapMultiblockController;
+import gregicadditions.recipes.RecipePropertyKey;
 import gregtech.api.metatileentity.multiblock.RecipeMapMultiblockController;
 import gregtech.api.recipes.Recipe;
 import net.minecraft.nbt.NBTTagCompound;
@@ -25,7 +26,7 @@ public class QubitConsumeRecipeLogic extends GAMultiblockRecipeLogic {
     @Override
     protected int[] calculateOverclock(int EUt, long voltage, int duration) {
         if (recipeQubit > 0) {
-            return new int[]{EUt, duration};
+            return overclockCalculator.calculate(EUt, duration, 0);
         }
         return super.calculateOverclock(EUt, voltage, duration);
     }
@@ -33,7 +34,7 @@ public class QubitConsumeRecipeLogic extends GAMultiblockRecipeLogic {
     @Override
     protected void setupRecipe(Recipe recipe) {
         super.setupRecipe(recipe);
-        recipeQubit = recipe.getIntegerProperty("qubitConsume");
+        recipeQubit = RecipePropertyKey.QUBIT_CONSUME.get(recipe);
     }
 
     @Override
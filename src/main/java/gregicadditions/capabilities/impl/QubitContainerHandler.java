@@ -8,8 +8,10 @@ import gregtech.api.metatileentity.MetaTileEntity;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 
+import javax.annotation.Nullable;
 import java.util.function.Predicate;
 
 public class QubitContainerHandler extends MTETrait implements IQubitContainer {
@@ -26,6 +28,9 @@ public class QubitContainerHandler extends MTETrait implements IQubitContainer {
     private Predicate<EnumFacing> sideInputCondition;
     private Predicate<EnumFacing> sideOutputCondition;
 
+    // the container list of the multiblock this hatch is part of, told when the stored qubits change
+    private Runnable qubitStoredListener;
+
     public QubitContainerHandler(MetaTileEntity tileEntity, long maxCapacity, long maxInputQubit, long maxInputParallel, long maxOutputQubit, long maxOutputParallel) {
         super(tileEntity);
         this.maxCapacity = maxCapacity;
@@ -79,6 +84,7 @@ public class QubitContainerHandler extends MTETrait implements IQubitContainer {
     @Override
     public void deserializeNBT(NBTTagCompound compound) {
         this.qubitStored = compound.getLong("QubitStored");
+        notifyQubitStoredListener();
         notifyEnergyListener(true);
     }
 
@@ -89,12 +95,29 @@ public class QubitContainerHandler extends MTETrait implements IQubitContainer {
 
     public void setQubitStored(long qubitStored) {
         this.qubitStored = qubitStored;
-        if (!metaTileEntity.getWorld().isRemote) {
+        notifyQubitStoredListener();
+        World world = metaTileEntity.getWorld();
+        if (world != null && !world.isRemote) {
             metaTileEntity.markDirty();
             notifyEnergyListener(false);
         }
     }
 
+    @Nullable
+    public Runnable getQubitStoredListener() {
+        return qubitStoredListener;
+    }
+
+    public void setQubitStoredListener(@Nullable Runnable qubitStoredListener) {
+        this.qubitStoredListener = qubitStoredListener;
+    }
+
+    private void notifyQubitStoredListener() {
+        if (qubitStoredListener != null) {
+            qubitStoredListener.run();
+        }
+    }
+
     protected void notifyEnergyListener(boolean isInitialChange) {
         if (metaTileEntity instanceof IQubitChangeListener) {
             ((IQubitChangeListener) metaTileEntity).onEnergyChanged(this, isInitialChange);
@@ -5,12 +5,44 @@ import net.minecraft.util.EnumFacing;
 
 import java.util.List;
 
+/**
+ * All the qubit hatches of a multiblock seen as one container.
+ * <p>
+ * The capacity and qubit rates of {@link QubitContainerHandler}s never change, so their sums are worked out once.
+ * The stored qubits are summed again only after one of the handlers told the list its value changed.
+ * Any other kind of container makes the list sum everything on each call.
+ */
 public class QubitContainerList implements IQubitContainer {
 
-    private List<IQubitContainer> qubitContainerList;
+    private final List<IQubitContainer> qubitContainerList;
+    private final boolean cached;
+    private final Runnable onQubitStoredChanged = this::invalidateQubitStored;
+
+    private final long qubitCapacity;
+    private final long inputQubit;
+    private final long outputQubit;
+    private long qubitStored;
+    private boolean qubitStoredValid = false;
 
     public QubitContainerList(List<IQubitContainer> qubitContainerList) {
         this.qubitContainerList = qubitContainerList;
+        boolean cached = true;
+        for (IQubitContainer qubitContainer : qubitContainerList) {
+            if (qubitContainer instanceof QubitContainerHandler) {
+                // a hatch only belongs to the last multiblock that formed with it
+                ((QubitContainerHandler) qubitContainer).setQubitStoredListener(onQubitStoredChanged);
+            } else {
+                cached = false;
+            }
+        }
+        this.cached = cached;
+        this.qubitCapacity = sumQubitCapacity();
+        this.inputQubit = sumInputQubit();
+        this.outputQubit = sumOutputQubit();
+    }
+
+    public void invalidateQubitStored() {
+        this.qubitStoredValid = false;
     }
 
     @Override
@@ -45,16 +77,20 @@ public class QubitContainerList implements IQubitContainer {
 
     @Override
     public long getQubitStored() {
-        return qubitContainerList.stream()
-                .mapToLong(IQubitContainer::getQubitStored)
-                .sum();
+        if (!cached || !qubitStoredValid) {
+            long qubitStored = 0L;
+            for (IQubitContainer qubitContainer : qubitContainerList) {
+                qubitStored += qubitContainer.getQubitStored();
+            }
+            this.qubitStored = qubitStored;
+            this.qubitStoredValid = true;
+        }
+        return qubitStored;
     }
 
     @Override
     public long getQubitCapacity() {
-        return qubitContainerList.stream()
-                .mapToLong(IQubitContainer::getQubitCapacity)
-                .sum();
+        return cached ? qubitCapacity : sumQubitCapacity();
     }
 
     @Override
@@ -69,16 +105,36 @@ public class QubitContainerList implements IQubitContainer {
 
     @Override
     public long getInputQubit() {
-        return qubitContainerList.stream()
-                .mapToLong(v -> v.getInputQubit() * v.getInputParallel())
-                .sum();
+        return cached ? inputQubit : sumInputQubit();
     }
 
     @Override
     public long getOutputQubit() {
-        return qubitContainerList.stream()
-                .mapToLong(v -> v.getOutputQubit() * v.getOutputParallel())
-                .sum();
+        return cached ? outputQubit : sumOutputQubit();
+    }
+
+    private long sumQubitCapacity() {
+        long qubitCapacity = 0L;
+        for (IQubitContainer qubitContainer : qubitContainerList) {
+            qubitCapacity += qubitContainer.getQubitCapacity();
+        }
+        return qubitCapacity;
+    }
+
+    private long sumInputQubit() {
+        long inputQubit = 0L;
+        for (IQubitContainer qubitContainer : qubitContainerList) {
+            inputQubit += qubitContainer.getInputQubit() * qubitContainer.getInputParallel();
+        }
+        return inputQubit;
+    }
+
+    private long sumOutputQubit() {
+        long outputQubit = 0L;
+        for (IQubitContainer qubitContainer : qubitContainerList) {
+            outputQubit += qubitContainer.getOutputQubit() * qubitContainer.getOutputParallel();
+        }
+        return outputQubit;
     }
 
 }
@@ -3,6 +3,7 @@ package gregicadditions.capabilities.impl;
 
 import gregicadditions.capabilities.IQubitContainer;
 import gregicadditions.machines.multi.qubit.QubitRecipeMapMultiblockController;
+import gregicadditions.recipes.RecipePropertyKey;
 import gregtech.api.metatileentity.multiblock.RecipeMapMultiblockController;
 import gregtech.api.recipes.Recipe;
 import net.minecraft.nbt.NBTTagCompound;
@@ -30,7 +31,7 @@ public class QubitProducerRecipeLogic extends GAMultiblockRecipeLogic {
     @Override
     protected void setupRecipe(Recipe recipe) {
         super.setupRecipe(recipe);
-        this.recipeOutputQubit = recipe.getIntegerProperty("qubitProduce");
+        this.recipeOutputQubit = RecipePropertyKey.QUBIT_PRODUCE.get(recipe);
     }
 
     @Override
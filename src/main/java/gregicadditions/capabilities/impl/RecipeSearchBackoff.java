@@ -0,0 +1,98 @@
+package gregicadditions.capabilities.impl;
+
+import gregicadditions.capabilities.IModificationCounter;
+import gregtech.api.capability.IMultipleTankHandler;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.items.IItemHandler;
+
+/**
+ * Exponential backoff for recipe logics whose search keeps failing.
+ * <p>
+ * Every failed search doubles the number of ticks skipped before the next one, up to {@link #MAX_DELAY}.
+ * The recipe logic hands in a state value summarizing its inputs, outputs and energy each tick,
+ * and any change of it makes the next search happen right away.
+ */
+public class RecipeSearchBackoff {
+
+    public static final int MAX_DELAY = 128;
+
+    private int delay = 0;
+    private int ticksLeft = 0;
+    private long lastState;
+
+    /**
+     * @param state value that changes whenever something the search depends on does
+     * @return true if the search should run this tick
+     */
+    public boolean shouldSearch(long state) {
+        if (state != lastState) {
+            this.lastState = state;
+            reset();
+            return true;
+        }
+        if (ticksLeft > 0) {
+            ticksLeft--;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param started true if the search started a recipe
+     */
+    public void onSearchFinished(boolean started) {
+        if (started) {
+            reset();
+        } else {
+            this.delay = delay == 0 ? 1 : Math.min(delay * 2, MAX_DELAY);
+            this.ticksLeft = delay;
+        }
+    }
+
+    public void reset() {
+        this.delay = 0;
+        this.ticksLeft = 0;
+    }
+
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * The stored energy as far as the last search is concerned, so a hatch charging or draining every tick does not count as a change.
+     * It only changes when the energy reaches what the recipe found by the last search needed to start.
+     *
+     * @param energyNeeded the energy the last search was short of, 0 if it did not fail for lack of energy
+     */
+    public static int getEnergyState(long energyStored, long energyNeeded) {
+        return energyNeeded > 0 && energyStored >= energyNeeded ? 1 : 0;
+    }
+
+    /**
+     * Folds the contents of the handler into one value: every stack instance and count, as in {@link ItemHandlerChangeTracker},
+     * and the count of handlers counting their modifications. The count alone misses stacks grown or shrunk in place.
+     */
+    public static long getItemState(IItemHandler itemHandler) {
+        long state = System.identityHashCode(itemHandler);
+        if (itemHandler instanceof IModificationCounter) {
+            state = 31 * state + ((IModificationCounter) itemHandler).getModificationCount();
+        }
+        for (int slot = 0; slot < itemHandler.getSlots(); slot++) {
+            ItemStack itemStack = itemHandler.getStackInSlot(slot);
+            state = 31 * state + System.identityHashCode(itemStack);
+            state = 31 * state + itemStack.getCount();
+        }
+        return state;
+    }
+
+    public static long getFluidState(IMultipleTankHandler fluidHandler) {
+        long state = 0;
+        for (int i = 0; i < fluidHandler.getTanks(); i++) {
+            FluidStack fluidStack = fluidHandler.getTankAt(i).getFluid();
+            state = 31 * state + (fluidStack == null ? 0 : System.identityHashCode(fluidStack.getFluid()));
+            state = 31 * state + (fluidStack == null ? 0 : fluidStack.amount);
+        }
+        return state;
+    }
+}
@@ -6,7 +6,6 @@ import gregtech.api.capability.impl.AbstractRecipeLogic;
 import gregtech.api.capability.impl.FluidTankList;
 import gregtech.api.recipes.Recipe;
 import gregtech.api.recipes.RecipeMap;
-import net.minecraftforge.fluids.FluidTank;
 import net.minecraftforge.fluids.IFluidTank;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.IItemHandlerModifiable;
@@ -14,7 +13,7 @@ import net.minecraftforge.items.IItemHandlerModifiable;
 public class SteamMultiblockRecipeLogic extends AbstractRecipeLogic {
 
     private IMultipleTankHandler steamFluidTank;
-    private IFluidTank steamFluidTankCombined;
+    private final AggregatedSteamTank steamFluidTankCombined = new AggregatedSteamTank();
 
     // EU per mB
     private final double conversionRate;
@@ -24,6 +23,7 @@ public class SteamMultiblockRecipeLogic extends AbstractRecipeLogic {
         this.steamFluidTank = steamFluidTank;
         this.conversionRate = conversionRate;
         allowOverclocking = false;
+        steamFluidTankCombined.setTanks(steamFluidTank);
         combineSteamTanks();
     }
 
@@ -49,14 +49,12 @@ public class SteamMultiblockRecipeLogic extends AbstractRecipeLogic {
         return controller.steamFluidTank;
     }
 
+    // the controller replaces its tank list when the structure forms or breaks, follow it
     private void combineSteamTanks() {
-        steamFluidTank = getSteamFluidTank();
-        if (steamFluidTank == null)
-            steamFluidTankCombined = new FluidTank(0);
-        else {
-            int capacity = steamFluidTank.getTanks() * 64000;
-            steamFluidTankCombined = new FluidTank(capacity);
-            steamFluidTankCombined.fill(steamFluidTank.drain(capacity, false), true);
+        IMultipleTankHandler currentSteamFluidTank = getSteamFluidTank();
+        if (currentSteamFluidTank != steamFluidTank) {
+            steamFluidTank = currentSteamFluidTank;
+            steamFluidTankCombined.setTanks(steamFluidTank);
         }
     }
 
@@ -4,6 +4,7 @@ import gregicadditions.item.GAMetaItems;
 import gregicadditions.jei.JEIGAPlugin;
 import gregicadditions.machines.multi.centralmonitor.MetaTileEntityMonitorScreen;
 import gregicadditions.utils.BlockPatternChecker;
+import gregicadditions.utils.CompiledBlockPattern;
 import gregtech.api.block.machines.BlockMachine;
 import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.metatileentity.MetaTileEntityHolder;
@@ -248,8 +249,9 @@ public class WorldRenderEventRenderer {
 
             EnumFacing facing = controllerBase.getFrontFacing();
             EnumFacing spin = EnumFacing.NORTH;
-            BlockPatternChecker.updateAllValue(ObfuscationReflectionHelper.getPrivateValue(MultiblockControllerBase.class, controllerBase, "structurePattern"));
-            BlockPattern.RelativeDirection[] structureDir = BlockPatternChecker.structureDir;
+            BlockPattern structurePattern = BlockPatternChecker.getStructurePattern(controllerBase);
+            CompiledBlockPattern compiledPattern = structurePattern == null ? null : CompiledBlockPattern.of(structurePattern);
+            BlockPattern.RelativeDirection[] structureDir = compiledPattern == null ? null : compiledPattern.getStructureDir();
 
             if (structureDir == null) {
                 reset();
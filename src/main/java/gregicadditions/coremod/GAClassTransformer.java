@@ -45,6 +45,12 @@ public class GAClassTransformer implements IClassTransformer {
             case "gregtech.api.metatileentity.multiblock.MultiblockControllerBase":
                 tform = MultiblockControllerBaseTransformer.INSTANCE;
                 break;
+            case "gregtech.common.metatileentities.electric.multiblockpart.MetaTileEntityItemBus":
+                tform = MetaTileEntityItemBusTransformer.INSTANCE;
+                break;
+            case "gregtech.api.recipes.RecipeMap":
+                tform = RecipeMapTransformer.INSTANCE;
+                break;
             default:
                 return basicClass;
         }
@@ -3,8 +3,12 @@ package gregicadditions.coremod.hooks;
 import codechicken.lib.render.CCRenderState;
 import codechicken.lib.vec.Matrix4;
 import codechicken.lib.vec.Rotation;
+import gregicadditions.capabilities.impl.CountingItemStackHandler;
 import gregicadditions.covers.CoverDigitalInterface;
+import gregicadditions.recipes.RecipeLookupCache;
+import gregicadditions.recipes.RecipeMapInputIndex;
 import gregicadditions.utils.BlockPatternChecker;
+import gregicadditions.utils.StructureWatcher;
 import gregtech.api.capability.impl.EnergyContainerBatteryBuffer;
 import gregtech.api.capability.impl.EnergyContainerHandler;
 import gregtech.api.cover.CoverBehavior;
@@ -21,6 +25,8 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
+import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemStackHandler;
 
 @SuppressWarnings("unused")
 public class GregTechCEHooks {
@@ -171,4 +177,34 @@ public class GregTechCEHooks {
             BlockPatternChecker.setSpin(mte, EnumFacing.VALUES[buf.readByte()]);
         }
     }
+
+    //origin: gregtech.common.metatileentities.electric.multiblockpart.MetaTileEntityItemBus.createImportItemHandler()
+    public static IItemHandlerModifiable createImportItemHandler(IItemHandlerModifiable itemHandler) {
+        // count modifications so distinct bus recipe logic can tell which buses changed without scanning them
+        if (itemHandler.getClass() == ItemStackHandler.class) {
+            return new CountingItemStackHandler(itemHandler.getSlots());
+        }
+        return itemHandler;
+    }
+
+    //origin: gregtech.common.metatileentities.electric.multiblockpart.MetaTileEntityItemBus.createExportItemHandler()
+    public static IItemHandlerModifiable createExportItemHandler(IItemHandlerModifiable itemHandler) {
+        // count modifications so recipe search backoff can tell the outputs changed without scanning them
+        if (itemHandler.getClass() == ItemStackHandler.class) {
+            return new CountingItemStackHandler(itemHandler.getSlots());
+        }
+        return itemHandler;
+    }
+
+    //origin: gregtech.api.metatileentity.multiblock.MultiblockControllerBase.checkStructurePattern()
+    public static boolean skipStructureCheck(MultiblockControllerBase controllerBase) {
+        return StructureWatcher.skipCheck(controllerBase);
+    }
+
+    //origin: gregtech.api.recipes.RecipeMap.addRecipe() and removeRecipe()
+    public static void onRecipesChanged() {
+        // cached lookups and indexes may point at a removed recipe or miss a new one
+        RecipeLookupCache.INSTANCE.invalidate();
+        RecipeMapInputIndex.invalidateAll();
+    }
 }
@@ -0,0 +1,57 @@
+package gregicadditions.coremod.transform;
+
+import gregicadditions.coremod.GAClassTransformer.ClassMapper;
+import gregicadditions.coremod.GAClassTransformer.GAMethodVisitor;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+public class MetaTileEntityItemBusTransformer extends ClassMapper {
+
+    public static final MetaTileEntityItemBusTransformer INSTANCE = new MetaTileEntityItemBusTransformer();
+
+    private MetaTileEntityItemBusTransformer() {
+        // NO-OP
+    }
+
+    @Override
+    protected ClassVisitor getClassMapper(ClassVisitor downstream) {
+        return new TransformMetaTileEntityItemBus(Opcodes.ASM5, downstream);
+    }
+
+    private static class TransformMetaTileEntityItemBus extends ClassVisitor {
+
+        TransformMetaTileEntityItemBus(int api, ClassVisitor cv) {
+            super(api, cv);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            if (name.equals("createImportItemHandler") || name.equals("createExportItemHandler")) {
+                return new TransformCreateItemHandler(api, super.visitMethod(access, name, desc, signature, exceptions), name);
+            }
+            return super.visitMethod(access, name, desc, signature, exceptions);
+        }
+
+    }
+
+    private static class TransformCreateItemHandler extends GAMethodVisitor {
+
+        private final String hookName;
+
+        TransformCreateItemHandler(int api, MethodVisitor mv, String hookName) {
+            super(api, mv);
+            this.hookName = hookName;
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            if (opcode == Opcodes.ARETURN) {
+                super.injectStaticMethod(GTCEHooks, hookName);
+            }
+            super.visitInsn(opcode);
+        }
+
+    }
+
+}
@@ -3,6 +3,7 @@ package gregicadditions.coremod.transform;
 import gregicadditions.coremod.GAClassTransformer.ClassMapper;
 import gregicadditions.coremod.GAClassTransformer.GAMethodVisitor;
 import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
@@ -35,6 +36,9 @@ public class MultiblockControllerBaseTransformer extends ClassMapper {
             if (name.equals("renderMetaTileEntity")) {
                 return new TransformRenderMetaTileEntity(api, super.visitMethod(access, name, desc, signature, exceptions));
             }
+            if (name.equals("checkStructurePattern")) {
+                return new TransformCheckStructurePattern(api, super.visitMethod(access, name, desc, signature, exceptions));
+            }
             return super.visitMethod(access, name, desc, signature, exceptions);
         }
 
@@ -56,4 +60,25 @@ public class MultiblockControllerBaseTransformer extends ClassMapper {
 
     }
 
+    private static class TransformCheckStructurePattern extends GAMethodVisitor {
+
+        TransformCheckStructurePattern(int api, MethodVisitor mv) {
+            super(api, mv);
+        }
+
+        @Override
+        public void visitCode() {
+            super.visitCode();
+            // if (GregTechCEHooks.skipStructureCheck(this)) return;
+            Label check = new Label();
+            super.visitVarInsn(Opcodes.ALOAD, 0);
+            super.injectStaticMethod(GTCEHooks, "skipStructureCheck");
+            super.visitJumpInsn(Opcodes.IFEQ, check);
+            super.visitInsn(Opcodes.RETURN);
+            super.visitLabel(check);
+            super.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+        }
+
+    }
+
 }
@@ -0,0 +1,52 @@
+package gregicadditions.coremod.transform;
+
+import gregicadditions.coremod.GAClassTransformer.ClassMapper;
+import gregicadditions.coremod.GAClassTransformer.GAMethodVisitor;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+public class RecipeMapTransformer extends ClassMapper {
+
+    public static final RecipeMapTransformer INSTANCE = new RecipeMapTransformer();
+
+    private RecipeMapTransformer() {
+        // NO-OP
+    }
+
+    @Override
+    protected ClassVisitor getClassMapper(ClassVisitor downstream) {
+        return new TransformRecipeMap(Opcodes.ASM5, downstream);
+    }
+
+    private static class TransformRecipeMap extends ClassVisitor {
+
+        TransformRecipeMap(int api, ClassVisitor cv) {
+            super(api, cv);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            if (name.equals("addRecipe") || name.equals("removeRecipe")) {
+                return new TransformChangeRecipes(api, super.visitMethod(access, name, desc, signature, exceptions));
+            }
+            return super.visitMethod(access, name, desc, signature, exceptions);
+        }
+
+    }
+
+    private static class TransformChangeRecipes extends GAMethodVisitor {
+
+        TransformChangeRecipes(int api, MethodVisitor mv) {
+            super(api, mv);
+        }
+
+        @Override
+        public void visitCode() {
+            super.injectStaticMethod(GTCEHooks, "onRecipesChanged");
+            super.visitCode();
+        }
+
+    }
+
+}
@@ -24,6 +24,7 @@ import gregtech.api.metatileentity.multiblock.MultiblockControllerBase;
 import gregtech.api.multiblock.PatternMatchContext;
 import gregtech.api.util.BlockInfo;
 import gregtech.common.blocks.MetaBlocks;
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
@@ -66,7 +67,8 @@ public class AdvancedMonitorPluginBehavior extends ProxyHolderPluginBehavior {
     @SideOnly(Side.CLIENT)
     private int teCount;
     private boolean isValid;
-    List<BlockPos> validPos;
+    // packed with BlockPos.toLong
+    long[] validPos;
 
 
     private void createWorldScene() {
@@ -77,14 +79,17 @@ public class AdvancedMonitorPluginBehavior extends ProxyHolderPluginBehavior {
         int minX = Integer.MAX_VALUE;
         int minY = Integer.MAX_VALUE;
         int minZ = Integer.MAX_VALUE;
-        for (BlockPos pos : validPos) {
-            minX = Math.min(minX, pos.getX());
-            minY = Math.min(minY, pos.getY());
-            minZ = Math.min(minZ, pos.getZ());
+        BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+        for (long packedPos : validPos) {
+            setPos(mutablePos, packedPos);
+            minX = Math.min(minX, mutablePos.getX());
+            minY = Math.min(minY, mutablePos.getY());
+            minZ = Math.min(minZ, mutablePos.getZ());
         }
         minPos = new BlockPos(minX, minY, minZ);
         int rte = 0;
-        for (BlockPos pos : validPos) {
+        for (long packedPos : validPos) {
+            BlockPos pos = BlockPos.fromLong(packedPos);
             TileEntity tileEntity = world.getTileEntity(pos);
             if (tileEntity != null) rte++;
             if (tileEntity instanceof MetaTileEntityHolder && ((MetaTileEntityHolder) tileEntity).getMetaTileEntity() != null) {
@@ -181,7 +186,7 @@ public class AdvancedMonitorPluginBehavior extends ProxyHolderPluginBehavior {
         super.update();
         if (this.screen.getTimer() % 20 == 0) {
             if (this.screen.getWorld().isRemote) { // check connections
-                if (worldSceneRenderer == null && validPos != null && validPos.size() > 0) {
+                if (worldSceneRenderer == null && validPos != null && validPos.length > 0) {
                     createWorldScene();
                 }
                 if (this.connect && worldSceneRenderer != null && this.screen.getController() instanceof MetaTileEntityCentralMonitor) {
@@ -209,20 +214,11 @@ public class AdvancedMonitorPluginBehavior extends ProxyHolderPluginBehavior {
                         if(!isValid) {
                             PatternMatchContext result = BlockPatternChecker.checkPatternAt(entity);
                             if (result != null && result.get("validPos") != null) {
-                                validPos = result.get("validPos");
-                                writePluginData(0, buf->{
-                                    int te = 0;
-                                    buf.writeVarInt(validPos.size());
-                                    for (BlockPos pos : validPos) {
-                                        buf.writeBlockPos(pos);
-                                        if(this.screen.getWorld().getTileEntity(pos) != null)
-                                            te ++;
-                                    }
-                                    buf.writeVarInt(te);
-                                });
+                                validPos = ((LongList) result.get("validPos")).toLongArray();
+                                writePluginData(0, this::writeValidPos);
                                 isValid = true;
                             } else {
-                                validPos.clear();
+                                validPos = null;
                             }
                         }
                     } else if(isValid){
@@ -263,12 +259,16 @@ public class AdvancedMonitorPluginBehavior extends ProxyHolderPluginBehavior {
     @Override
     public void writeInitialSyncData(PacketBuffer buf) {
         super.writeInitialSyncData(buf);
-        if (validPos != null && validPos.size() > 0) {
+        writeValidPos(buf);
+    }
+
+    private void writeValidPos(PacketBuffer buf) {
+        if (validPos != null && validPos.length > 0) {
             int te = 0;
-            buf.writeVarInt(validPos.size());
-            for (BlockPos pos : validPos) {
-                buf.writeBlockPos(pos);
-                if (this.screen.getWorld().getTileEntity(pos) != null) {
+            buf.writeLongArray(validPos);
+            BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+            for (long packedPos : validPos) {
+                if (this.screen.getWorld().getTileEntity(setPos(pos, packedPos)) != null) {
                     te++;
                 }
             }
@@ -278,6 +278,11 @@ public class AdvancedMonitorPluginBehavior extends ProxyHolderPluginBehavior {
         }
     }
 
+    private static BlockPos.MutableBlockPos setPos(BlockPos.MutableBlockPos pos, long packedPos) {
+        // same bit layout as BlockPos.fromLong: 26 bits of x, 12 of y, 26 of z
+        return pos.setPos((int) (packedPos >> 38), (int) (packedPos << 26 >> 52), (int) (packedPos << 38 >> 38));
+    }
+
     @Override
     public void receiveInitialSyncData(PacketBuffer buf) {
         super.receiveInitialSyncData(buf);
@@ -322,12 +327,9 @@ public class AdvancedMonitorPluginBehavior extends ProxyHolderPluginBehavior {
     }
 
     private void loadValidPos(PacketBuffer buf) {
-        int size = buf.readVarInt();
-        if (size > 0) {
-            validPos = new ArrayList<>();
-            for (int i = 0; i < size; i++) {
-                validPos.add(buf.readBlockPos());
-            }
+        long[] positions = buf.readLongArray(null);
+        if (positions.length > 0) {
+            validPos = positions;
             teCount = buf.readVarInt();
             createWorldScene();
         } else {
@@ -14,6 +14,7 @@ import gregtech.api.multiblock.PatternMatchContext;
 import gregtech.api.render.ICubeRenderer;
 import gregtech.api.util.GTUtility;
 import gregtech.common.blocks.VariantBlock;
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.minecraft.block.SoundType;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.properties.PropertyEnum;
@@ -168,8 +169,8 @@ public abstract class ReTexturedCasing<T extends Enum<T> & IStringSerializable>
                                         .checkPatternAt(structurePattern, controller.getWorld(), controller.getPos(),
                                                 controller.getFrontFacing().getOpposite());
                                 if (result != null && result.get("validPos") != null) {
-                                    List<BlockPos> validPos = result.get("validPos");
-                                    if (validPos.contains(lastPos)) {
+                                    LongList validPos = result.get("validPos");
+                                    if (validPos.contains(lastPos.toLong())) {
                                         return controller;
                                     }
                                 }
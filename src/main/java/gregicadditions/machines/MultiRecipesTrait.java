@@ -2,6 +2,9 @@ package gregicadditions.machines;
 
 import gregicadditions.capabilities.GregicAdditionsCapabilities;
 import gregicadditions.capabilities.IMultiRecipe;
+import gregicadditions.recipes.RecipeLookupCache;
+import gregicadditions.recipes.RecipeMapInputIndex;
+import gregtech.api.capability.IMultipleTankHandler;
 import gregtech.api.metatileentity.MTETrait;
 import gregtech.api.metatileentity.multiblock.RecipeMapMultiblockController;
 import gregtech.api.recipes.RecipeMap;
@@ -9,6 +12,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagInt;
 import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.items.IItemHandlerModifiable;
 
 import javax.annotation.Nullable;
 import java.util.stream.IntStream;
@@ -18,11 +22,14 @@ public class MultiRecipesTrait extends MTETrait implements IMultiRecipe {
     private final RecipeMap<?>[] recipes;
     private int pos = 0;
     private final RecipeMapMultiblockController multiblock;
+    private final RecipeMapInputIndex inputIndex;
+    private boolean autoDispatch = false;
 
     public MultiRecipesTrait(RecipeMapMultiblockController metaTileEntity, RecipeMap<?>[] recipes) {
         super(metaTileEntity);
         this.recipes = recipes;
         this.multiblock = metaTileEntity;
+        this.inputIndex = RecipeMapInputIndex.of(recipes);
     }
 
     @Override
@@ -48,6 +55,43 @@ public class MultiRecipesTrait extends MTETrait implements IMultiRecipe {
         return recipes[pos];
     }
 
+    public boolean isAutoDispatch() {
+        return autoDispatch;
+    }
+
+    public void setAutoDispatch(boolean autoDispatch) {
+        this.autoDispatch = autoDispatch;
+    }
+
+    /**
+     * Picks a recipe map with a recipe for the inputs, keeping the current one when it has one.
+     * <p>
+     * The input index only tells the maps where each input is taken by some recipe, which a map with a recipe
+     * for the inputs has to be, but a map can take every input without any one recipe taking them together.
+     * So the recipe is looked up in the current map first, then in the candidate maps, and the first one that has it is picked.
+     * Inputs no map takes at all are left out of the candidates, but an input taken by some maps only, as a leftover
+     * circuit, still rules out the other maps, even those with a recipe for the rest of the inputs.
+     *
+     * @return the recipe map switched to, or null when auto dispatch is off, the current one is kept or no map has a recipe
+     */
+    @Nullable
+    public RecipeMap<?> dispatch(IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs, long maxVoltage) {
+        if (!autoDispatch) {
+            return null;
+        }
+        if (RecipeLookupCache.INSTANCE.findRecipe(recipes[pos], maxVoltage, inputs, fluidInputs, 0) != null) {
+            return null;
+        }
+        int candidates = inputIndex.getCandidates(inputs, fluidInputs);
+        for (int i = 0; i < recipes.length; i++) {
+            if (i != pos && (candidates & (1 << i)) != 0 && RecipeLookupCache.INSTANCE.findRecipe(recipes[i], maxVoltage, inputs, fluidInputs, 0) != null) {
+                pos = i;
+                return recipes[i];
+            }
+        }
+        return null;
+    }
+
     @Override
     public String getName() {
         return "multi-recipe";
@@ -70,12 +114,14 @@ public class MultiRecipesTrait extends MTETrait implements IMultiRecipe {
     public void deserializeNBT(NBTTagCompound compound) {
         super.deserializeNBT(compound);
         pos = compound.getInteger("Recipe");
+        autoDispatch = compound.getBoolean("AutoDispatch");
     }
 
     @Override
     public NBTTagCompound serializeNBT() {
         NBTTagCompound compound = super.serializeNBT();
         compound.setTag("Recipe", new NBTTagInt(pos));
+        compound.setBoolean("AutoDispatch", autoDispatch);
         return compound;
     }
 }
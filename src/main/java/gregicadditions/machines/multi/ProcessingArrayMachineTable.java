@@ -0,0 +1,108 @@
+package gregicadditions.machines.multi;
+
+import gregicadditions.GAConfig;
+import gregicadditions.GAValues;
+import gregtech.api.GregTechAPI;
+import gregtech.api.metatileentity.ITieredMetaTileEntity;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.recipes.RecipeBuilder;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.builders.*;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Table from MetaTileEntity id to the recipe map the Processing Array runs for that machine.
+ * <p>
+ * Built once after every machine is registered, and again when the config changes, so looking up
+ * the machine in the controller slot is a single array access instead of parsing its name.
+ */
+public class ProcessingArrayMachineTable {
+
+    private static MachineEntry[] entries;
+
+    public static void build() {
+        Set<String> blacklist = new HashSet<>(Arrays.asList(GAConfig.multis.processingArray.machineBlackList));
+        int maxId = 0;
+        for (MetaTileEntity metaTileEntity : GregTechAPI.META_TILE_ENTITY_REGISTRY) {
+            maxId = Math.max(maxId, GregTechAPI.META_TILE_ENTITY_REGISTRY.getIDForObject(metaTileEntity));
+        }
+        MachineEntry[] table = new MachineEntry[maxId + 1];
+        for (MetaTileEntity metaTileEntity : GregTechAPI.META_TILE_ENTITY_REGISTRY) {
+            if (!(metaTileEntity instanceof ITieredMetaTileEntity))
+                continue;
+            String unlocalizedName = metaTileEntity.getMetaFullName();
+            String recipeMapName = findRecipeMapName(unlocalizedName);
+            if (blacklist.contains(recipeMapName) || blacklist.contains(unlocalizedName))
+                continue;
+            RecipeMap<?> recipeMap = RecipeMap.getByName(recipeMapName);
+            if (recipeMap != null && isRecipeMapSupported(recipeMap)) {
+                int id = GregTechAPI.META_TILE_ENTITY_REGISTRY.getIDForObject(metaTileEntity);
+                table[id] = new MachineEntry(recipeMap, GAValues.V[((ITieredMetaTileEntity) metaTileEntity).getTier()]);
+            }
+        }
+        entries = table;
+    }
+
+    /**
+     * @param metaTileEntityId the numeric id of the machine, i.e. the item damage of its stack
+     * @return the recipe map and voltage of the machine, or null if it cannot be used in the Processing Array
+     */
+    @Nullable
+    public static MachineEntry get(int metaTileEntityId) {
+        if (entries == null)
+            build();
+        return metaTileEntityId >= 0 && metaTileEntityId < entries.length ? entries[metaTileEntityId] : null;
+    }
+
+    public static String findRecipeMapName(String unlocalizedName) {
+
+        String trimmedName = unlocalizedName.substring(0, unlocalizedName.lastIndexOf("."));
+        trimmedName = trimmedName.substring(trimmedName.lastIndexOf(".") + 1);
+
+        // For some reason, the Cutting saw's machine name does not match the recipe map's unlocalized name, so correct it
+        // Same with the Electric Furnace, Ore Washer, and our Chemical Dehydrator
+        switch (trimmedName) {
+            case "cutter":
+                trimmedName = "cutting_saw"; break;
+            case "electric_furnace":
+                trimmedName = "furnace"; break;
+            case "ore_washer":
+                trimmedName = "orewasher"; break;
+            case "dehydrator":
+                trimmedName = "chemical_dehydrator"; break;
+        }
+        return trimmedName;
+    }
+
+    private static boolean isRecipeMapSupported(RecipeMap<?> recipeMap) {
+        RecipeBuilder<?> recipeBuilder = recipeMap.recipeBuilder();
+        return recipeBuilder instanceof SimpleRecipeBuilder ||
+                recipeBuilder instanceof IntCircuitRecipeBuilder ||
+                recipeBuilder instanceof ArcFurnaceRecipeBuilder ||
+                recipeBuilder instanceof CutterRecipeBuilder ||
+                recipeBuilder instanceof UniversalDistillationRecipeBuilder;
+    }
+
+    public static class MachineEntry {
+
+        private final RecipeMap<?> recipeMap;
+        private final long voltage;
+
+        private MachineEntry(RecipeMap<?> recipeMap, long voltage) {
+            this.recipeMap = recipeMap;
+            this.voltage = voltage;
+        }
+
+        public RecipeMap<?> getRecipeMap() {
+            return recipeMap;
+        }
+
+        public long getVoltage() {
+            return voltage;
+        }
+    }
+}
@@ -4,12 +4,13 @@ import gregicadditions.GAConfig;
 import gregicadditions.GAUtility;
 import gregicadditions.GAValues;
 import gregicadditions.capabilities.impl.ControllerSlotMultiblockRecipeLogic;
+import gregicadditions.capabilities.impl.InputBusGroups;
 import gregicadditions.capabilities.impl.RecipeMapMultiblockWithSlotController;
 import gregicadditions.item.GAMetaBlocks;
 import gregicadditions.utils.Tuple;
 import gregicadditions.recipes.GARecipeMaps;
+import gregicadditions.recipes.IngredientCounter;
 import gregicadditions.utils.GALog;
-import gregtech.api.GregTechAPI;
 import gregtech.api.capability.IEnergyContainer;
 import gregtech.api.capability.IMultipleTankHandler;
 import gregtech.api.metatileentity.ITieredMetaTileEntity;
@@ -22,7 +23,6 @@ import gregtech.api.multiblock.BlockPattern;
 import gregtech.api.multiblock.FactoryBlockPattern;
 import gregtech.api.recipes.*;
 import gregtech.api.recipes.Recipe.ChanceEntry;
-import gregtech.api.recipes.builders.*;
 import gregtech.api.render.ICubeRenderer;
 import gregtech.api.util.GTUtility;
 import net.minecraft.block.state.IBlockState;
@@ -33,9 +33,7 @@ import net.minecraft.util.text.Style;
 import net.minecraft.util.text.TextComponentTranslation;
 import net.minecraft.util.text.TextFormatting;
 import net.minecraft.util.text.event.HoverEvent;
-import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
-import net.minecraftforge.fluids.IFluidTank;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
 import java.util.*;
@@ -125,8 +123,8 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockWithSlotContro
         int numberOfMachines = 0;
         int numberOfOperations = 0;
         ItemStack machineItemStack = null;
-        private ItemStack lastMachine;
-        private RecipeMap<?> lastRecipeMap;
+        private final IngredientCounter ingredientCounter = new IngredientCounter();
+        private final InputBusGroups busGroups = new InputBusGroups();
         String recipeMapName = null;
 
         public ProcessingArrayWorkable(RecipeMapMultiblockController tileEntity) {
@@ -143,12 +141,12 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockWithSlotContro
             }
             recipeMapName = recipeMap.getUnlocalizedName();
 
-            List<IItemHandlerModifiable> itemInputs = ((TileEntityProcessingArray) this.getMetaTileEntity()).getAbilities(MultiblockAbility.IMPORT_ITEMS);
-            Tuple<Recipe, IItemHandlerModifiable> recipePerInput = itemInputs.stream()
-                    .map(iItemHandlerModifiable -> new Tuple<>(recipeMap.findRecipe(maxVoltage, iItemHandlerModifiable, fluidInputs, 0), iItemHandlerModifiable))
-                    .filter(tuple -> tuple.getKey() != null)
-                    .findFirst().orElse(new Tuple<>(recipeMap.findRecipe(voltageTier, inputs, fluidInputs, this.getMinTankCapacity(this.getOutputTank())), inputs));
-
+            // buses holding the same kinds of items are searched once, and their items pooled for the parallel count
+            busGroups.group(((TileEntityProcessingArray) this.getMetaTileEntity()).getAbilities(MultiblockAbility.IMPORT_ITEMS));
+            Tuple<Recipe, IItemHandlerModifiable> recipePerInput = busGroups.findRecipe(recipeMap, maxVoltage, fluidInputs);
+            if (recipePerInput == null) {
+                recipePerInput = new Tuple<>(recipeMap.findRecipe(voltageTier, inputs, fluidInputs, this.getMinTankCapacity(this.getOutputTank())), inputs);
+            }
 
             if (recipePerInput.getKey() == null) {
                 return null;
@@ -157,19 +155,18 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockWithSlotContro
 
             int minMultiplier = Integer.MAX_VALUE;
 
-            Set<ItemStack> countIngredients = new HashSet<>();
+            ingredientCounter.clear();
             if (recipePerInput.getKey().getInputs().size() != 0) {
 
-                this.findIngredients(countIngredients, recipePerInput.getValue());
-                minMultiplier = Math.min(minMultiplier, this.getMinRatioItem(countIngredients, recipePerInput.getKey(), recipePerInput.getValue(), numberOfMachines));
+                this.findIngredients(ingredientCounter, recipePerInput.getValue());
+                minMultiplier = Math.min(minMultiplier, this.getMinRatioItem(ingredientCounter, recipePerInput.getKey(), numberOfMachines));
 
             }
 
-            Map<Fluid, Integer> countFluid = new HashMap<>();
             if (recipePerInput.getKey().getFluidInputs().size() != 0) {
 
-                this.findFluid(countFluid, fluidInputs);
-                minMultiplier = Math.min(minMultiplier, this.getMinRatioFluid(countFluid, recipePerInput.getKey(), numberOfMachines));
+                this.findFluid(ingredientCounter, fluidInputs);
+                minMultiplier = Math.min(minMultiplier, this.getMinRatioFluid(ingredientCounter, recipePerInput.getKey(), numberOfMachines));
             }
 
             if (minMultiplier == Integer.MAX_VALUE) {
@@ -204,88 +201,26 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockWithSlotContro
                 int chance = s.getChance();
                 ItemStack itemStack = s.getItemStack().copy();
                 int boost = s.getBoostPerTier();
+                // one entry per output holding every operation, rolled at once in setupRecipe
                 itemStack.setCount(itemStack.getCount() * numberOfOperations);
                 newRecipe.chancedOutput(itemStack, chance, boost);
             }
         }
 
-        protected void findIngredients(Set<ItemStack> countIngredients, IItemHandlerModifiable inputs) {
-
-            for (int slot = 0; slot < inputs.getSlots(); slot++) {
-                ItemStack wholeItemStack = inputs.getStackInSlot(slot);
-                String name = wholeItemStack.getItem().getUnlocalizedNameInefficiently(wholeItemStack);
-
-                // skip empty slots
-                if (wholeItemStack.isEmpty()) {
-                    continue;
-                }
-
-                boolean found = false;
-                for (ItemStack i : countIngredients) {
-                    if (ItemStack.areItemsEqual(i, wholeItemStack)) {
-                        i.setCount(i.getCount() + wholeItemStack.getCount());
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    countIngredients.add(wholeItemStack.copy());
-                }
-            }
+        protected void findIngredients(IngredientCounter countIngredients, IItemHandlerModifiable inputs) {
+            countIngredients.countItems(inputs);
         }
 
-        protected int getMinRatioItem(Set<ItemStack> countIngredients, Recipe r, IItemHandlerModifiable inputs, int numberOfMachines) {
-
-            int minMultiplier = Integer.MAX_VALUE;
-            for (CountableIngredient ci : r.getInputs()) {
-
-                if (ci.getCount() == 0)
-                    continue;
-
-                for (ItemStack wholeItemStack : countIngredients) {
-
-                    if (ci.getIngredient().apply(wholeItemStack)) {
-                        int ratio = Math.min(numberOfMachines, wholeItemStack.getCount() / ci.getCount());
-                        if (ratio < minMultiplier) {
-                            minMultiplier = ratio;
-                        }
-                        break;
-                    }
-                }
-            }
-            return minMultiplier;
+        protected int getMinRatioItem(IngredientCounter countIngredients, Recipe r, int numberOfMachines) {
+            return countIngredients.getMinRatioItem(r, numberOfMachines);
         }
 
-        protected void findFluid(Map<Fluid, Integer> countFluid, IMultipleTankHandler fluidInputs) {
-
-            for (IFluidTank tank : fluidInputs) {
-
-                if (tank.getFluid() != null) {
-
-                    Fluid fluid = tank.getFluid().getFluid();
-
-                    if (countFluid.containsKey(fluid)) {
-                        int existingValue = countFluid.get(fluid);
-                        countFluid.put(fluid, existingValue + tank.getFluidAmount());
-
-                    } else {
-                        countFluid.put(fluid, tank.getFluidAmount());
-                    }
-                }
-            }
+        protected void findFluid(IngredientCounter countFluid, IMultipleTankHandler fluidInputs) {
+            countFluid.countFluids(fluidInputs);
         }
 
-        protected int getMinRatioFluid(Map<Fluid, Integer> countFluid, Recipe r, int numberOfMachines) {
-            int minMultiplier = Integer.MAX_VALUE;
-            for (FluidStack fs : r.getFluidInputs()) {
-                Fluid fluid = fs.getFluid();
-                int ratio = Math.min(numberOfMachines, countFluid.get(fluid) / fs.amount);
-
-                if (ratio < minMultiplier) {
-                    minMultiplier = ratio;
-                }
-            }
-            return minMultiplier;
+        protected int getMinRatioFluid(IngredientCounter countFluid, Recipe r, int numberOfMachines) {
+            return countFluid.getMinRatioFluid(r, numberOfMachines);
         }
 
         protected void multiplyInputsAndOutputs(List<CountableIngredient> newRecipeInputs, List<FluidStack> newFluidInputs, List<ItemStack> outputI, List<FluidStack> outputF, Recipe r, int numberOfOperations) {
@@ -315,60 +250,19 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockWithSlotContro
             if (machine.isEmpty())
                 return null;
 
-            if (lastMachine != null && machine.isItemEqual(lastMachine) && machine.getCount() == lastMachine.getCount())
-                return this.lastRecipeMap;
-            else this.lastMachine = machine.copy();
-
-            ITieredMetaTileEntity mte = (ITieredMetaTileEntity) GregTechAPI.META_TILE_ENTITY_REGISTRY.getObjectById(machine.getItemDamage());
-            String unlocalizedName = machine.getItem().getUnlocalizedNameInefficiently(machine); // can do this differently
-
-            if (mte != null && !findMachineInBlacklist(unlocalizedName)) {
-                RecipeMap<?> rmap = RecipeMap.getByName(findRecipeMapName(unlocalizedName));
-                if (rmap != null && (rmap.recipeBuilder() instanceof SimpleRecipeBuilder ||
-                        rmap.recipeBuilder() instanceof IntCircuitRecipeBuilder ||
-                        rmap.recipeBuilder() instanceof ArcFurnaceRecipeBuilder ||
-                        rmap.recipeBuilder() instanceof CutterRecipeBuilder ||
-                        rmap.recipeBuilder() instanceof UniversalDistillationRecipeBuilder)) {
-                    // Find the voltage tier of the machine
-                    this.voltageTier = GAValues.V[mte.getTier()];
-                    // Find the number of machines
-                    this.numberOfMachines = Math.min(GAConfig.multis.processingArray.processingArrayMachineLimit, machine.getCount());
-                    // The machine Item Stack. Is this needed if we remove the machine from being found in the ingredients?
-                    this.machineItemStack = machine;
-
-                    this.lastRecipeMap = rmap;
-                    return rmap;
-                }
-            }
-            return null;
-        }
-
-        public String findRecipeMapName(String unlocalizedName) {
-
-            String trimmedName = unlocalizedName.substring(0, unlocalizedName.lastIndexOf("."));
-            trimmedName = trimmedName.substring(trimmedName.lastIndexOf(".") + 1);
-
-            // For some reason, the Cutting saw's machine name does not match the recipe map's unlocalized name, so correct it
-            // Same with the Electric Furnace, Ore Washer, and our Chemical Dehydrator
-            switch (trimmedName) {
-                case "cutter":
-                    trimmedName = "cutting_saw"; break;
-                case "electric_furnace":
-                    trimmedName = "furnace"; break;
-                case "ore_washer":
-                    trimmedName = "orewasher"; break;
-                case "dehydrator":
-                    trimmedName = "chemical_dehydrator"; break;
-            }
-            return trimmedName;
-        }
+            ProcessingArrayMachineTable.MachineEntry entry = ProcessingArrayMachineTable.get(machine.getItemDamage());
+            if (entry == null)
+                return null;
 
-        public boolean findMachineInBlacklist(String unlocalizedName) {
-            String[] blacklist = GAConfig.multis.processingArray.machineBlackList;
-            return Arrays.asList(blacklist).contains(unlocalizedName);
+            // Find the voltage tier of the machine
+            this.voltageTier = entry.getVoltage();
+            // Find the number of machines
+            this.numberOfMachines = Math.min(GAConfig.multis.processingArray.processingArrayMachineLimit, machine.getCount());
+            // The machine Item Stack. Is this needed if we remove the machine from being found in the ingredients?
+            this.machineItemStack = machine;
+            return entry.getRecipeMap();
         }
 
-
         @Override
         protected boolean setupAndConsumeRecipeInputs(Recipe recipe) {
 
@@ -380,7 +274,7 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockWithSlotContro
             int[] resultOverclock = calculateOverclock(recipe.getEUt(), voltageTier, recipe.getDuration());
             int totalEUt = resultOverclock[0] * resultOverclock[1] * this.numberOfOperations;
 
-            boolean enoughPower = totalEUt >= 0 ? getEnergyStored() >= (totalEUt > getEnergyCapacity() / 2 ? resultOverclock[0] : totalEUt) : getEnergyStored() - resultOverclock[0] * this.numberOfOperations <= getEnergyCapacity();
+            boolean enoughPower = totalEUt >= 0 ? hasEnergyToStart(resultOverclock[0], totalEUt) : getEnergyStored() - resultOverclock[0] * this.numberOfOperations <= getEnergyCapacity();
 
             if (!enoughPower) {
                 return false;
@@ -389,7 +283,7 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockWithSlotContro
         }
 
         @Override
-        protected void trySearchNewRecipe() {
+        protected void searchNewRecipe() {
             long maxVoltage = getMaxVoltage();
             Recipe currentRecipe = null;
             IItemHandlerModifiable importInventory = getInputInventory();
@@ -421,7 +315,7 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockWithSlotContro
             this.recipeEUt = resultOverclock[0] * this.numberOfOperations;
             this.fluidOutputs = GTUtility.copyFluidList(recipe.getFluidOutputs());
             int tier = getMachineTierForRecipe(recipe);
-            this.itemOutputs = GTUtility.copyStackList(recipe.getResultItemOutputs(getOutputInventory().getSlots(), random, tier));
+            this.itemOutputs = GAUtility.getParallelResultItemOutputs(recipe, getOutputInventory().getSlots(), random, tier, numberOfOperations);
             if (this.wasActiveAndNeedsUpdate) {
                 this.wasActiveAndNeedsUpdate = false;
             } else {
@@ -18,6 +18,7 @@ import gregicadditions.item.fusion.GAFusionCasing;
 import gregicadditions.item.fusion.GAVacuumCasing;
 import gregicadditions.machines.multi.multiblockpart.GAMetaTileEntityEnergyHatch;
 import gregicadditions.recipes.GARecipeMaps;
+import gregicadditions.recipes.RecipePropertyKey;
 import gregtech.api.capability.IEnergyContainer;
 import gregtech.api.capability.IMultipleTankHandler;
 import gregtech.api.capability.impl.EnergyContainerHandler;
@@ -244,7 +245,7 @@ public class TileEntityAdvFusionReactor extends GARecipeMapMultiblockController
 
     @Override
     public boolean checkRecipe(Recipe recipe, boolean consumeIfSuccess) {
-        int requiredCoilTier = recipe.getIntegerProperty("coil_tier");
+        int requiredCoilTier = RecipePropertyKey.COIL_TIER.get(recipe);
         return canWork && this.coilTier >= requiredCoilTier;
     }
 
@@ -309,10 +310,10 @@ public class TileEntityAdvFusionReactor extends GARecipeMapMultiblockController
         protected Recipe findRecipe(long maxVoltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs) {
             Recipe recipe = super.findRecipe(maxVoltage, inputs, fluidInputs);
             RecipeBuilder<?> newRecipe;
-            if (recipe == null || (long) recipe.getProperty("eu_to_start") > energyContainer.getEnergyCapacity()) {
+            if (recipe == null || RecipePropertyKey.EU_TO_START.get(recipe) > energyContainer.getEnergyCapacity()) {
                 return null;
             } else {
-                int recipeTier = recipe.getIntegerProperty("coil_tier");
+                int recipeTier = RecipePropertyKey.COIL_TIER.get(recipe);
                 int coilTierDifference = coilTier - recipeTier;
                 int vacuumTierDifference = vacuumTier - recipeTier;
                 int divertorTierDifference = divertorTier - recipeTier;
@@ -340,7 +341,7 @@ public class TileEntityAdvFusionReactor extends GARecipeMapMultiblockController
 
         @Override
         protected boolean setupAndConsumeRecipeInputs(Recipe recipe) {
-            long heatDiff = ((long) recipe.getProperty("eu_to_start")) - (long) heat;
+            long heatDiff = RecipePropertyKey.EU_TO_START.get(recipe) - (long) heat;
             if (heatDiff <= 0) {
                 return super.setupAndConsumeRecipeInputs(recipe);
             }
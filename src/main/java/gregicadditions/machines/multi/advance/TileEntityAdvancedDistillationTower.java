@@ -4,12 +4,16 @@ import codechicken.lib.raytracer.CuboidRayTraceResult;
 import gregicadditions.GAConfig;
 import gregicadditions.GAValues;
 import gregicadditions.capabilities.impl.GAMultiblockRecipeLogic;
+import gregicadditions.capabilities.impl.ItemHandlerChangeTracker;
+import gregicadditions.capabilities.impl.RecipeSearchBackoff;
 import gregicadditions.item.GAMetaBlocks;
 import gregicadditions.item.GAMultiblockCasing;
 import gregicadditions.item.GAMultiblockCasing2;
 import gregicadditions.machines.MultiRecipesTrait;
 import gregicadditions.machines.multi.override.MetaTileEntityDistillationTower;
+import gregicadditions.recipes.RecipeLookupCache;
 import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.gui.Widget;
 import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.metatileentity.MetaTileEntityHolder;
 import gregtech.api.metatileentity.multiblock.IMultiblockPart;
@@ -77,6 +81,9 @@ public class TileEntityAdvancedDistillationTower extends MetaTileEntityDistillat
     };
 
     private final MultiRecipesTrait multiRecipesTrait;
+    private final ItemHandlerChangeTracker dispatchTracker = new ItemHandlerChangeTracker();
+    private long lastDispatchFluidState;
+    private boolean dispatchPending = true;
 
     public TileEntityAdvancedDistillationTower(ResourceLocation metaTileEntityId, RecipeMap<?> recipeMap) {
         super(metaTileEntityId);
@@ -222,6 +229,15 @@ public class TileEntityAdvancedDistillationTower extends MetaTileEntityDistillat
         if (isStructureFormed()) {
             textList.add(new TextComponentTranslation("gregtech.multiblock.recipe", new TextComponentTranslation("recipemap." + this.recipeMap.getUnlocalizedName() + ".name").setStyle(new Style().setColor(TextFormatting.AQUA))));
             textList.add(new TextComponentTranslation("gregtech.multiblock.advanced_distillation_tower.multiplier", ((AdvancedDistillationRecipeLogic) (this.recipeMapWorkable)).multiplier).setStyle(new Style().setColor(TextFormatting.GOLD)));
+
+            ITextComponent buttonText = new TextComponentTranslation("gtadditions.multiblock.universal.auto_dispatch");
+            buttonText.appendText(" ");
+            ITextComponent button = withButton((multiRecipesTrait.isAutoDispatch() ?
+                    new TextComponentTranslation("gtadditions.multiblock.universal.auto_dispatch.yes") :
+                    new TextComponentTranslation("gtadditions.multiblock.universal.auto_dispatch.no")), "auto_dispatch");
+            withHoverTextTranslate(button, "gtadditions.multiblock.universal.auto_dispatch.info");
+            buttonText.appendSibling(button);
+            textList.add(buttonText);
         }
     }
 
@@ -231,17 +247,59 @@ public class TileEntityAdvancedDistillationTower extends MetaTileEntityDistillat
         if (recipe == null) {
             return false;
         }
-        recipeMap = recipe;
-        recipeMapWorkable = new AdvancedDistillationRecipeLogic(this, recipeMap);
+        setRecipeMap(recipe);
         return true;
     }
 
+    @Override
+    protected void formStructure(PatternMatchContext context) {
+        super.formStructure(context);
+        this.dispatchPending = true;
+    }
+
+    /**
+     * Picks the recipe map for the inputs when auto dispatch is on and the inputs changed since the last pick.
+     * Called by the recipe logic before it searches, so it runs no more often than the search.
+     */
+    private void dispatch(long maxVoltage) {
+        if (!multiRecipesTrait.isAutoDispatch())
+            return;
+        List<IItemHandlerModifiable> buses = getAbilities(MultiblockAbility.IMPORT_ITEMS);
+        boolean changed = dispatchPending;
+        dispatchTracker.setSize(buses.size());
+        for (int i = 0; i < buses.size(); i++) {
+            changed |= dispatchTracker.checkDirty(i, buses.get(i));
+        }
+        long fluidState = RecipeSearchBackoff.getFluidState(getInputFluidInventory());
+        changed |= fluidState != lastDispatchFluidState;
+        this.lastDispatchFluidState = fluidState;
+        this.dispatchPending = false;
+        if (!changed)
+            return;
+        RecipeMap<?> recipe = multiRecipesTrait.dispatch(getInputInventory(), getInputFluidInventory(), maxVoltage);
+        if (recipe != null) {
+            setRecipeMap(recipe);
+        }
+    }
+
+    private void setRecipeMap(RecipeMap<?> recipe) {
+        this.recipeMap = recipe;
+        ((AdvancedDistillationRecipeLogic) recipeMapWorkable).setRecipeMap(recipe);
+    }
+
+    @Override
+    protected void handleDisplayClick(String componentData, Widget.ClickData clickData) {
+        super.handleDisplayClick(componentData, clickData);
+        multiRecipesTrait.setAutoDispatch(!multiRecipesTrait.isAutoDispatch());
+        this.dispatchPending = true;
+        // the inputs may have waited for a map, search again right away
+        ((AdvancedDistillationRecipeLogic) recipeMapWorkable).resetSearchBackoff();
+    }
 
     @Override
     public void readFromNBT(NBTTagCompound data) {
         super.readFromNBT(data);
-        this.recipeMap = multiRecipesTrait.getRecipes()[multiRecipesTrait.getCurrentRecipe()];
-        this.recipeMapWorkable = new AdvancedDistillationRecipeLogic(this, recipeMap);
+        setRecipeMap(multiRecipesTrait.getRecipes()[multiRecipesTrait.getCurrentRecipe()]);
     }
 
 
@@ -252,16 +310,37 @@ public class TileEntityAdvancedDistillationTower extends MetaTileEntityDistillat
 
         public AdvancedDistillationRecipeLogic(RecipeMapMultiblockController tileEntity, RecipeMap<?> recipeMap) {
             super(tileEntity);
+            setRecipeMap(recipeMap);
+        }
+
+        /**
+         * Switches the recipe map searched, the recipe in progress if any is kept.
+         * The search backs off from scratch, the inputs may have a recipe in the new map.
+         */
+        public void setRecipeMap(RecipeMap<?> recipeMap) {
             this.recipeMap = recipeMap;
             if (recipeMap == RecipeMaps.DISTILLATION_RECIPES)
                 multiplier = DISTILLATION_MULTIPLIER;
             if (recipeMap == RecipeMaps.DISTILLERY_RECIPES)
                 multiplier = DISTILLER_MULTIPLIER;
+            // the last recipe found belongs to the previous map
+            this.previousRecipe = null;
+            this.searchBackoff.reset();
+        }
+
+        private void resetSearchBackoff() {
+            this.searchBackoff.reset();
+        }
+
+        @Override
+        protected void searchNewRecipe() {
+            ((TileEntityAdvancedDistillationTower) metaTileEntity).dispatch(getMaxVoltage());
+            super.searchNewRecipe();
         }
 
         @Override
         protected Recipe findRecipe(long maxVoltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs) {
-            Recipe recipe = super.findRecipe(maxVoltage, inputs, fluidInputs);
+            Recipe recipe = RecipeLookupCache.INSTANCE.findRecipe(recipeMap, maxVoltage, inputs, fluidInputs, getMinTankCapacity(getOutputTank()));
             if (recipe == null) {
                 return null;
             }
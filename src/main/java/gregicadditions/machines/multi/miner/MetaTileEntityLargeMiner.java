@@ -7,6 +7,7 @@ import codechicken.lib.vec.Matrix4;
 import com.google.common.collect.Lists;
 import gregicadditions.GAUtility;
 import gregicadditions.GAValues;
+import gregicadditions.capabilities.impl.ItemHandlerChangeTracker;
 import gregicadditions.item.GAMetaBlocks;
 import gregicadditions.machines.multi.multiblockpart.GAMetaTileEntityEnergyHatch;
 import gregicadditions.machines.multi.simple.LargeSimpleRecipeMapMultiblockController;
@@ -45,21 +46,21 @@ import net.minecraft.util.EnumHand;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.text.*;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.IItemHandlerModifiable;
 import net.minecraftforge.items.ItemStackHandler;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
@@ -70,11 +71,13 @@ public class MetaTileEntityLargeMiner extends MultiblockWithDisplayBase implemen
     public final Miner.Type type;
     private final Material material;
     private AtomicLong x = new AtomicLong(Long.MAX_VALUE), y = new AtomicLong(Long.MAX_VALUE), z = new AtomicLong(Long.MAX_VALUE);
-    private AtomicInteger currentChunk = new AtomicInteger(0);
     private IEnergyContainer energyContainer;
     private IMultipleTankHandler importFluidHandler;
     protected IItemHandlerModifiable outputInventory;
-    private List<Chunk> chunks = new ArrayList<>();
+    private final MinerChunkQueue chunks = new MinerChunkQueue();
+    private final MinedDropBuffer dropBuffer = new MinedDropBuffer();
+    private final ItemHandlerChangeTracker pushTracker = new ItemHandlerChangeTracker();
+    private boolean outputChanged = false;
     private boolean isActive = false;
     private boolean done = false;
     private boolean silktouch = false;
@@ -85,6 +88,7 @@ public class MetaTileEntityLargeMiner extends MultiblockWithDisplayBase implemen
         super(metaTileEntityId);
         this.type = type;
         this.material = material;
+        this.pushTracker.setSize(1);
         reinitializeStructurePattern();
     }
 
@@ -135,7 +139,15 @@ public class MetaTileEntityLargeMiner extends MultiblockWithDisplayBase implemen
     @Override
     protected void updateFormedValid() {
         if (!getWorld().isRemote) {
-            if (done || !drainEnergy()) {
+            if (chunks.isEmpty() && type.chunk / 2.0 > 1.0) {
+                chunks.init(getChunksToMine(getPos(), type.chunk));
+            }
+
+            // chunks that are not loaded are passed over for now, without loading them nor using energy
+            Chunk chunk = null;
+            if (!done)
+                chunk = chunks.getLoadedChunk(getWorld(), x, y, z, getPos().getY());
+            if (chunk == null || !drainEnergy()) {
                 if (isActive)
                     setActive(false);
                 return;
@@ -145,69 +157,50 @@ public class MetaTileEntityLargeMiner extends MultiblockWithDisplayBase implemen
                 setActive(true);
 
             WorldServer world = (WorldServer) this.getWorld();
-            Chunk chunkMiner = world.getChunk(getPos());
-            Chunk origin;
-            if (chunks.size() == 0 && type.chunk / 2.0 > 1.0) {
-                int tmp = Math.floorDiv(type.chunk, 2);
-                origin = world.getChunk(chunkMiner.x - tmp, chunkMiner.z - tmp);
-                for (int i = 0; i < type.chunk; i++) {
-                    for (int j = 0; j < type.chunk; j++) {
-                        chunks.add(world.getChunk(origin.x + i, origin.z + j));
-                    }
-                }
-            }
 
-            if (currentChunk.intValue() == chunks.size()) {
-                setActive(false);
-                return;
-            }
-
-            Chunk chunk = chunks.get(currentChunk.intValue());
-
-            if (x.get() == Long.MAX_VALUE) {
-                x.set(chunk.getPos().getXStart());
-            }
-            if (z.get() == Long.MAX_VALUE) {
-                z.set(chunk.getPos().getZStart());
-            }
-            if (y.get() == Long.MAX_VALUE) {
-                y.set(getPos().getY());
-            }
-
-            List<BlockPos> blockPos = Miner.getBlockToMinePerChunk(this, x, y, z, chunk.getPos());
-            blockPos.forEach(blockPos1 -> {
+            dropBuffer.begin(outputInventory);
+            Miner.getBlockToMinePerChunk(this, x, y, z, chunk, (blockPos1, blockState) -> {
                 NonNullList<ItemStack> itemStacks = NonNullList.create();
-                IBlockState blockState = this.getWorld().getBlockState(blockPos1);
                 if (!silktouch) {
                     ToolUtility.applyHammerDrops(world.rand, blockState, itemStacks, type.fortune, null);
                 } else {
                     itemStacks.add(new ItemStack(blockState.getBlock(), 1, blockState.getBlock().getMetaFromState(blockState)));
                 }
-                if (addItemsToItemHandler(outputInventory, true, itemStacks)) {
-                    addItemsToItemHandler(outputInventory, false, itemStacks);
+                if (dropBuffer.offer(itemStacks)) {
                     world.destroyBlock(blockPos1, false);
                 }
             });
+            outputChanged |= dropBuffer.flush();
 
             if (y.get() < 0) {
-                currentChunk.incrementAndGet();
-                if (currentChunk.get() >= chunks.size()) {
-                    done = true;
-                } else {
-                    x.set(chunks.get(currentChunk.intValue()).getPos().getXStart());
-                    z.set(chunks.get(currentChunk.intValue()).getPos().getZStart());
-                    y.set(getPos().getY());
-                }
+                chunks.finishCurrent(x, y, z, getPos().getY());
+                done = chunks.isDone();
             }
 
 
-            if (!getWorld().isRemote && getTimer() % 5 == 0) {
+            if (getTimer() % 5 == 0 && (pushTracker.checkDirty(0, getExportItems()) || outputChanged)) {
+                outputChanged = false;
                 pushItemsIntoNearbyHandlers(getFrontFacing());
             }
         }
 
     }
 
+    /**
+     * The chunks of the square of the given side centered on the chunk of the controller, as packed chunk positions.
+     */
+    public static long[] getChunksToMine(BlockPos controllerPos, int side) {
+        int originX = (controllerPos.getX() >> 4) - Math.floorDiv(side, 2);
+        int originZ = (controllerPos.getZ() >> 4) - Math.floorDiv(side, 2);
+        long[] chunks = new long[side * side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                chunks[i * side + j] = ChunkPos.asLong(originX + i, originZ + j);
+            }
+        }
+        return chunks;
+    }
+
     @Override
     protected BlockPattern createStructurePattern() {
         return material == null || type == null ? null : FactoryBlockPattern.start()
@@ -255,7 +248,7 @@ public class MetaTileEntityLargeMiner extends MultiblockWithDisplayBase implemen
             textList.add(new TextComponentString(String.format("X: %d", x.get())));
             textList.add(new TextComponentString(String.format("Y: %d", y.get())));
             textList.add(new TextComponentString(String.format("Z: %d", z.get())));
-            textList.add(new TextComponentTranslation("gregtech.multiblock.large_miner.chunk", currentChunk.get()));
+            textList.add(new TextComponentTranslation("gregtech.multiblock.large_miner.chunk", chunks.getCurrent()));
             textList.add(new TextComponentTranslation("gregtech.multiblock.large_miner.nb_chunk", chunks.size()));
             textList.add(new TextComponentTranslation("gregtech.multiblock.large_miner.block_per_tick", getNbBlock()));
             textList.add(new TextComponentTranslation("gregtech.multiblock.large_miner.silktouch", silktouch));
@@ -300,9 +293,11 @@ public class MetaTileEntityLargeMiner extends MultiblockWithDisplayBase implemen
         data.setTag("xPos", new NBTTagLong(x.get()));
         data.setTag("yPos", new NBTTagLong(y.get()));
         data.setTag("zPos", new NBTTagLong(z.get()));
-        data.setTag("chunk", new NBTTagInt(currentChunk.get()));
+        chunks.writeToNBT(data);
         data.setTag("done", new NBTTagInt(done ? 1 : 0));
         data.setTag("silktouch", new NBTTagInt(silktouch ? 1 : 0));
+        if (!dropBuffer.isEmpty())
+            data.setTag("dropBuffer", dropBuffer.serializeNBT());
         return data;
     }
 
@@ -312,9 +307,10 @@ public class MetaTileEntityLargeMiner extends MultiblockWithDisplayBase implemen
         x.set(data.getLong("xPos"));
         y.set(data.getLong("yPos"));
         z.set(data.getLong("zPos"));
-        currentChunk.set(data.getInteger("chunk"));
+        chunks.readFromNBT(data);
         done = data.getInteger("done") != 0;
         silktouch = data.getInteger("silktouch") != 0;
+        dropBuffer.deserializeNBT(data.getTagList("dropBuffer", Constants.NBT.TAG_COMPOUND));
     }
 
     @Override
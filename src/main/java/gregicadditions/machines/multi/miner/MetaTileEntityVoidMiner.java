@@ -69,6 +69,7 @@ public class MetaTileEntityVoidMiner extends MultiblockWithDisplayBase {
     private boolean usingPyrotheum = true;
     private int temperature = 0;
     private double currentDrillingFluid = CONSUME_START;
+    private VoidMinerOreTable oreTable;
     private final long energyDrain;
 
 
@@ -92,6 +93,7 @@ public class MetaTileEntityVoidMiner extends MultiblockWithDisplayBase {
     protected void formStructure(PatternMatchContext context) {
         super.formStructure(context);
         initializeAbilities();
+        this.oreTable = VoidMinerOreTable.get(getOres());
     }
 
     private void initializeAbilities() {
@@ -184,9 +186,12 @@ public class MetaTileEntityVoidMiner extends MultiblockWithDisplayBase {
                     return;
                 }
 
-                List<ItemStack> ores = getOres();
-                Collections.shuffle(ores);
-                ores.stream().limit(10).peek(itemStack -> itemStack.setCount(getWorld().rand.nextInt(nbOres * nbOres) + 1)).forEach(itemStack -> {
+                if (oreTable == null || !oreTable.isCurrent()) {
+                    oreTable = VoidMinerOreTable.get(getOres());
+                }
+                oreTable.pick(getWorld().rand, 10, index -> {
+                    ItemStack itemStack = oreTable.getOre(index).copy();
+                    itemStack.setCount(getWorld().rand.nextInt(nbOres * nbOres) + 1);
                     addItemsToItemHandler(outputInventory, false, Collections.singletonList(itemStack));
                 });
 
@@ -0,0 +1,198 @@
+package gregicadditions.machines.multi.miner;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the drops of the blocks mined in one cycle, merged by item, and puts them into the output inventory in one pass.
+ * <p>
+ * The output slots are read once when the cycle {@link #begin begins}. A block is only taken when all of its drops fit
+ * next to the drops taken before it, worked out on those slot counts, so nothing is simulated against the inventory per block.
+ * Drops still left over after {@link #flush()}, which only happens when the inventory changed in between,
+ * stay in the buffer and go first next cycle.
+ */
+public class MinedDropBuffer {
+
+    // merged drops, counts may go over the max stack size
+    private final List<ItemStack> drops = new ArrayList<>();
+
+    private IItemHandler inventory;
+    private int slots;
+    // stack in each slot, or the first drop placed into it when it was empty
+    private ItemStack[] slotStacks = new ItemStack[0];
+    // room left in each slot for more of its stack
+    private int[] slotSpace = new int[0];
+    private boolean full;
+
+    // slots changed by the block being offered, to put them back when its drops do not fit
+    private final IntArrayList undoSlots = new IntArrayList();
+    private final IntArrayList undoSpace = new IntArrayList();
+    private final List<ItemStack> undoStacks = new ArrayList<>();
+
+    public void begin(IItemHandler inventory) {
+        this.inventory = inventory;
+        this.slots = inventory.getSlots();
+        if (slotStacks.length < slots) {
+            slotStacks = new ItemStack[slots];
+            slotSpace = new int[slots];
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            ItemStack stack = inventory.getStackInSlot(slot);
+            slotStacks[slot] = stack;
+            slotSpace[slot] = stack.isEmpty() ? 0 : Math.max(0, Math.min(inventory.getSlotLimit(slot), stack.getMaxStackSize()) - stack.getCount());
+        }
+        this.full = false;
+        // the left overs of the last cycle come first, nothing is taken while they do not fit
+        for (ItemStack stack : drops) {
+            if (!place(stack)) {
+                full = true;
+                break;
+            }
+        }
+        undoSlots.clear();
+        undoSpace.clear();
+        undoStacks.clear();
+    }
+
+    /**
+     * Takes the drops of one block if they all fit.
+     *
+     * @return true if the drops were taken and the block can be mined
+     */
+    public boolean offer(List<ItemStack> blockDrops) {
+        if (full)
+            return false;
+        for (ItemStack stack : blockDrops) {
+            if (!stack.isEmpty() && !place(stack)) {
+                for (int i = undoSlots.size() - 1; i >= 0; i--) {
+                    slotStacks[undoSlots.getInt(i)] = undoStacks.get(i);
+                    slotSpace[undoSlots.getInt(i)] = undoSpace.getInt(i);
+                }
+                undoSlots.clear();
+                undoSpace.clear();
+                undoStacks.clear();
+                return false;
+            }
+        }
+        undoSlots.clear();
+        undoSpace.clear();
+        undoStacks.clear();
+        for (ItemStack stack : blockDrops) {
+            if (!stack.isEmpty())
+                merge(stack);
+        }
+        return true;
+    }
+
+    /**
+     * Inserts the drops taken this cycle.
+     *
+     * @return true if the inventory changed
+     */
+    public boolean flush() {
+        boolean changed = false;
+        if (inventory != null) {
+            // in the order they were placed
+            int i = 0;
+            while (i < drops.size()) {
+                ItemStack stack = drops.get(i);
+                ItemStack remainder = ItemHandlerHelper.insertItemStacked(inventory, stack, false);
+                if (remainder.getCount() != stack.getCount())
+                    changed = true;
+                if (remainder.isEmpty()) {
+                    drops.remove(i);
+                } else {
+                    drops.set(i++, remainder);
+                }
+            }
+        }
+        this.inventory = null;
+        for (int slot = 0; slot < slots; slot++) {
+            slotStacks[slot] = null;
+        }
+        return changed;
+    }
+
+    public boolean isEmpty() {
+        return drops.isEmpty();
+    }
+
+    public List<ItemStack> getDrops() {
+        return Collections.unmodifiableList(drops);
+    }
+
+    public NBTTagList serializeNBT() {
+        NBTTagList list = new NBTTagList();
+        for (ItemStack stack : drops) {
+            NBTTagCompound stackTag = stack.writeToNBT(new NBTTagCompound());
+            // the count byte would wrap for merged stacks
+            stackTag.setInteger("Amount", stack.getCount());
+            list.appendTag(stackTag);
+        }
+        return list;
+    }
+
+    public void deserializeNBT(NBTTagList list) {
+        drops.clear();
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound stackTag = list.getCompoundTagAt(i);
+            ItemStack stack = new ItemStack(stackTag);
+            if (stackTag.hasKey("Amount", Constants.NBT.TAG_INT))
+                stack.setCount(stackTag.getInteger("Amount"));
+            if (!stack.isEmpty())
+                drops.add(stack);
+        }
+    }
+
+    private void merge(ItemStack stack) {
+        for (ItemStack drop : drops) {
+            if (ItemHandlerHelper.canItemStacksStack(drop, stack)) {
+                drop.grow(stack.getCount());
+                return;
+            }
+        }
+        drops.add(stack.copy());
+    }
+
+    /**
+     * Places the stack like {@link ItemHandlerHelper#insertItemStacked}: on the matching stacks first, then into empty slots.
+     */
+    private boolean place(ItemStack stack) {
+        int remaining = stack.getCount();
+        for (int slot = 0; slot < slots && remaining > 0; slot++) {
+            ItemStack slotStack = slotStacks[slot];
+            if (!slotStack.isEmpty() && slotSpace[slot] > 0 && ItemHandlerHelper.canItemStacksStack(slotStack, stack)) {
+                int placed = Math.min(remaining, slotSpace[slot]);
+                remember(slot);
+                slotSpace[slot] -= placed;
+                remaining -= placed;
+            }
+        }
+        for (int slot = 0; slot < slots && remaining > 0; slot++) {
+            if (slotStacks[slot].isEmpty() && inventory.isItemValid(slot, stack)) {
+                int limit = Math.min(inventory.getSlotLimit(slot), stack.getMaxStackSize());
+                int placed = Math.min(remaining, limit);
+                remember(slot);
+                slotStacks[slot] = stack;
+                slotSpace[slot] = limit - placed;
+                remaining -= placed;
+            }
+        }
+        return remaining <= 0;
+    }
+
+    private void remember(int slot) {
+        undoSlots.add(slot);
+        undoStacks.add(slotStacks[slot]);
+        undoSpace.add(slotSpace[slot]);
+    }
+}
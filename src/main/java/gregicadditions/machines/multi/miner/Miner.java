@@ -1,19 +1,24 @@
 package gregicadditions.machines.multi.miner;
 
 import gregicadditions.GAConfig;
-import gregtech.api.unification.OreDictUnifier;
 import gregtech.api.unification.ore.OrePrefix;
 import net.minecraft.block.Block;
-import net.minecraft.item.ItemStack;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.BlockStatePaletteRegistry;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IBlockStatePalette;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 public interface Miner {
 
@@ -55,15 +60,50 @@ public interface Miner {
 
     static List<BlockPos> getBlockToMinePerChunk(Miner miner, AtomicLong x, AtomicLong y, AtomicLong z, ChunkPos chunkPos) {
         List<BlockPos> blocks = new ArrayList<>();
+        getBlockToMinePerChunk(miner, x, y, z, miner.getWorld().getChunk(chunkPos.x, chunkPos.z), (blockPos, blockState) -> blocks.add(blockPos));
+        return blocks;
+    }
+
+    /**
+     * Scans the next blocks of the chunk, reading them from the chunk alone, and hands each ore found with its state to the consumer.
+     * With the {@link OreCensus} of the world, only the blocks it lists are read.
+     */
+    static void getBlockToMinePerChunk(Miner miner, AtomicLong x, AtomicLong y, AtomicLong z, Chunk chunk, BiConsumer<BlockPos, IBlockState> consumer) {
+        ChunkPos chunkPos = chunk.getPos();
+        ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+        OreCensus census = OreCensus.get(chunk.getWorld());
+        OreCensus.ChunkCensus chunkCensus = null;
+        if (census != null && y.get() >= 0 && miner.getTimer() % miner.getType().tick == 0) {
+            chunkCensus = census.getChunk(ChunkPos.asLong(chunkPos.x, chunkPos.z));
+            if (chunkCensus == null)
+                chunkCensus = census.scanChunk(chunk);
+        }
+        BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+        ExtendedBlockStorage section = null;
+        int sectionY = -1;
         for (int i = 0; i < miner.getNbBlock(); i++) {
             if (y.get() >= 0 && miner.getTimer() % miner.getType().tick == 0) {
+                if ((y.get() >> 4) != sectionY) {
+                    sectionY = (int) (y.get() >> 4);
+                    section = sectionY < sections.length ? sections[sectionY] : Chunk.NULL_BLOCK_STORAGE;
+                    boolean hasOre = chunkCensus != null ? section != Chunk.NULL_BLOCK_STORAGE && chunkCensus.hasOreInSection(sectionY) : mayContainOre(section);
+                    if (!hasOre) {
+                        // the whole section goes in one step
+                        x.set(chunkPos.getXStart());
+                        z.set(chunkPos.getZStart());
+                        y.set(((long) sectionY << 4) - 1);
+                        continue;
+                    }
+                }
                 if (z.get() <= chunkPos.getZEnd()) {
                     if (x.get() <= chunkPos.getXEnd()) {
-                        BlockPos blockPos = new BlockPos(x.get(), y.get(), z.get());
-                        Block block = miner.getWorld().getBlockState(blockPos).getBlock();
-                        if (miner.getWorld().getTileEntity(blockPos) == null) {
-                            if (isOre(block)) {
-                                blocks.add(blockPos);
+                        blockPos.setPos(x.get(), y.get(), z.get());
+                        if (chunkCensus == null || chunkCensus.contains(blockPos.toLong())) {
+                            IBlockState blockState = section.get(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15);
+                            if (isOre(blockState)) {
+                                if (chunk.getTileEntity(blockPos, Chunk.EnumCreateEntityType.IMMEDIATE) == null) {
+                                    consumer.accept(blockPos.toImmutable(), blockState);
+                                }
                             }
                         }
                         x.incrementAndGet();
@@ -77,12 +117,42 @@ public interface Miner {
                 }
             }
         }
-        return blocks;
+    }
+
+    /**
+     * The chunk if it is loaded, never loading nor generating it.
+     */
+    @Nullable
+    static Chunk getLoadedChunk(World world, long chunkPos) {
+        return world.getChunkProvider().getLoadedChunk((int) chunkPos, (int) (chunkPos >> 32));
+    }
+
+    /**
+     * Whether any state in the palette of the section is an ore.
+     * The palette may still hold states that are no longer in the section, so this can only rule sections out.
+     */
+    static boolean mayContainOre(@Nullable ExtendedBlockStorage section) {
+        if (section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty())
+            return false;
+        IBlockStatePalette palette = section.getData().palette;
+        if (palette instanceof BlockStatePaletteRegistry) {
+            // over 256 states, every block is looked at
+            return true;
+        }
+        IBlockState state;
+        for (int id = 0; (state = palette.getBlockState(id)) != null; id++) {
+            if (isOre(state))
+                return true;
+        }
+        return false;
     }
 
     static boolean isOre(Block block) {
-        OrePrefix orePrefix = OreDictUnifier.getPrefix(new ItemStack(block));
-        return orePrefix != null && orePrefixes.contains(orePrefix);
+        return isOre(block.getDefaultState());
+    }
+
+    static boolean isOre(IBlockState state) {
+        return OreClassificationCache.get(state).isOre;
     }
 
 
@@ -0,0 +1,138 @@
+package gregicadditions.machines.multi.miner;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.util.Constants;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The chunks a miner goes through, as packed chunk positions, in the order they are mined.
+ * <p>
+ * Chunks are only looked up while loaded. When the current chunk is not, the next loaded one is mined in its place
+ * and the chunk left behind comes right after it, resuming from where it got to.
+ */
+public class MinerChunkQueue {
+
+    private final LongList chunks = new LongArrayList();
+    // chunks left behind, to the packed block position their scan got to
+    private final Long2LongMap progress = new Long2LongOpenHashMap();
+    // the chunks before it are done
+    private int current = 0;
+
+    public void init(long[] chunkPositions) {
+        chunks.clear();
+        chunks.addAll(LongArrayList.wrap(chunkPositions));
+    }
+
+    public boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    public boolean isDone() {
+        return current >= chunks.size();
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    /**
+     * The current chunk if it is loaded, otherwise the next loaded chunk, which becomes the current one.
+     * The scan position is set when the chunk changes, or when it was never set.
+     *
+     * @return null if none of the chunks left is loaded
+     */
+    @Nullable
+    public Chunk getLoadedChunk(World world, AtomicLong x, AtomicLong y, AtomicLong z, long startY) {
+        for (int i = current; i < chunks.size(); i++) {
+            Chunk chunk = Miner.getLoadedChunk(world, chunks.getLong(i));
+            if (chunk == null)
+                continue;
+            if (i != current) {
+                long skipped = chunks.getLong(current);
+                if (x.get() != Long.MAX_VALUE)
+                    progress.put(skipped, new BlockPos((int) x.get(), (int) y.get(), (int) z.get()).toLong());
+                chunks.add(current, chunks.removeLong(i));
+                resume(x, y, z, startY);
+            } else if (x.get() == Long.MAX_VALUE) {
+                resume(x, y, z, startY);
+            }
+            return chunk;
+        }
+        return null;
+    }
+
+    /**
+     * Moves on to the next chunk once the current one is mined out.
+     */
+    public void finishCurrent(AtomicLong x, AtomicLong y, AtomicLong z, long startY) {
+        current++;
+        if (!isDone())
+            resume(x, y, z, startY);
+    }
+
+    private void resume(AtomicLong x, AtomicLong y, AtomicLong z, long startY) {
+        long chunkPos = chunks.getLong(current);
+        if (progress.containsKey(chunkPos)) {
+            BlockPos pos = BlockPos.fromLong(progress.remove(chunkPos));
+            x.set(pos.getX());
+            y.set(pos.getY());
+            z.set(pos.getZ());
+        } else {
+            x.set((int) chunkPos << 4);
+            z.set((int) (chunkPos >> 32) << 4);
+            y.set(startY);
+        }
+    }
+
+    public void writeToNBT(NBTTagCompound data) {
+        data.setInteger("chunk", current);
+        int[] positions = new int[chunks.size() * 2];
+        for (int i = 0; i < chunks.size(); i++) {
+            positions[i * 2] = (int) chunks.getLong(i);
+            positions[i * 2 + 1] = (int) (chunks.getLong(i) >> 32);
+        }
+        data.setTag("chunks", new NBTTagIntArray(positions));
+        NBTTagList progressList = new NBTTagList();
+        for (Long2LongMap.Entry entry : progress.long2LongEntrySet()) {
+            NBTTagCompound progressTag = new NBTTagCompound();
+            progressTag.setLong("chunk", entry.getLongKey());
+            progressTag.setLong("pos", entry.getLongValue());
+            progressList.appendTag(progressTag);
+        }
+        data.setTag("chunkProgress", progressList);
+    }
+
+    /**
+     * Reads the queue back. Saves from before it was kept only have the index of the current chunk,
+     * the chunks are then {@link #init set} again in their first order.
+     */
+    public void readFromNBT(NBTTagCompound data) {
+        current = data.getInteger("chunk");
+        chunks.clear();
+        int[] positions = data.getIntArray("chunks");
+        for (int i = 0; i + 1 < positions.length; i += 2) {
+            chunks.add((long) positions[i] & 0xFFFFFFFFL | (long) positions[i + 1] << 32);
+        }
+        progress.clear();
+        NBTTagList progressList = data.getTagList("chunkProgress", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < progressList.tagCount(); i++) {
+            NBTTagCompound progressTag = progressList.getCompoundTagAt(i);
+            progress.put(progressTag.getLong("chunk"), progressTag.getLong("pos"));
+        }
+    }
+}
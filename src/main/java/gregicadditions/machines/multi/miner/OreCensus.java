@@ -0,0 +1,273 @@
+package gregicadditions.machines.multi.miner;
+
+import gregicadditions.Gregicality;
+import gregicadditions.utils.WorldEventListenerAdapter;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraft.world.storage.MapStorage;
+import net.minecraft.world.storage.WorldSavedData;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.event.terraingen.PopulateChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The ores left in every chunk a miner scanned, saved with the world, so the miners do not look at the blocks
+ * of a chunk again after a restart, and pass over the sections of a chunk with no ore left in one step.
+ * <p>
+ * A chunk is scanned in full the first time a miner reaches it, and then kept up to date by the block changes of the world:
+ * an ore that goes away is dropped, an ore that appears where there was none invalidates the chunk, which is scanned again
+ * next time. Changes made without notifying the world listeners are not seen, the miners still check every block they mine.
+ * Positions are kept as {@link BlockPos#toLong()} and saved as positions within their chunk.
+ * <p>
+ * The census is dropped as a whole when the blocks counted as ores are no longer the same, after an ore dictionary
+ * change or when loaded with other mods, as told by the {@link OreClassificationCache#getStamp() stamp} it was made with.
+ * Chunks being populated, as when generated again, are dropped as well, along with the neighbours population writes into.
+ */
+@Mod.EventBusSubscriber(modid = Gregicality.MODID)
+public class OreCensus extends WorldSavedData {
+
+    public static final String DATA_NAME = "gregicality_ore_census";
+    private static final Map<World, OreCensus> CENSUSES = new WeakHashMap<>();
+
+    private final Long2ObjectMap<ChunkCensus> chunks = new Long2ObjectOpenHashMap<>();
+    // the ore classification the chunks were scanned with
+    private long stamp;
+
+    public OreCensus(String name) {
+        super(name);
+    }
+
+    @SubscribeEvent
+    public static void onWorldLoad(WorldEvent.Load event) {
+        World world = event.getWorld();
+        if (world.isRemote)
+            return;
+        MapStorage storage = world.getPerWorldStorage();
+        OreCensus census = (OreCensus) storage.getOrLoadData(OreCensus.class, DATA_NAME);
+        if (census == null) {
+            census = new OreCensus(DATA_NAME);
+            storage.setData(DATA_NAME, census);
+        }
+        register(world, census);
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        CENSUSES.remove(event.getWorld());
+    }
+
+    @SubscribeEvent
+    public static void onPopulateChunk(PopulateChunkEvent.Pre event) {
+        OreCensus census = get(event.getWorld());
+        if (census == null)
+            return;
+        // population decorates the 2x2 chunks starting at this one
+        for (int dx = 0; dx <= 1; dx++) {
+            for (int dz = 0; dz <= 1; dz++) {
+                census.invalidate(ChunkPos.asLong(event.getChunkX() + dx, event.getChunkZ() + dz));
+            }
+        }
+    }
+
+    /**
+     * Makes the census the one of the world and keeps it up to date with the block changes of the world.
+     */
+    public static void register(World world, OreCensus census) {
+        CENSUSES.put(world, census);
+        world.addEventListener(new WorldEventListenerAdapter() {
+            @Override
+            public void notifyBlockUpdate(World worldIn, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
+                if (oldState != newState) {
+                    census.onBlockChanged(pos, newState);
+                }
+            }
+        });
+    }
+
+    @Nullable
+    public static OreCensus get(World world) {
+        return CENSUSES.get(world);
+    }
+
+    @Nullable
+    public ChunkCensus getChunk(long chunkPos) {
+        checkStamp();
+        return chunks.get(chunkPos);
+    }
+
+    /**
+     * Drops every chunk when the blocks counted as ores changed since they were scanned.
+     */
+    private void checkStamp() {
+        long currentStamp = OreClassificationCache.getStamp();
+        if (stamp != currentStamp) {
+            stamp = currentStamp;
+            chunks.clear();
+            markDirty();
+        }
+    }
+
+    /**
+     * Records every ore of the chunk, replacing what was known of it.
+     */
+    public ChunkCensus scanChunk(Chunk chunk) {
+        checkStamp();
+        ChunkCensus chunkCensus = new ChunkCensus();
+        ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+        int baseX = chunk.x << 4, baseZ = chunk.z << 4;
+        for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+            ExtendedBlockStorage section = sections[sectionY];
+            if (!Miner.mayContainOre(section))
+                continue;
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (Miner.isOre(section.get(x, y, z)))
+                            chunkCensus.add(toLong(baseX + x, (sectionY << 4) + y, baseZ + z));
+                    }
+                }
+            }
+        }
+        chunks.put(ChunkPos.asLong(chunk.x, chunk.z), chunkCensus);
+        markDirty();
+        return chunkCensus;
+    }
+
+    public void invalidate(long chunkPos) {
+        if (chunks.remove(chunkPos) != null)
+            markDirty();
+    }
+
+    public void onBlockChanged(BlockPos pos, IBlockState newState) {
+        checkStamp();
+        long chunkPos = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        ChunkCensus chunkCensus = chunks.get(chunkPos);
+        if (chunkCensus == null)
+            return;
+        long blockPos = pos.toLong();
+        if (Miner.isOre(newState)) {
+            if (!chunkCensus.contains(blockPos))
+                invalidate(chunkPos);
+        } else if (chunkCensus.remove(blockPos)) {
+            markDirty();
+        }
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    @Override
+    public void readFromNBT(NBTTagCompound nbt) {
+        chunks.clear();
+        stamp = nbt.getLong("stamp");
+        NBTTagList chunkList = nbt.getTagList("chunks", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < chunkList.tagCount(); i++) {
+            NBTTagCompound chunkTag = chunkList.getCompoundTagAt(i);
+            int chunkX = chunkTag.getInteger("x"), chunkZ = chunkTag.getInteger("z");
+            ChunkCensus chunkCensus = new ChunkCensus();
+            for (int local : chunkTag.getIntArray("ores")) {
+                chunkCensus.add(toLong((chunkX << 4) + (local & 15), local >> 8, (chunkZ << 4) + (local >> 4 & 15)));
+            }
+            chunks.put(ChunkPos.asLong(chunkX, chunkZ), chunkCensus);
+        }
+    }
+
+    @Override
+    @Nonnull
+    public NBTTagCompound writeToNBT(@Nonnull NBTTagCompound nbt) {
+        NBTTagList chunkList = new NBTTagList();
+        for (Long2ObjectMap.Entry<ChunkCensus> entry : chunks.long2ObjectEntrySet()) {
+            NBTTagCompound chunkTag = new NBTTagCompound();
+            chunkTag.setInteger("x", (int) entry.getLongKey());
+            chunkTag.setInteger("z", (int) (entry.getLongKey() >> 32));
+            int[] ores = new int[entry.getValue().size()];
+            int i = 0;
+            for (LongIterator iterator = entry.getValue().ores.iterator(); iterator.hasNext(); ) {
+                BlockPos pos = BlockPos.fromLong(iterator.nextLong());
+                ores[i++] = pos.getY() << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+            }
+            chunkTag.setTag("ores", new NBTTagIntArray(ores));
+            chunkList.appendTag(chunkTag);
+        }
+        nbt.setTag("chunks", chunkList);
+        nbt.setLong("stamp", stamp);
+        return nbt;
+    }
+
+    /**
+     * Same as {@link BlockPos#toLong()}, without making the position.
+     */
+    static long toLong(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) y & 0xFFFL) << 26 | (long) z & 0x3FFFFFFL;
+    }
+
+    /**
+     * The ores left in one chunk, with how many are in each section.
+     */
+    public static class ChunkCensus {
+
+        private final LongSet ores = new LongOpenHashSet();
+        private final int[] sectionCounts = new int[16];
+
+        public boolean contains(long blockPos) {
+            return ores.contains(blockPos);
+        }
+
+        public boolean hasOreInSection(int sectionY) {
+            return sectionY >= 0 && sectionY < sectionCounts.length && sectionCounts[sectionY] > 0;
+        }
+
+        public boolean isEmpty() {
+            return ores.isEmpty();
+        }
+
+        public int size() {
+            return ores.size();
+        }
+
+        public LongSet getOres() {
+            return LongSets.unmodifiable(ores);
+        }
+
+        boolean add(long blockPos) {
+            int sectionY = getSectionY(blockPos);
+            if (sectionY < 0 || sectionY >= sectionCounts.length || !ores.add(blockPos))
+                return false;
+            sectionCounts[sectionY]++;
+            return true;
+        }
+
+        boolean remove(long blockPos) {
+            if (!ores.remove(blockPos))
+                return false;
+            sectionCounts[getSectionY(blockPos)]--;
+            return true;
+        }
+
+        private static int getSectionY(long blockPos) {
+            // the y of BlockPos.toLong, 12 bits above the 26 of z
+            return (int) (blockPos << 26 >> 52) >> 4;
+        }
+    }
+}
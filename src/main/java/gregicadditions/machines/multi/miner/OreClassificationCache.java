@@ -0,0 +1,92 @@
+package gregicadditions.machines.multi.miner;
+
+import gregicadditions.Gregicality;
+import gregtech.api.unification.OreDictUnifier;
+import gregtech.api.unification.ore.OrePrefix;
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.oredict.OreDictionary;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether a block state is an ore for the miners, worked out once per state from the ore dictionary and kept until it changes.
+ * <p>
+ * As before, a state is classified by the item of its block with no metadata, so all the stone variants of an ore block share it.
+ * Read from the server and the client prospector, hence concurrent.
+ */
+@Mod.EventBusSubscriber(modid = Gregicality.MODID)
+public final class OreClassificationCache {
+
+    private static final Map<IBlockState, Classification> CACHE = new ConcurrentHashMap<>();
+    // 0 until worked out again
+    private static volatile long stamp;
+
+    private OreClassificationCache() {
+    }
+
+    public static Classification get(IBlockState state) {
+        Classification classification = CACHE.get(state);
+        if (classification == null) {
+            classification = classify(state);
+            CACHE.put(state, classification);
+        }
+        return classification;
+    }
+
+    private static Classification classify(IBlockState state) {
+        OrePrefix orePrefix = OreDictUnifier.getPrefix(new ItemStack(state.getBlock()));
+        return new Classification(orePrefix != null && Miner.orePrefixes.contains(orePrefix), orePrefix);
+    }
+
+    public static void invalidate() {
+        CACHE.clear();
+        stamp = 0;
+    }
+
+    /**
+     * A value standing for which blocks are ores, the same for as long as they stay the same, including over restarts.
+     * Worked out from the registry names of the ore blocks the first time it is asked for after an {@link #invalidate()}.
+     */
+    public static long getStamp() {
+        long stamp = OreClassificationCache.stamp;
+        if (stamp == 0) {
+            stamp = 1;
+            for (Block block : Block.REGISTRY) {
+                if (classify(block.getDefaultState()).isOre)
+                    stamp += HashCommon.murmurHash3((long) String.valueOf(block.getRegistryName()).hashCode());
+            }
+            if (stamp == 0)
+                stamp = 1;
+            OreClassificationCache.stamp = stamp;
+        }
+        return stamp;
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    @SubscribeEvent
+    public static void onOreRegister(OreDictionary.OreRegisterEvent event) {
+        invalidate();
+    }
+
+    public static final class Classification {
+
+        public final boolean isOre;
+        @Nullable
+        public final OrePrefix orePrefix;
+
+        private Classification(boolean isOre, @Nullable OrePrefix orePrefix) {
+            this.isOre = isOre;
+            this.orePrefix = orePrefix;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package gregicadditions.machines.multi.miner;
+
+import gregicadditions.GAConfig;
+import gregicadditions.utils.GALog;
+import gregicadditions.utils.WeightedAliasTable;
+import gregtech.api.unification.OreDictUnifier;
+import gregtech.api.unification.stack.MaterialStack;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * The ores of a Void Miner tier with their configured weights, drawn from through an alias table.
+ * <p>
+ * Tables are shared by every Void Miner of a tier, built the first time one forms and again once the config changed.
+ */
+public class VoidMinerOreTable {
+
+    private static final Map<List<ItemStack>, VoidMinerOreTable> TABLES = Collections.synchronizedMap(new IdentityHashMap<>());
+    private static volatile int configVersion = 0;
+
+    private final List<ItemStack> ores;
+    private final WeightedAliasTable aliasTable;
+    private final int drawable;
+    private final int version;
+    // indices drawn by the current pick
+    private final int[] picked = new int[16];
+
+    VoidMinerOreTable(List<ItemStack> ores, double[] weights, int version) {
+        this.ores = ores;
+        this.aliasTable = new WeightedAliasTable(weights);
+        int drawable = 0;
+        for (double weight : weights) {
+            if (weight > 0)
+                drawable++;
+        }
+        this.drawable = drawable;
+        this.version = version;
+    }
+
+    public static VoidMinerOreTable get(List<ItemStack> ores) {
+        int version = configVersion;
+        VoidMinerOreTable table = TABLES.get(ores);
+        if (table == null || table.version != version) {
+            table = new VoidMinerOreTable(ores, getWeights(ores, parseWeights(GAConfig.multis.voidMiner.oreWeights)), version);
+            TABLES.put(ores, table);
+        }
+        return table;
+    }
+
+    /**
+     * Called when the config changed, every table is built again the next time it is used.
+     */
+    public static void invalidate() {
+        configVersion++;
+        TABLES.clear();
+    }
+
+    public boolean isCurrent() {
+        return version == configVersion;
+    }
+
+    public WeightedAliasTable getAliasTable() {
+        return aliasTable;
+    }
+
+    /**
+     * Draws up to count different ores, each in proportion to its weight among the ores not drawn yet.
+     * Ores drawn twice are drawn again a bounded number of times, so a few very heavy ores can leave the pick short.
+     */
+    public void pick(Random random, int count, IntConsumer consumer) {
+        int wanted = Math.min(Math.min(count, drawable), picked.length);
+        int found = 0;
+        for (int attempt = 0; found < wanted && attempt < wanted * 32; attempt++) {
+            int index = aliasTable.sample(random);
+            boolean seen = false;
+            for (int i = 0; i < found && !seen; i++) {
+                seen = picked[i] == index;
+            }
+            if (!seen) {
+                picked[found++] = index;
+                consumer.accept(index);
+            }
+        }
+    }
+
+    public ItemStack getOre(int index) {
+        return ores.get(index);
+    }
+
+    /**
+     * Weights from entries of the form "name=weight", the name being an item as in the whitelists or a material.
+     */
+    static Map<String, Double> parseWeights(String[] entries) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.isEmpty())
+                continue;
+            int index = entry.lastIndexOf('=');
+            if (index <= 0) {
+                GALog.logger.warn("Missing = in Void Miner ore weight: " + entry);
+                continue;
+            }
+            try {
+                double weight = Double.parseDouble(entry.substring(index + 1).trim());
+                if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight))
+                    throw new NumberFormatException();
+                weights.put(entry.substring(0, index).trim(), weight);
+            } catch (NumberFormatException e) {
+                GALog.logger.warn("Invalid weight in Void Miner ore weight: " + entry);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * The weight of each ore: the one set for its item with metadata, else for its item, else for its material, else 1.
+     */
+    static double[] getWeights(List<ItemStack> ores, Map<String, Double> configured) {
+        double[] weights = new double[ores.size()];
+        for (int i = 0; i < weights.length; i++) {
+            ItemStack ore = ores.get(i);
+            Double weight = null;
+            ResourceLocation name = ore.getItem().getRegistryName();
+            if (name != null) {
+                weight = configured.get(name + ":" + ore.getMetadata());
+                if (weight == null)
+                    weight = configured.get(name.toString());
+            }
+            if (weight == null) {
+                MaterialStack materialStack = OreDictUnifier.getMaterial(ore);
+                if (materialStack != null)
+                    weight = configured.get(materialStack.material.toString());
+            }
+            weights[i] = weight == null ? 1.0 : weight;
+        }
+        return weights;
+    }
+}
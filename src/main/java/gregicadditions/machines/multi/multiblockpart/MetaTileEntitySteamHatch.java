@@ -4,7 +4,7 @@ import codechicken.lib.render.CCRenderState;
 import codechicken.lib.render.pipeline.IVertexOperation;
 import codechicken.lib.vec.Matrix4;
 import gregicadditions.capabilities.GregicAdditionsCapabilities;
-import gregtech.api.capability.impl.FilteredFluidHandler;
+import gregicadditions.capabilities.impl.NotifiableFluidTank;
 import gregtech.api.capability.impl.FluidTankList;
 import gregtech.api.gui.GuiTextures;
 import gregtech.api.gui.ModularUI;
@@ -54,7 +54,7 @@ public class MetaTileEntitySteamHatch extends MetaTileEntityMultiblockPart imple
     public MetaTileEntitySteamHatch(ResourceLocation metaTileEntityId) {
         super(metaTileEntityId, 0);
         this.containerInventory = new ItemStackHandler(2);
-        this.steamFluidTank = new FilteredFluidHandler(INVENTORY_SIZE).setFillPredicate(ModHandler::isSteam);
+        this.steamFluidTank = new NotifiableFluidTank(INVENTORY_SIZE).setFillPredicate(ModHandler::isSteam);
         initializeInventory();
     }
 
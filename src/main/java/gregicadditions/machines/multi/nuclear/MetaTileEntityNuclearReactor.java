@@ -40,9 +40,9 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.function.Predicate;
 
 import static gregicadditions.GAMaterials.*;
@@ -66,11 +66,27 @@ public class MetaTileEntityNuclearReactor extends GARecipeMapMultiblockControlle
         public final int additionalTemperature;
         public final IBlockState casingState;
 
+        // block states are unique instances, the first rod type of a state wins as when searching them in order
+        private static final Map<IBlockState, RodType> BY_CASING_STATE = new IdentityHashMap<>();
+
+        static {
+            for (RodType rodType : values()) {
+                if (rodType.casingState != null) {
+                    BY_CASING_STATE.putIfAbsent(rodType.casingState, rodType);
+                }
+            }
+        }
+
         RodType(int additionalTemperature, IBlockState casingState) {
             this.additionalTemperature = additionalTemperature;
             this.casingState = casingState;
         }
 
+        @Nullable
+        public static RodType getRodType(IBlockState casingState) {
+            return BY_CASING_STATE.get(casingState);
+        }
+
         @Override
         public String getName() {
             return name();
@@ -107,12 +123,11 @@ public class MetaTileEntityNuclearReactor extends GARecipeMapMultiblockControlle
 
     public static Predicate<BlockWorldState> heatingCoilPredicate() {
         return blockWorldState -> {
-            IBlockState blockState = blockWorldState.getBlockState();
-            Optional<RodType> optionalRodType = Arrays.stream(RodType.values()).filter(rodType -> rodType.casingState == blockState).findFirst();
-            if (!optionalRodType.isPresent()) {
+            RodType rodType = RodType.getRodType(blockWorldState.getBlockState());
+            if (rodType == null) {
                 return false;
             }
-            blockWorldState.getMatchContext().increment("rodAdditionalTemperature", optionalRodType.get().additionalTemperature);
+            blockWorldState.getMatchContext().increment("rodAdditionalTemperature", rodType.additionalTemperature);
             return true;
 
         };
@@ -3,6 +3,7 @@ package gregicadditions.machines.multi.override;
 import gregicadditions.GAConfig;
 import gregicadditions.GAUtility;
 import gregicadditions.GAValues;
+import gregicadditions.capabilities.impl.GAOverclockCalculator;
 import gregicadditions.item.GAHeatingCoil;
 import gregicadditions.item.GAMetaBlocks;
 import gregtech.api.capability.IEnergyContainer;
@@ -155,6 +156,7 @@ public class MetaTileEntityMultiFurnace extends gregtech.common.metatileentities
 
     protected class GAMultiFurnaceWorkable extends MultiFurnaceWorkable {
 
+        protected final GAOverclockCalculator overclockCalculator = new GAOverclockCalculator();
 
         public GAMultiFurnaceWorkable(RecipeMapMultiblockController tileEntity) {
             super(tileEntity);
@@ -162,30 +164,7 @@ public class MetaTileEntityMultiFurnace extends gregtech.common.metatileentities
 
         @Override
         protected int[] calculateOverclock(int EUt, long voltage, int duration) {
-            if (!allowOverclocking) {
-                return new int[]{EUt, duration};
-            }
-            boolean negativeEU = EUt < 0;
-            int tier = getOverclockingTier(voltage);
-            if (GAValues.V[tier] <= EUt || tier == 0)
-                return new int[]{EUt, duration};
-            if (negativeEU)
-                EUt = -EUt;
-            if (EUt <= 16) {
-                int multiplier = EUt <= 8 ? tier : tier - 1;
-                int resultEUt = EUt * (1 << multiplier) * (1 << multiplier);
-                int resultDuration = duration / (1 << multiplier);
-                return new int[]{negativeEU ? -resultEUt : resultEUt, resultDuration};
-            } else {
-                int resultEUt = EUt;
-                double resultDuration = duration;
-                //do not overclock further if duration is already too small
-                while (resultDuration >= 3 && resultEUt <= GAValues.V[tier - 1]) {
-                    resultEUt *= 4;
-                    resultDuration /= 2.8;
-                }
-                return new int[]{negativeEU ? -resultEUt : resultEUt, (int) Math.ceil(resultDuration)};
-            }
+            return overclockCalculator.calculate(EUt, duration, allowOverclocking ? getOverclockingTier(voltage) : 0);
         }
     }
 }
@@ -1,9 +1,15 @@
 package gregicadditions.machines.multi.simple;
 
 import gregicadditions.GAMaterials;
+import gregicadditions.GAUtility;
 import gregicadditions.capabilities.impl.GAMultiblockRecipeLogic;
+import gregicadditions.capabilities.impl.ItemHandlerChangeTracker;
 import gregicadditions.capabilities.impl.GARecipeMapMultiblockController;
 import gregicadditions.item.components.*;
+import gregicadditions.recipes.IngredientCounter;
+import gregicadditions.recipes.OutputReservation;
+import gregicadditions.recipes.ParallelRecipe;
+import gregicadditions.recipes.ScaledRecipeCache;
 import gregicadditions.utils.GALog;
 import gregtech.api.capability.IMultipleTankHandler;
 import gregtech.api.gui.Widget;
@@ -17,7 +23,6 @@ import gregtech.api.recipes.RecipeBuilder;
 import gregtech.api.recipes.RecipeMap;
 import gregtech.api.unification.material.type.Material;
 import gregtech.api.util.GTUtility;
-import gregtech.api.util.InventoryUtils;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.item.ItemStack;
@@ -27,7 +32,6 @@ import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TextComponentTranslation;
 import net.minecraft.world.World;
 import net.minecraftforge.fluids.FluidStack;
-import net.minecraftforge.fluids.IFluidTank;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import net.minecraftforge.items.IItemHandler;
@@ -37,7 +41,6 @@ import javax.annotation.Nullable;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.stream.IntStream;
 
 import static gregtech.api.gui.widgets.AdvancedTextWidget.withButton;
 import static gregtech.api.gui.widgets.AdvancedTextWidget.withHoverTextTranslate;
@@ -271,8 +274,11 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
 
         // Fields used for distinct mode
         protected int lastRecipeIndex = 0;
-        protected ItemStack[][] lastItemInputsMatrix;
+        protected final ItemHandlerChangeTracker busChangeTracker = new ItemHandlerChangeTracker();
 
+        private final ScaledRecipeCache scaledRecipeCache = new ScaledRecipeCache();
+        private final IngredientCounter ingredientCounter = new IngredientCounter();
+        private final OutputReservation outputReservation = new OutputReservation();
 
         public LargeSimpleMultiblockRecipeLogic(RecipeMapMultiblockController tileEntity, int EUtPercentage, int durationPercentage, int chancePercentage, int stack) {
             super(tileEntity);
@@ -305,7 +311,7 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
         }
 
         @Override
-        protected void trySearchNewRecipe() {
+        protected void searchNewRecipe() {
             if (metaTileEntity instanceof LargeSimpleRecipeMapMultiblockController && ((LargeSimpleRecipeMapMultiblockController) metaTileEntity).isDistinct) {
                     trySearchNewRecipeDistinct();
             } else trySearchNewRecipeCombined();
@@ -348,6 +354,7 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
             Recipe currentRecipe = null;
             List<IItemHandlerModifiable> importInventory = getInputBuses();
             IMultipleTankHandler importFluids = getInputTank();
+            busChangeTracker.setSize(importInventory.size());
 
             // Our caching implementation
             // This guarantees that if we get a recipe cache hit, our efficiency is no different from other machines
@@ -381,30 +388,11 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
 
         // Replacing this for optimization reasons
         protected boolean checkRecipeInputsDirty(IItemHandler inputs, IMultipleTankHandler fluidInputs, int index) {
-            boolean shouldRecheckRecipe = false;
+            boolean shouldRecheckRecipe = busChangeTracker.checkDirty(index, inputs);
 
-            if (lastItemInputsMatrix == null || lastItemInputsMatrix.length != getInputBuses().size()) {
-                lastItemInputsMatrix = new ItemStack[getInputBuses().size()][];
-                GALog.logger.info("Num buses: " + getInputBuses().size());
-            }
-            if (lastItemInputsMatrix[index] == null || lastItemInputsMatrix[index].length != inputs.getSlots()) {
-                this.lastItemInputsMatrix[index] = new ItemStack[inputs.getSlots()];
-                Arrays.fill(lastItemInputsMatrix[index], ItemStack.EMPTY);
-            }
             if (lastFluidInputs == null || lastFluidInputs.length != fluidInputs.getTanks()) {
                 this.lastFluidInputs = new FluidStack[fluidInputs.getTanks()];
             }
-            for (int i = 0; i < lastItemInputsMatrix[index].length; i++) {
-                ItemStack currentStack = inputs.getStackInSlot(i);
-                ItemStack lastStack = lastItemInputsMatrix[index][i];
-                if (!areItemStacksEqual(currentStack, lastStack)) {
-                    this.lastItemInputsMatrix[index][i] = currentStack.isEmpty() ? ItemStack.EMPTY : currentStack.copy();
-                    shouldRecheckRecipe = true;
-                } else if (currentStack.getCount() != lastStack.getCount()) {
-                    lastStack.setCount(currentStack.getCount());
-                    shouldRecheckRecipe = true;
-                }
-            }
             for (int i = 0; i < lastFluidInputs.length; i++) {
                 FluidStack currentStack = fluidInputs.getTankAt(i).getFluid();
                 FluidStack lastStack = lastFluidInputs[i];
@@ -421,30 +409,54 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
             return shouldRecheckRecipe;
         }
 
+        @Override
+        protected boolean setupAndConsumeRecipeInputs(Recipe recipe) {
+            return setupAndConsumeRecipeInputs(recipe, getInputInventory());
+        }
+
         protected boolean setupAndConsumeRecipeInputs(Recipe recipe, int index) {
+            if (setupAndConsumeRecipeInputs(recipe, getInputBuses().get(index))) {
+                // consuming edits the stacks in place without the bus noticing
+                busChangeTracker.markDirty(index);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean setupAndConsumeRecipeInputs(Recipe recipe, IItemHandlerModifiable importInventory) {
             RecipeMapMultiblockController controller = (RecipeMapMultiblockController) metaTileEntity;
             if (controller.checkRecipe(recipe, false)) {
 
                 int[] resultOverclock = calculateOverclock(recipe.getEUt(), recipe.getDuration());
                 int totalEUt = resultOverclock[0] * resultOverclock[1];
-                IItemHandlerModifiable importInventory = getInputBuses().get(index);
                 IItemHandlerModifiable exportInventory = getOutputInventory();
                 IMultipleTankHandler importFluids = getInputTank();
                 IMultipleTankHandler exportFluids = getOutputTank();
-                boolean setup = (totalEUt >= 0 ? getEnergyStored() >= (totalEUt > getEnergyCapacity() / 2 ? resultOverclock[0] : totalEUt) :
+                boolean setup = (totalEUt >= 0 ? hasEnergyToStart(resultOverclock[0], totalEUt) :
                         (getEnergyStored() - resultOverclock[0] <= getEnergyCapacity())) &&
-                        MetaTileEntity.addItemsToItemHandler(exportInventory, true, recipe.getAllItemOutputs(exportInventory.getSlots())) &&
+                        canFitItemOutputs(recipe, exportInventory) &&
                         MetaTileEntity.addFluidsToFluidHandler(exportFluids, true, recipe.getFluidOutputs()) &&
                         recipe.matches(true, importInventory, importFluids);
+                outputReservation.clear();
 
                 if (setup) {
                     controller.checkRecipe(recipe, true);
                     return true;
                 }
             }
+            outputReservation.clear();
             return false;
         }
 
+        /**
+         * Reuses the output check done while building the recipe when there is one, so the output buses are only walked once.
+         */
+        private boolean canFitItemOutputs(Recipe recipe, IItemHandlerModifiable exportInventory) {
+            if (outputReservation.isReserved(recipe, exportInventory))
+                return outputReservation.doChancedOutputsFit();
+            return MetaTileEntity.addItemsToItemHandler(exportInventory, true, recipe.getAllItemOutputs(exportInventory.getSlots()));
+        }
+
         // Shared recipe generation code ===============================================================================
 
         @Override
@@ -457,8 +469,6 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
 
         protected Recipe createRecipe(long maxVoltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs, Recipe matchingRecipe) {
             int maxItemsLimit = this.stack;
-            int EUt;
-            int duration;
             int currentTier = getOverclockingTier(maxVoltage);
             int tierNeeded;
             int minMultiplier = Integer.MAX_VALUE;
@@ -468,17 +478,16 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
             maxItemsLimit = Math.max(1, maxItemsLimit);
 
 
-            Set<ItemStack> countIngredients = new HashSet<>();
+            ingredientCounter.clear();
             if (matchingRecipe.getInputs().size() != 0) {
-                this.findIngredients(countIngredients, inputs);
-                minMultiplier = Math.min(maxItemsLimit, this.getMinRatioItem(countIngredients, matchingRecipe, maxItemsLimit));
+                this.findIngredients(ingredientCounter, inputs);
+                minMultiplier = Math.min(maxItemsLimit, this.getMinRatioItem(ingredientCounter, matchingRecipe, maxItemsLimit));
             }
 
-            Map<String, Integer> countFluid = new HashMap<>();
             if (matchingRecipe.getFluidInputs().size() != 0) {
 
-                this.findFluid(countFluid, fluidInputs);
-                minMultiplier = Math.min(minMultiplier, this.getMinRatioFluid(countFluid, matchingRecipe, maxItemsLimit));
+                this.findFluid(ingredientCounter, fluidInputs);
+                minMultiplier = Math.min(minMultiplier, this.getMinRatioFluid(ingredientCounter, matchingRecipe, maxItemsLimit));
             }
 
             if (minMultiplier == Integer.MAX_VALUE) {
@@ -486,21 +495,45 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
                 return null;
             }
 
-            EUt = matchingRecipe.getEUt();
-            duration = matchingRecipe.getDuration();
-
-            List<CountableIngredient> newRecipeInputs = new ArrayList<>();
-            List<FluidStack> newFluidInputs = new ArrayList<>();
-            List<ItemStack> outputI = new ArrayList<>();
-            List<FluidStack> outputF = new ArrayList<>();
-            this.multiplyInputsAndOutputs(newRecipeInputs, newFluidInputs, outputI, outputF, matchingRecipe, minMultiplier);
+            Recipe recipe = getScaledRecipe(matchingRecipe, minMultiplier, currentTier);
+            if (recipe == null)
+                return null;
 
             // determine if there is enough room in the output to fit all of this
-            boolean canFitOutputs = InventoryUtils.simulateItemStackMerge(outputI, this.getOutputInventory());
+            boolean canFitOutputs = outputReservation.reserve(recipe, this.getOutputInventory());
             // if there isn't, we can't process this recipe.
             if (!canFitOutputs)
                 return null;
 
+            return recipe;
+        }
+
+        /**
+         * Returns the parallel version of the given recipe, reusing the one built on a previous cycle
+         * when the base recipe, multiplier and voltage tier are unchanged.
+         */
+        @Nullable
+        public Recipe getScaledRecipe(Recipe matchingRecipe, int multiplier, int tier) {
+            Recipe recipe = scaledRecipeCache.get(matchingRecipe, multiplier, tier);
+            if (recipe == null) {
+                recipe = buildScaledRecipe(matchingRecipe, multiplier);
+                if (recipe != null) {
+                    scaledRecipeCache.put(matchingRecipe, multiplier, tier, recipe);
+                }
+            }
+            return recipe;
+        }
+
+        @Nullable
+        public Recipe buildScaledRecipe(Recipe matchingRecipe, int multiplier) {
+            int EUt = matchingRecipe.getEUt();
+            int duration = matchingRecipe.getDuration();
+
+            List<CountableIngredient> newRecipeInputs = new ArrayList<>();
+            List<FluidStack> newFluidInputs = new ArrayList<>();
+            List<ItemStack> outputI = new ArrayList<>();
+            List<FluidStack> outputF = new ArrayList<>();
+            this.multiplyInputsAndOutputs(newRecipeInputs, newFluidInputs, outputI, outputF, matchingRecipe, multiplier);
 
             RecipeBuilder<?> newRecipe = recipeMap.recipeBuilder()
                     .inputsIngredients(newRecipeInputs)
@@ -510,90 +543,37 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
                     .EUt((int) Math.max(1, EUt * this.EUtPercentage / 100))
                     .duration((int) Math.max(3, duration * (this.durationPercentage / 100.0)));
 
-            copyChancedItemOutputs(newRecipe, matchingRecipe, minMultiplier);
+            copyChancedItemOutputs(newRecipe, matchingRecipe, multiplier);
 
-            return newRecipe.build().getResult();
+            Recipe recipe = newRecipe.build().getResult();
+            return recipe == null ? null : new ParallelRecipe(recipe, multiplier);
         }
 
         protected void copyChancedItemOutputs(RecipeBuilder<?> newRecipe, Recipe oldRecipe, int multiplier) {
             for (Recipe.ChanceEntry s : oldRecipe.getChancedOutputs()) {
                 int chance = Math.min(10000, s.getChance() * this.chancePercentage / 100);
                 int boost = s.getBoostPerTier() * this.chancePercentage / 100;
-                IntStream.range(0, multiplier).forEach(value -> {
-                    ItemStack itemStack = s.getItemStack().copy();
-                    newRecipe.chancedOutput(itemStack, chance, boost);
-                });
+                // one entry per output holding every parallel run, rolled at once in setupRecipe
+                ItemStack itemStack = s.getItemStack().copy();
+                itemStack.setCount(itemStack.getCount() * multiplier);
+                newRecipe.chancedOutput(itemStack, chance, boost);
             }
         }
 
-
-        protected void findIngredients(Set<ItemStack> countIngredients, IItemHandlerModifiable inputs) {
-            for (int slot = 0; slot < inputs.getSlots(); slot++) {
-                ItemStack wholeItemStack = inputs.getStackInSlot(slot);
-                String name = wholeItemStack.getItem().getUnlocalizedNameInefficiently(wholeItemStack);
-                // skip empty slots
-                if (name.equals("tile.air")) {
-                    continue;
-                }
-                boolean found = false;
-                for (ItemStack i : countIngredients) {
-                    if (ItemStack.areItemsEqual(i, wholeItemStack)) {
-                        i.setCount(i.getCount() + wholeItemStack.getCount());
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    countIngredients.add(wholeItemStack.copy());
-                }
-            }
+        protected void findIngredients(IngredientCounter countIngredients, IItemHandlerModifiable inputs) {
+            countIngredients.countItems(inputs);
         }
 
-        protected int getMinRatioItem(Set<ItemStack> countIngredients, Recipe r, int maxItemsLimit) {
-            int minMultiplier = Integer.MAX_VALUE;
-            for (CountableIngredient ci : r.getInputs()) {
-                if (ci.getCount() == 0) {
-                    continue;
-                }
-                for (ItemStack wholeItemStack : countIngredients) {
-                    if (ci.getIngredient().apply(wholeItemStack)) {
-                        int ratio = Math.min(maxItemsLimit, wholeItemStack.getCount() / ci.getCount());
-                        if (ratio < minMultiplier) {
-                            minMultiplier = ratio;
-                        }
-                        break;
-                    }
-                }
-            }
-            return minMultiplier;
+        protected int getMinRatioItem(IngredientCounter countIngredients, Recipe r, int maxItemsLimit) {
+            return countIngredients.getMinRatioItem(r, maxItemsLimit);
         }
 
-        protected int getMinRatioFluid(Map<String, Integer> countFluid, Recipe r, int maxItemsLimit) {
-            int minMultiplier = Integer.MAX_VALUE;
-            for (FluidStack fs : r.getFluidInputs()) {
-                if (fs.amount != 0) { // skip notConsumable fluids
-                    String name = fs.getFluid().getUnlocalizedName();
-                    int ratio = Math.min(maxItemsLimit, countFluid.get(name) / fs.amount);
-                    if (ratio < minMultiplier) {
-                        minMultiplier = ratio;
-                    }
-                }
-            }
-            return minMultiplier;
+        protected int getMinRatioFluid(IngredientCounter countFluid, Recipe r, int maxItemsLimit) {
+            return countFluid.getMinRatioFluid(r, maxItemsLimit);
         }
 
-        protected void findFluid(Map<String, Integer> countFluid, IMultipleTankHandler fluidInputs) {
-            for (IFluidTank tank : fluidInputs) {
-                if (tank.getFluid() != null) {
-                    String name = tank.getFluid().getUnlocalizedName();
-                    if (countFluid.containsKey(name)) {
-                        int existingValue = countFluid.get(name);
-                        countFluid.put(name, existingValue + tank.getFluidAmount());
-                    } else {
-                        countFluid.put(name, tank.getFluidAmount());
-                    }
-                }
-            }
+        protected void findFluid(IngredientCounter countFluid, IMultipleTankHandler fluidInputs) {
+            countFluid.countFluids(fluidInputs);
         }
 
         protected void multiplyInputsAndOutputs(List<CountableIngredient> newRecipeInputs, List<FluidStack> newFluidInputs, List<ItemStack> outputI, List<FluidStack> outputF, Recipe r, int multiplier) {
@@ -629,7 +609,7 @@ abstract public class LargeSimpleRecipeMapMultiblockController extends GARecipeM
             this.recipeEUt = resultOverclock[0];
             this.fluidOutputs = GTUtility.copyFluidList(recipe.getFluidOutputs());
             int tier = getMachineTierForRecipe(recipe);
-            this.itemOutputs = GTUtility.copyStackList(recipe.getResultItemOutputs(Integer.MAX_VALUE, random, tier));
+            this.itemOutputs = GAUtility.getParallelResultItemOutputs(recipe, Integer.MAX_VALUE, random, tier, ParallelRecipe.getParallel(recipe));
             if (this.wasActiveAndNeedsUpdate) {
                 this.wasActiveAndNeedsUpdate = false;
             } else {
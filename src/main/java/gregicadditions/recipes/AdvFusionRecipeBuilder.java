@@ -111,7 +111,7 @@ public class AdvFusionRecipeBuilder extends RecipeBuilder<AdvFusionRecipeBuilder
     @Override
     public ValidationResult<Recipe> build() {
         return ValidationResult.newResult(finalizeAndValidate(),
-                new Recipe(inputs, outputs, chancedOutputs, fluidInputs, fluidOutputs,
+                new TypedPropertyRecipe(inputs, outputs, chancedOutputs, fluidInputs, fluidOutputs,
                         ImmutableMap.of("coil_tier", this.coilTier, "eu_to_start", this.euStart, "eu_return", this.euReturn),
                         duration, EUt, hidden));
     }
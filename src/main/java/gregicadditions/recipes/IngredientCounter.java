@@ -0,0 +1,126 @@
+package gregicadditions.recipes;
+
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.recipes.CountableIngredient;
+import gregtech.api.recipes.Recipe;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.items.IItemHandler;
+
+import java.util.Arrays;
+
+/**
+ * Tallies the items and fluids available to a multiblock, used to work out how many times a recipe can run in parallel.
+ * <p>
+ * Items are keyed by item id and metadata packed into a long, fluids by {@link Fluid} identity, both in open addressing maps,
+ * so counting a full set of buses does not build any strings nor scan the already counted stacks.
+ * Meant to be kept by the recipe logic and {@link #clear() cleared} before every search.
+ */
+public class IngredientCounter {
+
+    private final Long2IntOpenHashMap itemIndex = new Long2IntOpenHashMap();
+    private final Reference2IntOpenHashMap<Fluid> fluidAmounts = new Reference2IntOpenHashMap<>();
+
+    // first stack seen for each item and the total amount of it, in the order they were found
+    private ItemStack[] itemStacks = new ItemStack[16];
+    private int[] itemCounts = new int[16];
+    private int itemTypes = 0;
+
+    public IngredientCounter() {
+        itemIndex.defaultReturnValue(-1);
+        fluidAmounts.defaultReturnValue(0);
+    }
+
+    public static long getItemKey(ItemStack itemStack) {
+        return ((long) Item.getIdFromItem(itemStack.getItem()) << 32) | (itemStack.getMetadata() & 0xFFFFFFFFL);
+    }
+
+    public void clear() {
+        itemIndex.clear();
+        fluidAmounts.clear();
+        Arrays.fill(itemStacks, 0, itemTypes, null);
+        itemTypes = 0;
+    }
+
+    public void countItems(IItemHandler inputs) {
+        for (int slot = 0; slot < inputs.getSlots(); slot++) {
+            ItemStack itemStack = inputs.getStackInSlot(slot);
+            // skip empty slots
+            if (itemStack.isEmpty())
+                continue;
+            long key = getItemKey(itemStack);
+            int index = itemIndex.get(key);
+            if (index == -1) {
+                if (itemTypes == itemStacks.length) {
+                    itemStacks = Arrays.copyOf(itemStacks, itemTypes * 2);
+                    itemCounts = Arrays.copyOf(itemCounts, itemTypes * 2);
+                }
+                index = itemTypes++;
+                itemIndex.put(key, index);
+                itemStacks[index] = itemStack;
+                itemCounts[index] = 0;
+            }
+            itemCounts[index] += itemStack.getCount();
+        }
+    }
+
+    public void countFluids(IMultipleTankHandler fluidInputs) {
+        for (int i = 0; i < fluidInputs.getTanks(); i++) {
+            FluidStack fluidStack = fluidInputs.getTankAt(i).getFluid();
+            if (fluidStack != null) {
+                fluidAmounts.addTo(fluidStack.getFluid(), fluidStack.amount);
+            }
+        }
+    }
+
+    public int getItemTypes() {
+        return itemTypes;
+    }
+
+    public int getItemCount(ItemStack itemStack) {
+        int index = itemIndex.get(getItemKey(itemStack));
+        return index == -1 ? 0 : itemCounts[index];
+    }
+
+    public int getFluidAmount(Fluid fluid) {
+        return fluidAmounts.getInt(fluid);
+    }
+
+    /**
+     * @return how many times the item inputs of the recipe are available, capped at the limit,
+     * or {@link Integer#MAX_VALUE} if none of the inputs could be matched
+     */
+    public int getMinRatioItem(Recipe recipe, int limit) {
+        int minMultiplier = Integer.MAX_VALUE;
+        for (CountableIngredient ci : recipe.getInputs()) {
+            if (ci.getCount() == 0) {
+                continue;
+            }
+            for (int i = 0; i < itemTypes; i++) {
+                if (ci.getIngredient().apply(itemStacks[i])) {
+                    minMultiplier = Math.min(minMultiplier, Math.min(limit, itemCounts[i] / ci.getCount()));
+                    break;
+                }
+            }
+        }
+        return minMultiplier;
+    }
+
+    /**
+     * @return how many times the fluid inputs of the recipe are available, capped at the limit,
+     * or {@link Integer#MAX_VALUE} if the recipe only has non consumed fluids
+     */
+    public int getMinRatioFluid(Recipe recipe, int limit) {
+        int minMultiplier = Integer.MAX_VALUE;
+        for (FluidStack fs : recipe.getFluidInputs()) {
+            if (fs.amount != 0) { // skip notConsumable fluids
+                minMultiplier = Math.min(minMultiplier, Math.min(limit, fluidAmounts.getInt(fs.getFluid()) / fs.amount));
+            }
+        }
+        return minMultiplier;
+    }
+}
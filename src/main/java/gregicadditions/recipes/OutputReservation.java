@@ -0,0 +1,129 @@
+package gregicadditions.recipes;
+
+import gregtech.api.recipes.Recipe;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Works out in a single pass over the output inventory whether the item outputs of a recipe fit,
+ * and remembers the answer so the check done again right before consuming the inputs can reuse it
+ * instead of walking the output slots a second time.
+ * <p>
+ * The guaranteed outputs are placed one after the other, each taking the room left by the previous ones,
+ * like {@link gregtech.api.util.InventoryUtils#simulateItemStackMerge}. The chanced outputs are each checked
+ * on their own against the inventory as it is, like {@link gregtech.api.metatileentity.MetaTileEntity#addItemsToItemHandler}
+ * in simulate mode, so they may still be voided when they do not all fit, as before.
+ * <p>
+ * The inventory is read once into arrays owned by the reservation, nothing is copied.
+ * A reservation is only valid until the inventory changes, so it is meant to be made and used in the same tick.
+ */
+public class OutputReservation {
+
+    // stack in each slot, or the first output reserved into it when it was empty
+    private ItemStack[] slotStacks = new ItemStack[0];
+    // room left in each slot for more of its stack
+    private int[] slotSpace = new int[0];
+    private int[] slotLimits = new int[0];
+
+    private Recipe reservedRecipe;
+    private IItemHandler reservedInventory;
+    private boolean chancedOutputsFit;
+
+    /**
+     * @return true if every guaranteed output fits along with the others, see {@link #doChancedOutputsFit()} for the chanced ones
+     */
+    public boolean reserve(Recipe recipe, IItemHandler inventory) {
+        clear();
+        int slots = inventory.getSlots();
+        if (slotStacks.length < slots) {
+            slotStacks = new ItemStack[slots];
+            slotSpace = new int[slots];
+            slotLimits = new int[slots];
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            ItemStack stack = inventory.getStackInSlot(slot);
+            slotStacks[slot] = stack;
+            slotLimits[slot] = inventory.getSlotLimit(slot);
+            slotSpace[slot] = stack.isEmpty() ? 0 : Math.max(0, Math.min(slotLimits[slot], stack.getMaxStackSize()) - stack.getCount());
+        }
+
+        List<ItemStack> outputs = recipe.getOutputs();
+        List<Recipe.ChanceEntry> chancedOutputs = recipe.getChancedOutputs();
+        // only as many outputs as there are slots are ever produced
+        int chancedToCheck = Math.min(chancedOutputs.size(), slots - outputs.size());
+        boolean chancedOutputsFit = true;
+        for (int i = 0; i < chancedToCheck && chancedOutputsFit; i++) {
+            chancedOutputsFit = fits(chancedOutputs.get(i).getItemStack(), inventory, slots);
+        }
+        for (ItemStack output : outputs) {
+            if (!place(output, inventory, slots))
+                return false;
+        }
+
+        this.reservedRecipe = recipe;
+        this.reservedInventory = inventory;
+        this.chancedOutputsFit = chancedOutputsFit;
+        return true;
+    }
+
+    /**
+     * @return true if the last {@link #reserve} succeeded for this recipe and inventory and was not cleared since
+     */
+    public boolean isReserved(Recipe recipe, IItemHandler inventory) {
+        return reservedRecipe == recipe && reservedInventory == inventory;
+    }
+
+    /**
+     * @return true if each chanced output of the reserved recipe fits on its own in the inventory as it was before the reservation
+     */
+    public boolean doChancedOutputsFit() {
+        return chancedOutputsFit;
+    }
+
+    public void clear() {
+        Arrays.fill(slotStacks, null);
+        this.reservedRecipe = null;
+        this.reservedInventory = null;
+        this.chancedOutputsFit = false;
+    }
+
+    private boolean fits(ItemStack output, IItemHandler inventory, int slots) {
+        int remaining = output.getCount();
+        for (int slot = 0; slot < slots && remaining > 0; slot++) {
+            ItemStack stack = slotStacks[slot];
+            if (stack.isEmpty()) {
+                if (inventory.isItemValid(slot, output))
+                    remaining -= Math.min(slotLimits[slot], output.getMaxStackSize());
+            } else if (ItemHandlerHelper.canItemStacksStack(stack, output)) {
+                remaining -= slotSpace[slot];
+            }
+        }
+        return remaining <= 0;
+    }
+
+    private boolean place(ItemStack output, IItemHandler inventory, int slots) {
+        int remaining = output.getCount();
+        // top up the stacks already there first
+        for (int slot = 0; slot < slots && remaining > 0; slot++) {
+            ItemStack stack = slotStacks[slot];
+            if (!stack.isEmpty() && slotSpace[slot] > 0 && ItemHandlerHelper.canItemStacksStack(stack, output)) {
+                int placed = Math.min(remaining, slotSpace[slot]);
+                slotSpace[slot] -= placed;
+                remaining -= placed;
+            }
+        }
+        for (int slot = 0; slot < slots && remaining > 0; slot++) {
+            if (slotStacks[slot].isEmpty() && inventory.isItemValid(slot, output)) {
+                int placed = Math.min(remaining, Math.min(slotLimits[slot], output.getMaxStackSize()));
+                slotStacks[slot] = output;
+                slotSpace[slot] = Math.min(slotLimits[slot], output.getMaxStackSize()) - placed;
+                remaining -= placed;
+            }
+        }
+        return remaining <= 0;
+    }
+}
@@ -0,0 +1,29 @@
+package gregicadditions.recipes;
+
+import gregtech.api.recipes.Recipe;
+
+/**
+ * Recipe running several runs of a base recipe at once, carrying how many so its chanced outputs,
+ * one entry per output holding every run, are rolled per run whatever path handed the recipe out.
+ */
+public class ParallelRecipe extends Recipe {
+
+    private final int parallel;
+
+    public ParallelRecipe(Recipe recipe, int parallel) {
+        super(recipe.getInputs(), recipe.getOutputs(), recipe.getChancedOutputs(), recipe.getFluidInputs(), recipe.getFluidOutputs(),
+                recipe.getRecipeProperties(), recipe.getDuration(), recipe.getEUt(), recipe.isHidden());
+        this.parallel = parallel;
+    }
+
+    public int getParallel() {
+        return parallel;
+    }
+
+    /**
+     * @return the number of runs of the recipe, 1 unless it is a {@link ParallelRecipe}
+     */
+    public static int getParallel(Recipe recipe) {
+        return recipe instanceof ParallelRecipe ? ((ParallelRecipe) recipe).parallel : 1;
+    }
+}
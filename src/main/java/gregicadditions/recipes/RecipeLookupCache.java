@@ -0,0 +1,248 @@
+package gregicadditions.recipes;
+
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.items.IItemHandlerModifiable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU of {@link RecipeMap#findRecipe} results shared by every GA recipe logic, so rows of identical machines
+ * fed the same inputs do not each search the whole recipe map.
+ * <p>
+ * Entries are keyed by the recipe map, the voltage, the output tank capacity and the inputs summed up per item and fluid,
+ * in a fixed order, so the slots or tanks the inputs sit in do not matter. Searches that found nothing are kept too.
+ * The whole cache is dropped whenever a recipe is added to or removed from any recipe map.
+ * <p>
+ * Safe to use from several threads, lookups and updates are done under the cache lock, the search itself is not.
+ */
+public class RecipeLookupCache {
+
+    public static final RecipeLookupCache INSTANCE = new RecipeLookupCache(4096);
+
+    // stands for a search that found nothing
+    private static final Object NONE = new Object();
+
+    private final Map<LookupKey, Object> entries;
+    private long hits = 0;
+    private long misses = 0;
+    // bumped on every invalidation, searches started before one are not stored
+    private int generation = 0;
+
+    public RecipeLookupCache(int capacity) {
+        this.entries = new LinkedHashMap<LookupKey, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LookupKey, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public Recipe findRecipe(RecipeMap<?> recipeMap, long voltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs, int outputFluidTankCapacity) {
+        LookupKey key = new LookupKey(recipeMap, voltage, outputFluidTankCapacity, inputs, fluidInputs);
+        int searchGeneration;
+        synchronized (this) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached == NONE ? null : (Recipe) cached;
+            }
+            misses++;
+            searchGeneration = generation;
+        }
+        Recipe recipe = recipeMap.findRecipe(voltage, inputs, fluidInputs, outputFluidTankCapacity);
+        synchronized (this) {
+            if (searchGeneration == generation) {
+                entries.put(key, recipe == null ? NONE : recipe);
+            }
+        }
+        return recipe;
+    }
+
+    /**
+     * Drops every cached result, called whenever the recipes of a recipe map change.
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+        generation++;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void resetCounters() {
+        hits = 0;
+        misses = 0;
+    }
+
+    private static final class LookupKey {
+
+        private final RecipeMap<?> recipeMap;
+        private final long voltage;
+        private final int outputFluidTankCapacity;
+
+        private ItemStack[] items = new ItemStack[4];
+        private int[] itemCounts = new int[4];
+        private int itemTypes = 0;
+        private FluidStack[] fluids = new FluidStack[2];
+        private int fluidTypes = 0;
+
+        private final int hash;
+
+        LookupKey(RecipeMap<?> recipeMap, long voltage, int outputFluidTankCapacity, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs) {
+            this.recipeMap = recipeMap;
+            this.voltage = voltage;
+            this.outputFluidTankCapacity = outputFluidTankCapacity;
+            if (inputs != null) {
+                for (int slot = 0; slot < inputs.getSlots(); slot++) {
+                    addItem(inputs.getStackInSlot(slot));
+                }
+            }
+            if (fluidInputs != null) {
+                for (int i = 0; i < fluidInputs.getTanks(); i++) {
+                    addFluid(fluidInputs.getTankAt(i).getFluid());
+                }
+            }
+            sort();
+            this.hash = computeHash();
+        }
+
+        private void addItem(ItemStack stack) {
+            if (stack.isEmpty())
+                return;
+            for (int i = 0; i < itemTypes; i++) {
+                ItemStack item = items[i];
+                if (item.getItem() == stack.getItem() && item.getMetadata() == stack.getMetadata()
+                        && Objects.equals(item.getTagCompound(), stack.getTagCompound())) {
+                    itemCounts[i] += stack.getCount();
+                    return;
+                }
+            }
+            if (itemTypes == items.length) {
+                items = Arrays.copyOf(items, itemTypes * 2);
+                itemCounts = Arrays.copyOf(itemCounts, itemTypes * 2);
+            }
+            // copied so later changes to the slot do not change the key
+            ItemStack copy = stack.copy();
+            copy.setCount(1);
+            items[itemTypes] = copy;
+            itemCounts[itemTypes++] = stack.getCount();
+        }
+
+        private void addFluid(FluidStack stack) {
+            if (stack == null || stack.amount <= 0)
+                return;
+            for (int i = 0; i < fluidTypes; i++) {
+                if (fluids[i].isFluidEqual(stack)) {
+                    fluids[i].amount += stack.amount;
+                    return;
+                }
+            }
+            if (fluidTypes == fluids.length) {
+                fluids = Arrays.copyOf(fluids, fluidTypes * 2);
+            }
+            fluids[fluidTypes++] = stack.copy();
+        }
+
+        private void sort() {
+            // insertion sort, there are only ever a few kinds of inputs
+            for (int i = 1; i < itemTypes; i++) {
+                ItemStack item = items[i];
+                int count = itemCounts[i];
+                int j = i - 1;
+                for (; j >= 0 && compareItems(items[j], item) > 0; j--) {
+                    items[j + 1] = items[j];
+                    itemCounts[j + 1] = itemCounts[j];
+                }
+                items[j + 1] = item;
+                itemCounts[j + 1] = count;
+            }
+            for (int i = 1; i < fluidTypes; i++) {
+                FluidStack fluid = fluids[i];
+                int j = i - 1;
+                for (; j >= 0 && compareFluids(fluids[j], fluid) > 0; j--) {
+                    fluids[j + 1] = fluids[j];
+                }
+                fluids[j + 1] = fluid;
+            }
+        }
+
+        private static int compareItems(ItemStack a, ItemStack b) {
+            int result = Long.compare(IngredientCounter.getItemKey(a), IngredientCounter.getItemKey(b));
+            return result != 0 ? result : Integer.compare(tagHash(a.getTagCompound()), tagHash(b.getTagCompound()));
+        }
+
+        private static int compareFluids(FluidStack a, FluidStack b) {
+            int result = a.getFluid().getName().compareTo(b.getFluid().getName());
+            return result != 0 ? result : Integer.compare(tagHash(a.tag), tagHash(b.tag));
+        }
+
+        private static int tagHash(NBTTagCompound tag) {
+            return tag == null ? 0 : tag.hashCode();
+        }
+
+        private int computeHash() {
+            int result = System.identityHashCode(recipeMap);
+            result = 31 * result + Long.hashCode(voltage);
+            result = 31 * result + outputFluidTankCapacity;
+            for (int i = 0; i < itemTypes; i++) {
+                result = 31 * result + Long.hashCode(IngredientCounter.getItemKey(items[i]));
+                result = 31 * result + tagHash(items[i].getTagCompound());
+                result = 31 * result + itemCounts[i];
+            }
+            for (int i = 0; i < fluidTypes; i++) {
+                Fluid fluid = fluids[i].getFluid();
+                result = 31 * result + System.identityHashCode(fluid);
+                result = 31 * result + tagHash(fluids[i].tag);
+                result = 31 * result + fluids[i].amount;
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof LookupKey))
+                return false;
+            LookupKey other = (LookupKey) obj;
+            if (hash != other.hash || recipeMap != other.recipeMap || voltage != other.voltage
+                    || outputFluidTankCapacity != other.outputFluidTankCapacity
+                    || itemTypes != other.itemTypes || fluidTypes != other.fluidTypes)
+                return false;
+            for (int i = 0; i < itemTypes; i++) {
+                if (itemCounts[i] != other.itemCounts[i] || items[i].getItem() != other.items[i].getItem()
+                        || items[i].getMetadata() != other.items[i].getMetadata()
+                        || !Objects.equals(items[i].getTagCompound(), other.items[i].getTagCompound()))
+                    return false;
+            }
+            for (int i = 0; i < fluidTypes; i++) {
+                if (fluids[i].amount != other.fluids[i].amount || !fluids[i].isFluidEqual(other.fluids[i]))
+                    return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package gregicadditions.recipes;
+
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.recipes.CountableIngredient;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.oredict.OreDictionary;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps every item and fluid used as a recipe input to the set of recipe maps, out of a fixed list, that have a recipe taking it.
+ * The sets are bit masks over the list, so telling which maps accept a whole inventory takes one lookup per kind of input
+ * however many maps there are.
+ * <p>
+ * Indexes are shared between machines with the same list of maps, and rebuilt when first used after the recipes changed.
+ */
+public class RecipeMapInputIndex {
+
+    public static final int MAX_RECIPE_MAPS = Integer.SIZE;
+
+    private static final Map<List<RecipeMap<?>>, RecipeMapInputIndex> INDEXES = new HashMap<>();
+    private static int generation = 0;
+
+    private final RecipeMap<?>[] recipeMaps;
+    private final Long2IntOpenHashMap itemMasks = new Long2IntOpenHashMap();
+    private final Reference2IntOpenHashMap<Fluid> fluidMasks = new Reference2IntOpenHashMap<>();
+    private int builtGeneration = -1;
+    private long lookups = 0;
+
+    public RecipeMapInputIndex(RecipeMap<?>... recipeMaps) {
+        if (recipeMaps.length > MAX_RECIPE_MAPS) {
+            throw new IllegalArgumentException("At most " + MAX_RECIPE_MAPS + " recipe maps can be indexed, got " + recipeMaps.length);
+        }
+        this.recipeMaps = recipeMaps.clone();
+        itemMasks.defaultReturnValue(0);
+        fluidMasks.defaultReturnValue(0);
+    }
+
+    public static synchronized RecipeMapInputIndex of(RecipeMap<?>[] recipeMaps) {
+        return INDEXES.computeIfAbsent(Arrays.asList(recipeMaps.clone()), maps -> new RecipeMapInputIndex(recipeMaps));
+    }
+
+    /**
+     * Marks every index out of date, called whenever the recipes of a recipe map change.
+     */
+    public static synchronized void invalidateAll() {
+        generation++;
+    }
+
+    private static long getItemKey(Item item, int metadata) {
+        return ((long) Item.getIdFromItem(item) << 32) | (metadata & 0xFFFFFFFFL);
+    }
+
+    private void ensureBuilt() {
+        if (builtGeneration == generation)
+            return;
+        itemMasks.clear();
+        fluidMasks.clear();
+        for (int i = 0; i < recipeMaps.length; i++) {
+            int bit = 1 << i;
+            for (Recipe recipe : recipeMaps[i].getRecipeList()) {
+                for (CountableIngredient input : recipe.getInputs()) {
+                    for (ItemStack stack : input.getIngredient().getMatchingStacks()) {
+                        long key = getItemKey(stack.getItem(), stack.getMetadata());
+                        itemMasks.put(key, itemMasks.get(key) | bit);
+                    }
+                }
+                for (FluidStack fluidInput : recipe.getFluidInputs()) {
+                    fluidMasks.put(fluidInput.getFluid(), fluidMasks.getInt(fluidInput.getFluid()) | bit);
+                }
+            }
+        }
+        builtGeneration = generation;
+    }
+
+    /**
+     * Inputs no map takes, as a leftover circuit, are passed over, so they do not rule out every map.
+     *
+     * @return the bit mask of the maps that have recipes taking each of the inputs taken by any map,
+     * every map when there are no such inputs
+     */
+    public int getCandidates(IItemHandler inputs, IMultipleTankHandler fluidInputs) {
+        ensureBuilt();
+        int mask = recipeMaps.length == MAX_RECIPE_MAPS ? -1 : (1 << recipeMaps.length) - 1;
+        if (inputs != null) {
+            for (int slot = 0; slot < inputs.getSlots() && mask != 0; slot++) {
+                ItemStack stack = inputs.getStackInSlot(slot);
+                if (stack.isEmpty())
+                    continue;
+                lookups++;
+                int itemMask = itemMasks.get(getItemKey(stack.getItem(), stack.getMetadata()))
+                        | itemMasks.get(getItemKey(stack.getItem(), OreDictionary.WILDCARD_VALUE));
+                if (itemMask != 0)
+                    mask &= itemMask;
+            }
+        }
+        if (fluidInputs != null) {
+            for (int i = 0; i < fluidInputs.getTanks() && mask != 0; i++) {
+                FluidStack fluid = fluidInputs.getTankAt(i).getFluid();
+                if (fluid == null || fluid.amount <= 0)
+                    continue;
+                lookups++;
+                int fluidMask = fluidMasks.getInt(fluid.getFluid());
+                if (fluidMask != 0)
+                    mask &= fluidMask;
+            }
+        }
+        return mask;
+    }
+
+    public RecipeMap<?>[] getRecipeMaps() {
+        return recipeMaps;
+    }
+
+    /**
+     * @return how many item and fluid lookups were done so far
+     */
+    public long getLookups() {
+        return lookups;
+    }
+}
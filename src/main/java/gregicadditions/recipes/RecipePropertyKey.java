@@ -0,0 +1,73 @@
+package gregicadditions.recipes;
+
+import gregtech.api.recipes.Recipe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Typed key for a recipe property read by a recipe logic at runtime.
+ * <p>
+ * Recipes built by GA recipe builders are {@link TypedPropertyRecipe}s, which resolve every key once when built,
+ * so reading the property is an array access instead of a string lookup in the property map.
+ * Recipes built elsewhere are still read through the property map.
+ */
+public final class RecipePropertyKey<T> {
+
+    private static final List<RecipePropertyKey<?>> KEYS = new ArrayList<>();
+
+    public static final RecipePropertyKey<Integer> QUBIT_CONSUME = create("qubitConsume", Integer.class);
+    public static final RecipePropertyKey<Integer> QUBIT_PRODUCE = create("qubitProduce", Integer.class);
+    public static final RecipePropertyKey<Integer> COIL_TIER = create("coil_tier", Integer.class);
+    public static final RecipePropertyKey<Long> EU_TO_START = create("eu_to_start", Long.class);
+
+    private final String name;
+    private final Class<T> type;
+    private final int index;
+
+    private RecipePropertyKey(String name, Class<T> type, int index) {
+        this.name = name;
+        this.type = type;
+        this.index = index;
+    }
+
+    private static <T> RecipePropertyKey<T> create(String name, Class<T> type) {
+        RecipePropertyKey<T> key = new RecipePropertyKey<>(name, type, KEYS.size());
+        KEYS.add(key);
+        return key;
+    }
+
+    static List<RecipePropertyKey<?>> getKeys() {
+        return Collections.unmodifiableList(KEYS);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(Recipe recipe) {
+        if (recipe instanceof TypedPropertyRecipe) {
+            return (T) ((TypedPropertyRecipe) recipe).getPropertyValue(index);
+        }
+        return type.cast(recipe.getRecipeProperties().get(name));
+    }
+
+    /**
+     * @return the value in the property map of a recipe, checked against the type of the key
+     */
+    T resolve(Recipe recipe) {
+        Object value = recipe.getRecipeProperties().get(name);
+        return value == null ? null : type.cast(value);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
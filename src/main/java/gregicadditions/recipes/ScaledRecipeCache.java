@@ -0,0 +1,80 @@
+package gregicadditions.recipes;
+
+import gregtech.api.recipes.Recipe;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small least-recently-used cache of parallel recipes built from a base recipe.
+ * <p>
+ * Entries are keyed by the identity of the base recipe, the parallel multiplier and the voltage tier,
+ * so machines running the same recipe back to back reuse the scaled {@link Recipe} instead of
+ * rebuilding it every cycle. Not thread safe, each recipe logic owns its own instance.
+ */
+public class ScaledRecipeCache {
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final Map<Key, Recipe> cache;
+    private final Key lookupKey = new Key();
+
+    public ScaledRecipeCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ScaledRecipeCache(int capacity) {
+        this.cache = new LinkedHashMap<Key, Recipe>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Recipe> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Nullable
+    public Recipe get(Recipe baseRecipe, int multiplier, int tier) {
+        return cache.get(lookupKey.set(baseRecipe, multiplier, tier));
+    }
+
+    public void put(Recipe baseRecipe, int multiplier, int tier, Recipe scaledRecipe) {
+        cache.put(new Key().set(baseRecipe, multiplier, tier), scaledRecipe);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private static class Key {
+        private Recipe baseRecipe;
+        private int multiplier;
+        private int tier;
+        private int hash;
+
+        private Key set(Recipe baseRecipe, int multiplier, int tier) {
+            this.baseRecipe = baseRecipe;
+            this.multiplier = multiplier;
+            this.tier = tier;
+            this.hash = 31 * (31 * System.identityHashCode(baseRecipe) + multiplier) + tier;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            Key key = (Key) obj;
+            return key.baseRecipe == baseRecipe && key.multiplier == multiplier && key.tier == tier;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package gregicadditions.recipes;
+
+import gregtech.api.recipes.CountableIngredient;
+import gregtech.api.recipes.Recipe;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recipe that resolves every {@link RecipePropertyKey} from its property map once when built.
+ */
+public class TypedPropertyRecipe extends Recipe {
+
+    private final Object[] propertyValues;
+
+    public TypedPropertyRecipe(List<CountableIngredient> inputs, List<ItemStack> outputs, List<ChanceEntry> chancedOutputs,
+                               List<FluidStack> fluidInputs, List<FluidStack> fluidOutputs,
+                               Map<String, Object> recipeProperties, int duration, int EUt, boolean hidden) {
+        super(inputs, outputs, chancedOutputs, fluidInputs, fluidOutputs, recipeProperties, duration, EUt, hidden);
+        List<RecipePropertyKey<?>> keys = RecipePropertyKey.getKeys();
+        this.propertyValues = new Object[keys.size()];
+        for (RecipePropertyKey<?> key : keys) {
+            propertyValues[key.getIndex()] = key.resolve(this);
+        }
+    }
+
+    Object getPropertyValue(int index) {
+        return propertyValues[index];
+    }
+}
@@ -1,6 +1,7 @@
 package gregicadditions.recipes.qubit;
 
 import com.google.common.collect.ImmutableMap;
+import gregicadditions.recipes.TypedPropertyRecipe;
 import gregtech.api.recipes.Recipe;
 import gregtech.api.recipes.RecipeBuilder;
 import gregtech.api.recipes.RecipeMap;
@@ -56,7 +57,7 @@ public class QubitProducerRecipeBuilder extends RecipeBuilder<QubitProducerRecip
 
     public ValidationResult<Recipe> build() {
         return ValidationResult.newResult(finalizeAndValidate(),
-                new Recipe(inputs, outputs, chancedOutputs, fluidInputs, fluidOutputs,
+                new TypedPropertyRecipe(inputs, outputs, chancedOutputs, fluidInputs, fluidOutputs,
                         ImmutableMap.of("qubitProduce", qubit),
                         duration, EUt, hidden));
     }
@@ -1,8 +1,6 @@
 package gregicadditions.utils;
 
 import codechicken.lib.vec.Vector3;
-import gnu.trove.map.TIntObjectMap;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import gregicadditions.coremod.hooks.GregTechCEHooks;
 import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.metatileentity.MetaTileEntityHolder;
@@ -11,110 +9,104 @@ import gregtech.api.multiblock.BlockPattern;
 import gregtech.api.multiblock.BlockWorldState;
 import gregtech.api.multiblock.PatternMatchContext;
 import gregtech.api.util.IntRange;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
-import org.apache.commons.lang3.tuple.Pair;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Predicate;
 
 public class BlockPatternChecker {
     private static Field SPIN_FIELD = ObfuscationReflectionHelper.findField(MetaTileEntity.class, "spin");
-    public static Predicate<BlockWorldState>[][][] blockMatches; //[z][y][x]
-    public static TIntObjectMap<Predicate<PatternMatchContext>> layerMatchers = new TIntObjectHashMap<>();
-    public static Predicate<PatternMatchContext>[] validators;
-    public static BlockPattern.RelativeDirection[] structureDir;
-    public static int[][] aisleRepetitions;
-    public static Pair<Predicate<BlockWorldState>, IntRange>[] countMatches;
+    private static Field STRUCTURE_PATTERN_FIELD = ObfuscationReflectionHelper.findField(MultiblockControllerBase.class, "structurePattern");
 
-    // x, y, z, minZ, maxZ
-    public static int[] centerOffset;
-
-    public static BlockWorldState worldState;
-    public static MutableBlockPos blockPos;
-    public static PatternMatchContext matchContext;
-    public static PatternMatchContext layerContext;
-
-    private static <T> T getBlockPatternPrivateValue(BlockPattern blockPattern, String srgName) {
-        return ObfuscationReflectionHelper.getPrivateValue(BlockPattern.class, blockPattern, srgName);
-    }
-
-    public static boolean updateAllValue(BlockPattern blockPattern) {
-        try{
-            blockMatches = getBlockPatternPrivateValue(blockPattern, "blockMatches");
-            layerMatchers = getBlockPatternPrivateValue(blockPattern, "layerMatchers");
-            validators = getBlockPatternPrivateValue(blockPattern, "validators");
-            structureDir = getBlockPatternPrivateValue(blockPattern, "structureDir");
-            aisleRepetitions = getBlockPatternPrivateValue(blockPattern, "aisleRepetitions");
-            countMatches = getBlockPatternPrivateValue(blockPattern, "countMatches");
-            structureDir = getBlockPatternPrivateValue(blockPattern, "structureDir");
-
-            centerOffset = getBlockPatternPrivateValue(blockPattern, "centerOffset");
-
-            worldState = getBlockPatternPrivateValue(blockPattern, "worldState");
-            blockPos = getBlockPatternPrivateValue(blockPattern, "blockPos");
-            matchContext = getBlockPatternPrivateValue(blockPattern, "matchContext");
-            layerContext = getBlockPatternPrivateValue(blockPattern, "layerContext");
-        } catch (Exception e){
-            return false;
+    @Nullable
+    public static BlockPattern getStructurePattern(MultiblockControllerBase controllerBase) {
+        try {
+            return (BlockPattern) STRUCTURE_PATTERN_FIELD.get(controllerBase);
+        } catch (IllegalAccessException e) {
+            return null;
         }
-        return true;
     }
 
     public static BlockPos getPatternErrorPos(MultiblockControllerBase controllerBase) {
-        if (checkPatternAt(controllerBase) == null) {
-            return new BlockPos(blockPos);
+        PatternCheckContext context = new PatternCheckContext();
+        if (checkPatternAt(controllerBase, context) == null) {
+            return context.getLastPos();
         }
         return null;
     }
 
     public static PatternMatchContext checkPatternAt(MultiblockControllerBase controllerBase) {
-        try{
-            BlockPattern structurePattern = ObfuscationReflectionHelper.getPrivateValue(MultiblockControllerBase.class, controllerBase, "structurePattern");
-            return checkPatternAt(structurePattern, controllerBase.getWorld(), controllerBase.getPos(), controllerBase.getFrontFacing().getOpposite());
+        return checkPatternAt(controllerBase, new PatternCheckContext());
+    }
+
+    private static PatternMatchContext checkPatternAt(MultiblockControllerBase controllerBase, PatternCheckContext context) {
+        try {
+            World world = controllerBase.getWorld();
+            BlockPos pos = controllerBase.getPos();
+            return checkPatternAt(getStructurePattern(controllerBase), world, pos, controllerBase.getFrontFacing().getOpposite(), getSpin(world, pos), context);
         } catch (Exception e) {
             return null;
         }
     }
 
     public static PatternMatchContext checkPatternAt(BlockPattern blockPattern, World world, BlockPos centerPos, EnumFacing facing) {
-        if (blockPattern == null || !updateAllValue(blockPattern)) return null;
+        return checkPatternAt(blockPattern, world, centerPos, facing, getSpin(world, centerPos), new PatternCheckContext());
+    }
+
+    /**
+     * Checks the pattern with its controller at the given position, everything the check changes is kept in the context.
+     * The positions of the non-air blocks of a formed structure are put in the match context as "validPos",
+     * packed with {@link BlockPos#toLong()} in a {@link LongArrayList}.
+     *
+     * @return the match context of the formed structure, or null if it is not formed
+     */
+    public static PatternMatchContext checkPatternAt(BlockPattern blockPattern, World world, BlockPos centerPos, EnumFacing facing, EnumFacing spin, PatternCheckContext context) {
+        if (blockPattern == null) return null;
+        CompiledBlockPattern pattern = CompiledBlockPattern.of(blockPattern);
+        if (pattern == null) return null;
+        CompiledBlockPattern.Predicates predicates = pattern.getPredicates(blockPattern);
+        if (predicates == null) return null;
 
-        EnumFacing spin = getSpin(world, centerPos);
+        BlockWorldState worldState = context.worldState;
+        MutableBlockPos blockPos = context.blockPos;
+        PatternMatchContext matchContext = context.matchContext;
+        PatternMatchContext layerContext = context.layerContext;
+        BlockPattern.RelativeDirection[] structureDir = pattern.structureDir();
 
-        List<BlockPos> validPos = new ArrayList<>();
+        LongArrayList validPos = new LongArrayList();
 
-        int[] countMatchesCache = new int[countMatches.length];
+        int[] countMatchesCache = new int[pattern.getCountMatchers()];
         boolean findFirstAisle = false;
-        int minZ = -centerOffset[4];
+        int minZ = -pattern.getCenterOffset(4);
 
         matchContext.reset();
         layerContext.reset();
 
         //Checking aisles
-        for (int c = 0, z = minZ++, r; c < blockPattern.getFingerLength(); c++) {
+        for (int c = 0, z = minZ++, r; c < pattern.getFingerLength(); c++) {
             //Checking repeatable slices
             loop:
-            for (r = 0; (findFirstAisle ? r < aisleRepetitions[c][1] : z <= -centerOffset[3]); r++) {
+            for (r = 0; (findFirstAisle ? r < pattern.getMaxRepetitions(c) : z <= -pattern.getCenterOffset(3)); r++) {
                 //Checking single slice
                 layerContext.reset();
 
-                for (int b = 0, y = -centerOffset[1]; b < blockPattern.getThumbLength(); b++, y++) {
-                    for (int a = 0, x = -centerOffset[0]; a < blockPattern.getPalmLength(); a++, x++) {
-                        Predicate<BlockWorldState> predicate = blockMatches[c][b][a];
+                for (int b = 0, y = -pattern.getCenterOffset(1); b < pattern.getThumbLength(); b++, y++) {
+                    for (int a = 0, x = -pattern.getCenterOffset(0); a < pattern.getPalmLength(); a++, x++) {
+                        Predicate<BlockWorldState> predicate = predicates.getBlockMatch(c, b, a);
                         setActualRelativeOffset(blockPos, x, y, z, facing, spin, structureDir);
                         blockPos.setPos(blockPos.getX() + centerPos.getX(), blockPos.getY() + centerPos.getY(), blockPos.getZ() + centerPos.getZ());
                         worldState.update(world, blockPos, matchContext, layerContext);
 
                         if (!predicate.test(worldState)) {
                             if (findFirstAisle) {
-                                if (r < aisleRepetitions[c][0]) {//retreat to see if the first aisle can start later
+                                if (r < pattern.getMinRepetitions(c)) {//retreat to see if the first aisle can start later
                                     r = c = 0;
                                     z = minZ++;
                                     matchContext.reset();
@@ -126,10 +118,10 @@ public class BlockPatternChecker {
                             }
                             continue loop;
                         } else if(worldState.getBlockState().getBlock() != Blocks.AIR){
-                            validPos.add(new BlockPos(worldState.getPos()));
+                            validPos.add(worldState.getPos().toLong());
                         }
                         for (int i = 0; i < countMatchesCache.length; i++) {
-                            if (countMatches[i].getLeft().test(worldState)) {
+                            if (predicates.getCountPredicate(i).test(worldState)) {
                                 countMatchesCache[i]++;
                             }
                         }
@@ -139,27 +131,27 @@ public class BlockPatternChecker {
                 z++;
 
                 //Check layer-local matcher predicate
-                Predicate<PatternMatchContext> layerPredicate = layerMatchers.get(c);
+                Predicate<PatternMatchContext> layerPredicate = predicates.getLayerMatcher(c);
                 if (layerPredicate != null && !layerPredicate.test(layerContext)) {
                     return null;
                 }
             }
             //Repetitions out of range
-            if (r < aisleRepetitions[c][0]) {
+            if (r < pattern.getMinRepetitions(c)) {
                 return null;
             }
         }
 
         //Check count matches amount
         for (int i = 0; i < countMatchesCache.length; i++) {
-            IntRange intRange = countMatches[i].getRight();
+            IntRange intRange = pattern.getCountRange(i);
             if (!intRange.isInsideOf(countMatchesCache[i])) {
                 return null; //count matches didn't match
             }
         }
 
         //Check general match predicates
-        for (Predicate<PatternMatchContext> validator : validators) {
+        for (Predicate<PatternMatchContext> validator : predicates.getValidators()) {
             if (!validator.test(matchContext)) {
                 return null;
             }
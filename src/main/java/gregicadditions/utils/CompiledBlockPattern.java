@@ -0,0 +1,185 @@
+package gregicadditions.utils;
+
+import gnu.trove.map.TIntObjectMap;
+import gregtech.api.multiblock.BlockPattern;
+import gregtech.api.multiblock.BlockWorldState;
+import gregtech.api.multiblock.PatternMatchContext;
+import gregtech.api.util.IntRange;
+import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The shape of a {@link BlockPattern} {@link BlockPatternChecker} needs, read once through reflection and cached per pattern.
+ * <p>
+ * The predicates are not kept, they are {@link #getPredicates read} from the pattern for each check:
+ * the pattern of a controller has predicates holding the controller, so the cached value would keep its own key,
+ * and with it the controller and its world, from ever being collected.
+ * <p>
+ * Nothing in it changes once compiled, the state of a check lives in a {@link PatternCheckContext},
+ * so the same compiled pattern can be checked from several threads at once.
+ */
+public final class CompiledBlockPattern {
+
+    private static final Map<BlockPattern, CompiledBlockPattern> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Field BLOCK_MATCHES_FIELD = ObfuscationReflectionHelper.findField(BlockPattern.class, "blockMatches");
+    private static final Field LAYER_MATCHERS_FIELD = ObfuscationReflectionHelper.findField(BlockPattern.class, "layerMatchers");
+    private static final Field VALIDATORS_FIELD = ObfuscationReflectionHelper.findField(BlockPattern.class, "validators");
+    private static final Field COUNT_MATCHES_FIELD = ObfuscationReflectionHelper.findField(BlockPattern.class, "countMatches");
+
+    private final BlockPattern.RelativeDirection[] structureDir;
+    private final int[][] aisleRepetitions;
+    private final IntRange[] countRanges;
+    // x, y, z, minZ, maxZ
+    private final int[] centerOffset;
+    private final int fingerLength;
+    private final int thumbLength;
+    private final int palmLength;
+
+    private CompiledBlockPattern(BlockPattern blockPattern) {
+        this.structureDir = ((BlockPattern.RelativeDirection[]) getBlockPatternPrivateValue(blockPattern, "structureDir")).clone();
+        this.centerOffset = ((int[]) getBlockPatternPrivateValue(blockPattern, "centerOffset")).clone();
+        this.fingerLength = blockPattern.getFingerLength();
+        this.thumbLength = blockPattern.getThumbLength();
+        this.palmLength = blockPattern.getPalmLength();
+
+        int[][] aisleRepetitions = getBlockPatternPrivateValue(blockPattern, "aisleRepetitions");
+        this.aisleRepetitions = new int[aisleRepetitions.length][];
+        for (int i = 0; i < aisleRepetitions.length; i++) {
+            this.aisleRepetitions[i] = aisleRepetitions[i].clone();
+        }
+
+        Pair<Predicate<BlockWorldState>, IntRange>[] countMatches = getBlockPatternPrivateValue(blockPattern, "countMatches");
+        this.countRanges = new IntRange[countMatches.length];
+        for (int i = 0; i < countMatches.length; i++) {
+            this.countRanges[i] = countMatches[i].getRight();
+        }
+    }
+
+    private static <T> T getBlockPatternPrivateValue(BlockPattern blockPattern, String srgName) {
+        return ObfuscationReflectionHelper.getPrivateValue(BlockPattern.class, blockPattern, srgName);
+    }
+
+    /**
+     * @return the compiled pattern, or null if it could not be read from the block pattern
+     */
+    @Nullable
+    public static CompiledBlockPattern of(BlockPattern blockPattern) {
+        CompiledBlockPattern compiled = CACHE.get(blockPattern);
+        if (compiled == null) {
+            try {
+                compiled = new CompiledBlockPattern(blockPattern);
+            } catch (Exception e) {
+                return null;
+            }
+            CACHE.put(blockPattern, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * @return the predicates of the pattern this was compiled from, or null if they could not be read
+     */
+    @Nullable
+    Predicates getPredicates(BlockPattern blockPattern) {
+        try {
+            return new Predicates(blockPattern);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    public BlockPattern.RelativeDirection[] getStructureDir() {
+        return structureDir.clone();
+    }
+
+    // not copied, for the checker only
+    BlockPattern.RelativeDirection[] structureDir() {
+        return structureDir;
+    }
+
+    int getMinRepetitions(int c) {
+        return aisleRepetitions[c][0];
+    }
+
+    int getMaxRepetitions(int c) {
+        return aisleRepetitions[c][1];
+    }
+
+    int getCountMatchers() {
+        return countRanges.length;
+    }
+
+    IntRange getCountRange(int i) {
+        return countRanges[i];
+    }
+
+    int getCenterOffset(int i) {
+        return centerOffset[i];
+    }
+
+    public int getFingerLength() {
+        return fingerLength;
+    }
+
+    public int getThumbLength() {
+        return thumbLength;
+    }
+
+    public int getPalmLength() {
+        return palmLength;
+    }
+
+    /**
+     * @return how far from its controller any block checked by the pattern can be along any axis, whatever its orientation
+     */
+    public int getMaxExtent() {
+        int fingers = 0;
+        for (int[] repetitions : aisleRepetitions) {
+            fingers += repetitions[1];
+        }
+        return Math.max(fingers, Math.max(thumbLength, palmLength));
+    }
+
+    /**
+     * The predicates of a pattern, as the pattern has them, for the length of one check.
+     */
+    static final class Predicates {
+
+        private final Predicate<BlockWorldState>[][][] blockMatches; //[z][y][x]
+        private final TIntObjectMap<Predicate<PatternMatchContext>> layerMatchers; //z
+        private final Predicate<PatternMatchContext>[] validators;
+        private final Pair<Predicate<BlockWorldState>, IntRange>[] countMatches;
+
+        @SuppressWarnings("unchecked")
+        private Predicates(BlockPattern blockPattern) throws IllegalAccessException {
+            this.blockMatches = (Predicate<BlockWorldState>[][][]) BLOCK_MATCHES_FIELD.get(blockPattern);
+            this.layerMatchers = (TIntObjectMap<Predicate<PatternMatchContext>>) LAYER_MATCHERS_FIELD.get(blockPattern);
+            this.validators = (Predicate<PatternMatchContext>[]) VALIDATORS_FIELD.get(blockPattern);
+            this.countMatches = (Pair<Predicate<BlockWorldState>, IntRange>[]) COUNT_MATCHES_FIELD.get(blockPattern);
+        }
+
+        Predicate<BlockWorldState> getBlockMatch(int c, int b, int a) {
+            return blockMatches[c][b][a];
+        }
+
+        @Nullable
+        Predicate<PatternMatchContext> getLayerMatcher(int c) {
+            return layerMatchers.get(c);
+        }
+
+        Predicate<PatternMatchContext>[] getValidators() {
+            return validators;
+        }
+
+        Predicate<BlockWorldState> getCountPredicate(int i) {
+            return countMatches[i].getLeft();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package gregicadditions.utils;
+
+import gregtech.api.multiblock.BlockWorldState;
+import gregtech.api.multiblock.PatternMatchContext;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+
+/**
+ * State of a single {@link BlockPatternChecker} check, so checks never share anything but the {@link CompiledBlockPattern}.
+ */
+public class PatternCheckContext {
+
+    final BlockWorldState worldState = new BlockWorldState();
+    final MutableBlockPos blockPos = new MutableBlockPos();
+    final PatternMatchContext matchContext = new PatternMatchContext();
+    final PatternMatchContext layerContext = new PatternMatchContext();
+
+    /**
+     * @return the last position checked, where the pattern stopped matching if the check failed
+     */
+    public BlockPos getLastPos() {
+        return blockPos.toImmutable();
+    }
+}
@@ -0,0 +1,71 @@
+package gregicadditions.utils;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Queue of structure checks run in the order they were asked for, a few per tick:
+ * each tick runs checks until either the count or the time budget is spent, at least one so the queue always drains.
+ * An owner is queued at most once, asking again while it waits changes nothing.
+ */
+public class StructureCheckScheduler<T> {
+
+    private final Queue<T> queue = new ArrayDeque<>();
+    private final Set<T> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final int maxChecksPerTick;
+    private final long maxNanosPerTick;
+    private final LongSupplier clock;
+
+    /**
+     * @param clock current time in nanoseconds
+     */
+    public StructureCheckScheduler(int maxChecksPerTick, long maxNanosPerTick, LongSupplier clock) {
+        this.maxChecksPerTick = Math.max(1, maxChecksPerTick);
+        this.maxNanosPerTick = maxNanosPerTick;
+        this.clock = clock;
+    }
+
+    public void request(T owner) {
+        if (queued.add(owner)) {
+            queue.add(owner);
+        }
+    }
+
+    public boolean isQueued(T owner) {
+        return queued.contains(owner);
+    }
+
+    public void cancel(T owner) {
+        if (queued.remove(owner)) {
+            queue.remove(owner);
+        }
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    /**
+     * Runs the checks this tick's budget allows.
+     *
+     * @return how many checks ran
+     */
+    public int runTick(Consumer<T> check) {
+        long start = clock.getAsLong();
+        int checks = 0;
+        while (!queue.isEmpty()) {
+            if (checks > 0 && (checks >= maxChecksPerTick || clock.getAsLong() - start >= maxNanosPerTick))
+                break;
+            T owner = queue.poll();
+            queued.remove(owner);
+            check.accept(owner);
+            checks++;
+        }
+        return checks;
+    }
+}
@@ -0,0 +1,143 @@
+package gregicadditions.utils;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Spatial index of the volumes multiblock structures can occupy, bucketed by chunk column,
+ * so a block change only marks the structures whose volume holds it as needing a new check.
+ * <p>
+ * A structure is also due for a check once the fallback interval went by since its last one, for what block changes do not show.
+ * Owners are held weakly, footprints of unloaded structures are dropped as they are met.
+ */
+public class StructureFootprintIndex<T> {
+
+    private final Map<T, Footprint<T>> footprints = new WeakHashMap<>();
+    private final Long2ObjectOpenHashMap<List<Footprint<T>>> chunks = new Long2ObjectOpenHashMap<>();
+    private final long fallbackInterval;
+
+    public StructureFootprintIndex(long fallbackInterval) {
+        this.fallbackInterval = fallbackInterval;
+    }
+
+    /**
+     * Registers the volume of a structure between two corners, both included, replacing the one it had.
+     * The structure counts as checked at the given time.
+     */
+    public void register(T owner, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, long time) {
+        unregister(owner);
+        Footprint<T> footprint = new Footprint<>(owner, minX, minY, minZ, maxX, maxY, maxZ, time);
+        footprints.put(owner, footprint);
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                chunks.computeIfAbsent(ChunkPos.asLong(chunkX, chunkZ), key -> new ArrayList<>()).add(footprint);
+            }
+        }
+    }
+
+    public void unregister(T owner) {
+        Footprint<T> footprint = footprints.remove(owner);
+        if (footprint != null) {
+            removeFromChunks(footprint);
+        }
+    }
+
+    private void removeFromChunks(Footprint<T> footprint) {
+        for (int chunkX = footprint.minX >> 4; chunkX <= footprint.maxX >> 4; chunkX++) {
+            for (int chunkZ = footprint.minZ >> 4; chunkZ <= footprint.maxZ >> 4; chunkZ++) {
+                long key = ChunkPos.asLong(chunkX, chunkZ);
+                List<Footprint<T>> bucket = chunks.get(key);
+                if (bucket != null) {
+                    bucket.remove(footprint);
+                    if (bucket.isEmpty())
+                        chunks.remove(key);
+                }
+            }
+        }
+    }
+
+    public boolean isRegistered(T owner) {
+        return footprints.containsKey(owner);
+    }
+
+    /**
+     * Marks every structure whose volume holds the block as needing a check.
+     */
+    public void onBlockChanged(int x, int y, int z) {
+        List<Footprint<T>> bucket = chunks.get(ChunkPos.asLong(x >> 4, z >> 4));
+        if (bucket == null)
+            return;
+        for (Iterator<Footprint<T>> iterator = bucket.iterator(); iterator.hasNext(); ) {
+            Footprint<T> footprint = iterator.next();
+            if (footprint.owner.get() == null) {
+                iterator.remove();
+            } else if (footprint.contains(x, y, z)) {
+                footprint.changed = true;
+            }
+        }
+    }
+
+    /**
+     * Marks a structure as needing a check, whatever changed around it.
+     */
+    public void markChanged(T owner) {
+        Footprint<T> footprint = footprints.get(owner);
+        if (footprint != null) {
+            footprint.changed = true;
+        }
+    }
+
+    /**
+     * @return whether the structure must be checked at the given time: it is not registered,
+     * a block changed in its volume or the fallback interval went by since its last check
+     */
+    public boolean needsCheck(T owner, long time) {
+        Footprint<T> footprint = footprints.get(owner);
+        return footprint == null || footprint.changed || time - footprint.lastCheck >= fallbackInterval;
+    }
+
+    /**
+     * Records a check of a registered structure, it needs none until its volume changes or the fallback interval goes by.
+     */
+    public void markChecked(T owner, long time) {
+        Footprint<T> footprint = footprints.get(owner);
+        if (footprint != null) {
+            footprint.changed = false;
+            footprint.lastCheck = time;
+        }
+    }
+
+    public int size() {
+        return footprints.size();
+    }
+
+    private static final class Footprint<T> {
+
+        final WeakReference<T> owner;
+        final int minX, minY, minZ, maxX, maxY, maxZ;
+        boolean changed;
+        long lastCheck;
+
+        Footprint(T owner, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, long lastCheck) {
+            this.owner = new WeakReference<>(owner);
+            this.minX = Math.min(minX, maxX);
+            this.minY = Math.min(minY, maxY);
+            this.minZ = Math.min(minZ, maxZ);
+            this.maxX = Math.max(minX, maxX);
+            this.maxY = Math.max(minY, maxY);
+            this.maxZ = Math.max(minZ, maxZ);
+            this.lastCheck = lastCheck;
+        }
+
+        boolean contains(int x, int y, int z) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package gregicadditions.utils;
+
+import gregicadditions.GAConfig;
+import gregicadditions.Gregicality;
+import gregtech.api.metatileentity.MetaTileEntityHolder;
+import gregtech.api.metatileentity.multiblock.MultiblockControllerBase;
+import gregtech.api.multiblock.BlockPattern;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps a {@link StructureFootprintIndex} of the Gregicality multiblocks of every server world, fed by the block changes of the world,
+ * so the periodic structure check of a multiblock only runs when a block changed in the volume its pattern can reach,
+ * or once per fallback interval.
+ * <p>
+ * Checks that are due are not run right away but queued in the {@link StructureCheckScheduler} of the world,
+ * which runs them at the end of the following ticks within the configured budget. Until then a multiblock keeps its last state.
+ */
+@Mod.EventBusSubscriber(modid = Gregicality.MODID)
+public class StructureWatcher extends WorldEventListenerAdapter {
+
+    private static final Map<World, StructureFootprintIndex<MultiblockControllerBase>> INDEXES = new WeakHashMap<>();
+    private static final Map<World, StructureCheckScheduler<MultiblockControllerBase>> SCHEDULERS = new WeakHashMap<>();
+    private static final Map<MultiblockControllerBase, Registration> REGISTRATIONS = new WeakHashMap<>();
+    private static final Method CHECK_STRUCTURE_PATTERN = ObfuscationReflectionHelper.findMethod(MultiblockControllerBase.class, "checkStructurePattern", Void.TYPE);
+    // the controller whose scheduled check is running
+    private static MultiblockControllerBase checking;
+
+    private final StructureFootprintIndex<MultiblockControllerBase> index;
+
+    private StructureWatcher(StructureFootprintIndex<MultiblockControllerBase> index) {
+        this.index = index;
+    }
+
+    @SubscribeEvent
+    public static void onWorldLoad(WorldEvent.Load event) {
+        World world = event.getWorld();
+        if (world.isRemote)
+            return;
+        StructureFootprintIndex<MultiblockControllerBase> index = new StructureFootprintIndex<>(GAConfig.multiblocks.structureCheckFallbackInterval);
+        INDEXES.put(world, index);
+        SCHEDULERS.put(world, new StructureCheckScheduler<>(GAConfig.multiblocks.structureChecksPerTick,
+                GAConfig.multiblocks.structureCheckTimePerTick * 1000L, System::nanoTime));
+        world.addEventListener(new StructureWatcher(index));
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload event) {
+        INDEXES.remove(event.getWorld());
+        SCHEDULERS.remove(event.getWorld());
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || event.world.isRemote)
+            return;
+        StructureCheckScheduler<MultiblockControllerBase> scheduler = SCHEDULERS.get(event.world);
+        if (scheduler != null) {
+            scheduler.runTick(StructureWatcher::runCheck);
+        }
+    }
+
+    private static void runCheck(MultiblockControllerBase controller) {
+        MetaTileEntityHolder holder = controller.getHolder();
+        if (holder == null || holder.isInvalid() || holder.getMetaTileEntity() != controller)
+            return;
+        checking = controller;
+        try {
+            CHECK_STRUCTURE_PATTERN.invoke(controller);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            GALog.logger.error("Structure check of {} at {} failed", controller.metaTileEntityId, controller.getPos(), e);
+        } finally {
+            checking = null;
+        }
+    }
+
+    @Nullable
+    public static StructureFootprintIndex<MultiblockControllerBase> getIndex(World world) {
+        return INDEXES.get(world);
+    }
+
+    /**
+     * @return whether the structure check of the controller is skipped now, because nothing changed since its last one
+     * or because it is queued to run later
+     */
+    public static boolean skipCheck(MultiblockControllerBase controller) {
+        if (controller == checking)
+            return false;
+        World world = controller.getWorld();
+        if (world == null || world.isRemote || !Gregicality.MODID.equals(controller.metaTileEntityId.getNamespace()))
+            return false;
+        StructureFootprintIndex<MultiblockControllerBase> index = INDEXES.get(world);
+        StructureCheckScheduler<MultiblockControllerBase> scheduler = SCHEDULERS.get(world);
+        if (index == null || scheduler == null)
+            return false;
+        long time = world.getTotalWorldTime();
+        BlockPattern pattern = BlockPatternChecker.getStructurePattern(controller);
+        Registration registration = new Registration(controller, pattern);
+        if (!registration.equals(REGISTRATIONS.get(controller))) {
+            CompiledBlockPattern compiledPattern = pattern == null ? null : CompiledBlockPattern.of(pattern);
+            if (compiledPattern == null) {
+                index.unregister(controller);
+                scheduler.cancel(controller);
+                REGISTRATIONS.remove(controller);
+                return false;
+            }
+            int extent = compiledPattern.getMaxExtent();
+            BlockPos pos = controller.getPos();
+            index.register(controller, pos.getX() - extent, pos.getY() - extent, pos.getZ() - extent,
+                    pos.getX() + extent, pos.getY() + extent, pos.getZ() + extent, time);
+            REGISTRATIONS.put(controller, registration);
+            scheduler.request(controller);
+            return true;
+        }
+        if (index.needsCheck(controller, time)) {
+            index.markChecked(controller, time);
+            scheduler.request(controller);
+        }
+        return true;
+    }
+
+    @Override
+    public void notifyBlockUpdate(World worldIn, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
+        // tile entities syncing their data notify with the same state, the rotation of a controller is followed by its registration
+        if (oldState != newState) {
+            index.onBlockChanged(pos.getX(), pos.getY(), pos.getZ());
+        }
+    }
+
+    /**
+     * What the footprint of a controller was registered for, it is registered again when any of it changes.
+     * The pattern is held weakly: its predicates hold the controller, which is the key of the registration.
+     */
+    private static final class Registration {
+
+        final WeakReference<BlockPattern> pattern;
+        final BlockPos pos;
+        final EnumFacing frontFacing;
+        final EnumFacing spin;
+
+        Registration(MultiblockControllerBase controller, @Nullable BlockPattern pattern) {
+            this.pattern = new WeakReference<>(pattern);
+            this.pos = controller.getPos();
+            this.frontFacing = controller.getFrontFacing();
+            this.spin = BlockPatternChecker.getSpin(controller);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Registration))
+                return false;
+            Registration other = (Registration) obj;
+            return pattern.get() == other.pattern.get() && pos.equals(other.pos) && frontFacing == other.frontFacing && spin == other.spin;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(pattern.get()), pos, frontFacing, spin);
+        }
+    }
+}
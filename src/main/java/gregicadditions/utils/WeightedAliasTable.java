@@ -0,0 +1,98 @@
+package gregicadditions.utils;
+
+import java.util.Random;
+
+/**
+ * Draws indices in proportion to their weights in constant time, with Vose's alias method.
+ * <p>
+ * Built in linear time from the weights. Each draw picks a column uniformly and then either the column itself
+ * or its alias, so drawing never depends on the number of weights.
+ */
+public class WeightedAliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+    private final double[] weights;
+    private final double totalWeight;
+
+    public WeightedAliasTable(double[] weights) {
+        int size = weights.length;
+        double total = 0;
+        int firstPositive = -1;
+        for (int i = 0; i < size; i++) {
+            if (!(weights[i] >= 0) || Double.isInfinite(weights[i]))
+                throw new IllegalArgumentException("Invalid weight " + weights[i] + " at " + i);
+            if (weights[i] > 0 && firstPositive < 0)
+                firstPositive = i;
+            total += weights[i];
+        }
+        this.weights = weights.clone();
+        this.totalWeight = total;
+        this.probability = new double[size];
+        this.alias = new int[size];
+        if (total <= 0)
+            return;
+
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // what is left is 1 up to rounding errors
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = weights[index] > 0 ? 1.0 : 0.0;
+            alias[index] = weights[index] > 0 ? index : firstPositive;
+        }
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * @return true if no index can be drawn, all the weights being zero
+     */
+    public boolean isEmpty() {
+        return totalWeight <= 0;
+    }
+
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    public int sample(Random random) {
+        if (isEmpty())
+            throw new IllegalStateException("Nothing to draw from");
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+}
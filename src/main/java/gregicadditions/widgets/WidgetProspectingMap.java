@@ -12,6 +12,7 @@ import gregtech.api.unification.OreDictUnifier;
 import gregtech.api.util.Position;
 import gregtech.api.util.Size;
 import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.gui.Gui;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.resources.I18n;
@@ -91,8 +92,9 @@ public class WidgetProspectingMap extends Widget {
                             for (int z = 0; z < 16; z++) {
                                 int ySize = c.getHeightValue(x, z);
                                 for (int y = 1; y < ySize; y++) {
-                                    Block block = c.getBlockState(x, y, z).getBlock();
-                                    if (Miner.isOre(block)) {
+                                    IBlockState state = c.getBlockState(x, y, z);
+                                    if (Miner.isOre(state)) {
+                                        Block block = state.getBlock();
                                         packet.addBlock(c.x * 16 + x, y, c.z * 16 + z,
                                                 OreDictUnifier.getOreDictionaryNames(new ItemStack(block)).stream()
                                                         .findFirst().get());
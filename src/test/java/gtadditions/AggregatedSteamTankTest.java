@@ -0,0 +1,116 @@
+package gtadditions;
+
+import gregicadditions.capabilities.impl.AggregatedSteamTank;
+import gregicadditions.capabilities.impl.NotifiableFluidTank;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.recipes.ModHandler;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.fluids.IFluidTank;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AggregatedSteamTankTest {
+
+    private static final int HATCH_CAPACITY = 64000;
+    private static final double CONVERSION_RATE = 0.5;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    /**
+     * Energy stored, capacity and draws through the view must match combining the hatches into a new tank on every call.
+     */
+    @Test
+    public void matchesRecombiningOnEveryCall() {
+        IFluidTank[] hatches = new IFluidTank[4];
+        for (int i = 0; i < hatches.length; i++) {
+            hatches[i] = new NotifiableFluidTank(HATCH_CAPACITY).setFillPredicate(ModHandler::isSteam);
+        }
+        checkRandomOperations(new FluidTankList(true, hatches));
+    }
+
+    /**
+     * Tanks that do not notify the view must still be picked up.
+     */
+    @Test
+    public void plainTanksAreSummedOnEveryRead() {
+        IFluidTank[] hatches = {
+                new NotifiableFluidTank(HATCH_CAPACITY).setFillPredicate(ModHandler::isSteam),
+                new FluidTank(HATCH_CAPACITY),
+                new FluidTank(HATCH_CAPACITY)
+        };
+        checkRandomOperations(new FluidTankList(true, hatches));
+    }
+
+    @Test
+    public void setFluidAndRebindAreSeen() {
+        NotifiableFluidTank hatch = new NotifiableFluidTank(HATCH_CAPACITY);
+        FluidTankList tanks = new FluidTankList(true, hatch);
+        AggregatedSteamTank view = new AggregatedSteamTank();
+        view.setTanks(tanks);
+        assertEquals(0, view.getFluidAmount());
+        assertEquals(HATCH_CAPACITY, view.getCapacity());
+
+        // loading from NBT goes through setFluid
+        hatch.setFluid(ModHandler.getSteam(1234));
+        assertEquals(1234, view.getFluidAmount());
+
+        // once the structure breaks the view stops listening to the old hatches
+        view.setTanks(new FluidTankList(true));
+        assertNull(hatch.getListener());
+        assertEquals(0, view.getFluidAmount());
+        assertEquals(0, view.getCapacity());
+        assertNull(view.getFluid());
+    }
+
+    private static void checkRandomOperations(FluidTankList tanks) {
+        AggregatedSteamTank view = new AggregatedSteamTank();
+        view.setTanks(tanks);
+        Random random = new Random(7);
+        for (int step = 0; step < 5000; step++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    tanks.fill(ModHandler.getSteam(1 + random.nextInt(40000)), true);
+                    break;
+                case 1:
+                    tanks.getTankAt(random.nextInt(tanks.getTanks())).drain(1 + random.nextInt(20000), true);
+                    break;
+                default:
+                    int recipeEUt = 1 + random.nextInt(2000);
+                    int resultDraw = (int) Math.ceil(recipeEUt / CONVERSION_RATE);
+                    boolean expected = resultDraw >= 0 && combine(tanks).getFluidAmount() >= resultDraw;
+                    boolean actual = resultDraw >= 0 && view.getFluidAmount() >= resultDraw;
+                    assertEquals("Draw at step " + step, expected, actual);
+                    if (actual)
+                        assertNotNull(tanks.drain(resultDraw, true));
+            }
+            FluidTank combined = combine(tanks);
+            assertEquals("Stored at step " + step, energyStored(combined), energyStored(view));
+            assertEquals("Capacity at step " + step, energyCapacity(combined), energyCapacity(view));
+        }
+    }
+
+    // what SteamMultiblockRecipeLogic did on every call before keeping the view
+    private static FluidTank combine(FluidTankList tanks) {
+        int capacity = tanks.getTanks() * HATCH_CAPACITY;
+        FluidTank combined = new FluidTank(capacity);
+        FluidStack drained = tanks.drain(capacity, false);
+        combined.fill(drained, true);
+        return combined;
+    }
+
+    private static long energyStored(IFluidTank tank) {
+        return (long) Math.ceil(tank.getFluidAmount() * CONVERSION_RATE);
+    }
+
+    private static long energyCapacity(IFluidTank tank) {
+        return (long) Math.floor(tank.getCapacity() * CONVERSION_RATE);
+    }
+}
@@ -0,0 +1,255 @@
+package gtadditions;
+
+import gregicadditions.machines.GATileEntities;
+import gregicadditions.utils.BlockPatternChecker;
+import gregicadditions.utils.CompiledBlockPattern;
+import gregicadditions.utils.PatternCheckContext;
+import gregtech.api.metatileentity.multiblock.MultiblockControllerBase;
+import gregtech.api.multiblock.BlockPattern;
+import gregtech.api.multiblock.FactoryBlockPattern;
+import gregtech.api.multiblock.IPatternCenterPredicate;
+import gregtech.api.multiblock.PatternMatchContext;
+import gregtech.api.util.world.DummyWorld;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.init.Blocks;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class BlockPatternCheckerTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+
+    private static BlockPattern box;
+    private static BlockPattern tube;
+    private static World world;
+    private static final List<Case> CASES = new ArrayList<>();
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        box = FactoryBlockPattern.start()
+                .aisle("XXX", "XSX", "XXX")
+                .aisle("XXX", "X#X", "XXX")
+                .aisle("XXX", "XXX", "XXX")
+                .where('S', IPatternCenterPredicate.wrap(MultiblockControllerBase.blockPredicate(Blocks.GOLD_BLOCK)))
+                .where('X', MultiblockControllerBase.blockPredicate(Blocks.IRON_BLOCK))
+                .where('#', MultiblockControllerBase.isAirPredicate())
+                .build();
+        tube = FactoryBlockPattern.start()
+                .aisle("XXX", "XSX", "XXX")
+                .aisle("XXX", "X#X", "XXX").setRepeatable(1, 3)
+                .aisle("XXX", "XXX", "XXX")
+                .setAmountAtLeast('X', 26)
+                .where('S', IPatternCenterPredicate.wrap(MultiblockControllerBase.blockPredicate(Blocks.GOLD_BLOCK)))
+                .where('X', MultiblockControllerBase.blockPredicate(Blocks.IRON_BLOCK))
+                .where('#', MultiblockControllerBase.isAirPredicate())
+                .build();
+
+        world = new DummyWorld();
+        EnumFacing[] facings = EnumFacing.HORIZONTALS;
+        for (int i = 0; i < 12; i++) {
+            EnumFacing facing = facings[i % facings.length];
+            BlockPos center = new BlockPos(i * 16, 64, 0);
+            // depth 3 to 7, the tube only takes 3 to 5
+            int depth = 3 + i % 5;
+            build(center, facing, depth);
+            if (i % 3 == 2) {
+                // break a block of the back aisle
+                world.setBlockState(center.offset(facing, depth - 1).up(), Blocks.DIRT.getDefaultState());
+            }
+            CASES.add(new Case(box, center, facing));
+            CASES.add(new Case(tube, center, facing));
+        }
+    }
+
+    /**
+     * Reads around a structure so its chunks are loaded before the threads only read the world.
+     */
+    private static void loadAround(BlockPos center, EnumFacing facing) {
+        for (int d = -1; d < 10; d++) {
+            for (int a = -1; a <= 1; a++) {
+                world.getBlockState(center.offset(facing, d).offset(facing.rotateY(), a));
+            }
+        }
+    }
+
+    /**
+     * Lays a structure of the given depth along the facing, the center block in front.
+     */
+    private static void build(BlockPos center, EnumFacing facing, int depth) {
+        loadAround(center, facing);
+        EnumFacing side = facing.rotateY();
+        for (int d = 0; d < depth; d++) {
+            boolean shell = d == 0 || d == depth - 1;
+            for (int a = -1; a <= 1; a++) {
+                for (int b = -1; b <= 1; b++) {
+                    BlockPos pos = center.offset(facing, d).offset(side, a).up(b);
+                    if (a == 0 && b == 0) {
+                        if (d == 0) {
+                            world.setBlockState(pos, Blocks.GOLD_BLOCK.getDefaultState());
+                        } else if (shell) {
+                            world.setBlockState(pos, Blocks.IRON_BLOCK.getDefaultState());
+                        }
+                    } else {
+                        world.setBlockState(pos, Blocks.IRON_BLOCK.getDefaultState());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives the same results as the pattern's own check, which the checker extends with spins.
+     */
+    @Test
+    public void matchesThePatternCheck() {
+        int formed = 0;
+        for (Case c : CASES) {
+            PatternMatchContext result = BlockPatternChecker.checkPatternAt(c.pattern, world, c.center, c.facing, EnumFacing.NORTH, new PatternCheckContext());
+            assertEquals(c.expected, result != null);
+            if (result != null) {
+                formed++;
+                LongList validPos = result.get("validPos");
+                assertTrue(validPos.contains(c.center.toLong()));
+            }
+        }
+        assertTrue(formed > 0);
+        assertTrue(formed < CASES.size());
+    }
+
+    @Test
+    public void failedCheckKeepsTheErrorPos() {
+        BlockPos center = new BlockPos(0, 64, 64);
+        build(center, EnumFacing.SOUTH, 3);
+        BlockPos broken = center.offset(EnumFacing.SOUTH, 1).east();
+        world.setBlockState(broken, Blocks.DIRT.getDefaultState());
+
+        PatternCheckContext context = new PatternCheckContext();
+        assertNull(BlockPatternChecker.checkPatternAt(box, world, center, EnumFacing.SOUTH, EnumFacing.NORTH, context));
+        assertEquals(broken, context.getLastPos());
+    }
+
+    /**
+     * The packed positions sent to clients unpack to the blocks of the structure.
+     */
+    @Test
+    public void validPosRoundTrip() {
+        BlockPos center = new BlockPos(0, 64, 128);
+        build(center, EnumFacing.WEST, 3);
+        Set<BlockPos> expected = new HashSet<>();
+        for (BlockPos pos : BlockPos.getAllInBox(center.add(-2, -1, -1), center.add(0, 1, 1))) {
+            if (!world.isAirBlock(pos))
+                expected.add(pos);
+        }
+        assertEquals(26, expected.size());
+
+        PatternMatchContext result = BlockPatternChecker.checkPatternAt(box, world, center, EnumFacing.WEST, EnumFacing.NORTH, new PatternCheckContext());
+        assertNotNull(result);
+        LongList validPos = result.get("validPos");
+        PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+        buf.writeLongArray(validPos.toLongArray());
+
+        long[] received = buf.readLongArray(null);
+        Set<BlockPos> positions = new HashSet<>();
+        for (long packedPos : received) {
+            positions.add(BlockPos.fromLong(packedPos));
+        }
+        assertEquals(validPos.size(), received.length);
+        assertEquals(expected, positions);
+    }
+
+    @Test
+    public void patternsAreCompiledOnce() {
+        CompiledBlockPattern compiled = CompiledBlockPattern.of(tube);
+        assertNotNull(compiled);
+        assertSame(compiled, CompiledBlockPattern.of(tube));
+        assertEquals(tube.getFingerLength(), compiled.getFingerLength());
+        // the returned directions are a copy
+        compiled.getStructureDir()[0] = null;
+        assertNotNull(compiled.getStructureDir()[0]);
+    }
+
+    /**
+     * The pattern of a controller holds the controller through its predicates, the compiled pattern must not keep it.
+     */
+    @Test
+    public void droppedControllersAreCollected() throws InterruptedException {
+        MultiblockControllerBase controller = (MultiblockControllerBase) GATileEntities.LARGE_MACERATOR.createMetaTileEntity(null);
+        BlockPattern pattern = BlockPatternChecker.getStructurePattern(controller);
+        assertNotNull(pattern);
+        assertNotNull(CompiledBlockPattern.of(pattern));
+        WeakReference<MultiblockControllerBase> reference = new WeakReference<>(controller);
+        controller = null;
+        pattern = null;
+
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+    }
+
+    /**
+     * Many threads checking the same patterns at once must each get the result of a check done alone.
+     */
+    @Test
+    public void concurrentChecksAgree() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    PatternCheckContext context = new PatternCheckContext();
+                    int mismatches = 0;
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (int i = 0; i < CASES.size(); i++) {
+                            Case c = CASES.get((i + offset) % CASES.size());
+                            PatternMatchContext result = BlockPatternChecker.checkPatternAt(c.pattern, world, c.center, c.facing, EnumFacing.NORTH, context);
+                            if (c.expected != (result != null))
+                                mismatches++;
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(0, (int) future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Case {
+        final BlockPattern pattern;
+        final BlockPos center;
+        final EnumFacing facing;
+        final boolean expected;
+
+        Case(BlockPattern pattern, BlockPos center, EnumFacing facing) {
+            this.pattern = pattern;
+            this.center = center;
+            this.facing = facing;
+            // checked alone through the pattern itself, before anything runs concurrently
+            this.expected = pattern.checkPatternAt(world, center, facing) != null;
+        }
+    }
+}
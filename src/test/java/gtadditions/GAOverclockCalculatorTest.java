@@ -0,0 +1,92 @@
+package gtadditions;
+
+import gregicadditions.GAValues;
+import gregicadditions.capabilities.impl.GAOverclockCalculator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GAOverclockCalculatorTest {
+
+    /**
+     * The overclocking loop the calculator replaced, kept as the reference.
+     */
+    private static int[] overclockByLoop(int EUt, int tier, int duration) {
+        boolean negativeEU = EUt < 0;
+        if (GAValues.V[tier] <= EUt || tier == 0)
+            return new int[]{EUt, duration};
+        if (negativeEU)
+            EUt = -EUt;
+        if (EUt <= 16) {
+            int multiplier = EUt <= 8 ? tier : tier - 1;
+            int resultEUt = EUt * (1 << multiplier) * (1 << multiplier);
+            int resultDuration = duration / (1 << multiplier);
+            return new int[]{negativeEU ? -resultEUt : resultEUt, resultDuration};
+        } else {
+            int resultEUt = EUt;
+            double resultDuration = duration;
+            while (resultDuration >= 3 && resultEUt <= GAValues.V[tier - 1]) {
+                resultEUt *= 4;
+                resultDuration /= 2.8;
+            }
+            return new int[]{negativeEU ? -resultEUt : resultEUt, (int) Math.ceil(resultDuration)};
+        }
+    }
+
+    @Test
+    public void matchesLoopForEveryTier() {
+        List<Integer> EUts = new ArrayList<>();
+        for (int i = -100; i <= 600; i++) {
+            EUts.add(i);
+        }
+        for (int shift = 0; shift < 31; shift++) {
+            EUts.add(1 << shift);
+            EUts.add((1 << shift) - 1);
+            EUts.add((1 << shift) + 1);
+            EUts.add(-(1 << shift));
+        }
+        for (int voltage : GAValues.V) {
+            EUts.add(voltage);
+            EUts.add(voltage - 1);
+            EUts.add(voltage / 4 + 1);
+        }
+        EUts.add(Integer.MIN_VALUE);
+        EUts.add(Integer.MAX_VALUE);
+
+        List<Integer> durations = new ArrayList<>();
+        for (int i = -2; i <= 1000; i++) {
+            durations.add(i);
+        }
+        Random random = new Random(2021);
+        for (int i = 0; i < 200; i++) {
+            durations.add(random.nextInt(Integer.MAX_VALUE));
+        }
+        durations.add(Integer.MAX_VALUE);
+
+        GAOverclockCalculator calculator = new GAOverclockCalculator();
+        for (int tier = 0; tier < GAValues.V.length; tier++) {
+            for (int EUt : EUts) {
+                for (int duration : durations) {
+                    int[] expected = overclockByLoop(EUt, tier, duration);
+                    calculator.calculate(EUt, duration, tier);
+                    String message = "EUt " + EUt + ", duration " + duration + ", tier " + tier;
+                    assertEquals(message, expected[0], calculator.getResultEUt());
+                    assertEquals(message, expected[1], calculator.getResultDuration());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resultArrayIsReused() {
+        GAOverclockCalculator calculator = new GAOverclockCalculator();
+        int[] first = calculator.calculate(30, 200, GAValues.HV);
+        int[] second = calculator.calculate(120, 400, GAValues.EV);
+        assertSame(first, second);
+        assertArrayEquals(overclockByLoop(120, GAValues.EV, 400), second);
+    }
+}
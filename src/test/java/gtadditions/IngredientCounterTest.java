@@ -0,0 +1,106 @@
+package gtadditions;
+
+import gregicadditions.recipes.IngredientCounter;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMaps;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IngredientCounterTest {
+
+    private static final int BUSES = 16;
+    private static final int SLOTS = 16;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    /**
+     * Counting a full set of buses must give the same totals as merging stacks with {@link ItemStack#areItemsEqual}.
+     */
+    @Test
+    public void countsMatchLinearMerge() {
+        ItemStack[] kinds = {
+                new ItemStack(Blocks.COBBLESTONE),
+                new ItemStack(Blocks.WOOL, 1, 0),
+                new ItemStack(Blocks.WOOL, 1, 5),
+                new ItemStack(Items.DYE, 1, 4),
+                new ItemStack(Items.IRON_INGOT)
+        };
+        IngredientCounter counter = new IngredientCounter();
+        List<ItemStack> merged = new ArrayList<>();
+        for (int bus = 0; bus < BUSES; bus++) {
+            ItemStackHandler handler = new ItemStackHandler(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                // leave some slots empty
+                if ((bus + slot) % 7 == 0)
+                    continue;
+                ItemStack stack = kinds[(bus * 3 + slot) % kinds.length].copy();
+                stack.setCount(1 + (bus + slot) % 64);
+                handler.setStackInSlot(slot, stack);
+                mergeLinear(merged, stack);
+            }
+            counter.countItems(handler);
+        }
+
+        assertEquals(merged.size(), counter.getItemTypes());
+        for (ItemStack expected : merged) {
+            assertEquals(expected.getCount(), counter.getItemCount(expected));
+        }
+        assertEquals(0, counter.getItemCount(new ItemStack(Blocks.WOOL, 1, 9)));
+
+        counter.clear();
+        assertEquals(0, counter.getItemTypes());
+        assertEquals(0, counter.getItemCount(kinds[0]));
+    }
+
+    @Test
+    public void ratiosAreCapped() {
+        Recipe recipe = RecipeMaps.MIXER_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE, 3))
+                .fluidInputs(new FluidStack(FluidRegistry.WATER, 250))
+                .outputs(new ItemStack(Blocks.GRAVEL))
+                .EUt(8).duration(20)
+                .build().getResult();
+
+        ItemStackHandler bus = new ItemStackHandler(4);
+        bus.setStackInSlot(0, new ItemStack(Blocks.COBBLESTONE, 64));
+        bus.setStackInSlot(2, new ItemStack(Blocks.COBBLESTONE, 20));
+        FluidTank first = new FluidTank(new FluidStack(FluidRegistry.WATER, 1000), 16000);
+        FluidTank second = new FluidTank(new FluidStack(FluidRegistry.WATER, 500), 16000);
+
+        IngredientCounter counter = new IngredientCounter();
+        counter.countItems(bus);
+        counter.countFluids(new FluidTankList(false, first, second));
+
+        assertEquals(84, counter.getItemCount(new ItemStack(Blocks.COBBLESTONE)));
+        assertEquals(1500, counter.getFluidAmount(FluidRegistry.WATER));
+        assertEquals(28, counter.getMinRatioItem(recipe, 64));
+        assertEquals(16, counter.getMinRatioItem(recipe, 16));
+        assertEquals(6, counter.getMinRatioFluid(recipe, 64));
+    }
+
+    static void mergeLinear(List<ItemStack> merged, ItemStack stack) {
+        for (ItemStack existing : merged) {
+            if (ItemStack.areItemsEqual(existing, stack)) {
+                existing.grow(stack.getCount());
+                return;
+            }
+        }
+        merged.add(stack.copy());
+    }
+}
@@ -0,0 +1,165 @@
+package gtadditions;
+
+import gregicadditions.capabilities.impl.InputBusGroups;
+import gregicadditions.recipes.GARecipeMaps;
+import gregicadditions.recipes.IngredientCounter;
+import gregicadditions.utils.Tuple;
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InputBusGroupsTest {
+
+    private static final long VOLTAGE = 32;
+    private static final int MACHINES = 16;
+    private static CountingRecipeMap COUNTING_MAP;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        GARecipeMaps.CLUSTER_MILL_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Items.BRICK))
+                .outputs(new ItemStack(Blocks.BRICK_BLOCK))
+                .EUt(30).duration(20)
+                .buildAndRegister();
+        COUNTING_MAP = new CountingRecipeMap();
+        COUNTING_MAP.recipeBuilder()
+                .inputs(new ItemStack(Items.BRICK))
+                .outputs(new ItemStack(Blocks.BRICK_BLOCK))
+                .EUt(30).duration(20)
+                .buildAndRegister();
+    }
+
+    @Test
+    public void busesWithTheSameKindsAreGrouped() {
+        ItemStackHandler first = bus(new ItemStack(Items.BRICK, 5), new ItemStack(Blocks.DIRT, 1));
+        // same kinds in other slots and amounts
+        ItemStackHandler second = bus(ItemStack.EMPTY, new ItemStack(Blocks.DIRT, 40), new ItemStack(Items.BRICK, 2), new ItemStack(Items.BRICK, 7));
+        ItemStackHandler brickOnly = bus(new ItemStack(Items.BRICK, 3));
+        ItemStackHandler empty = bus(ItemStack.EMPTY, ItemStack.EMPTY);
+        ItemStackHandler otherMeta = bus(new ItemStack(Blocks.DIRT, 1, 1), new ItemStack(Items.BRICK, 5));
+
+        InputBusGroups groups = new InputBusGroups();
+        groups.group(Arrays.asList(first, brickOnly, empty, second, otherMeta));
+        assertEquals(3, groups.getGroupCount());
+        assertEquals(Arrays.asList(first, second), groups.getBuses(0));
+        assertEquals(Arrays.asList(brickOnly), groups.getBuses(1));
+        assertEquals(Arrays.asList(otherMeta), groups.getBuses(2));
+        // a bus alone is searched as it is
+        assertSame(brickOnly, groups.getInventory(1));
+        assertEquals(first.getSlots() + second.getSlots(), groups.getInventory(0).getSlots());
+    }
+
+    @Test
+    public void tagsKeepBusesApart() {
+        ItemStack tagged = new ItemStack(Items.BRICK);
+        NBTTagCompound tag = new NBTTagCompound();
+        tag.setInteger("Marked", 1);
+        tagged.setTagCompound(tag);
+
+        InputBusGroups groups = new InputBusGroups();
+        groups.group(Arrays.asList(bus(new ItemStack(Items.BRICK)), bus(tagged), bus(tagged.copy())));
+        assertEquals(2, groups.getGroupCount());
+        assertEquals(2, groups.getBuses(1).size());
+    }
+
+    /**
+     * The group's items are pooled so the parallel count covers every bus holding the inputs, up to the machine limit.
+     */
+    @Test
+    public void groupedBusesAddUpToOneBatch() {
+        List<IItemHandlerModifiable> buses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            buses.add(bus(new ItemStack(Items.BRICK, 5)));
+        }
+        InputBusGroups groups = new InputBusGroups();
+        groups.group(buses);
+        assertEquals(1, groups.getGroupCount());
+
+        Recipe recipe = GARecipeMaps.CLUSTER_MILL_RECIPES.findRecipe(VOLTAGE, groups.getInventory(0), new FluidTankList(false), 0);
+        assertNotNull(recipe);
+        IngredientCounter counter = new IngredientCounter();
+        counter.countItems(groups.getInventory(0));
+        assertEquals(15, counter.getMinRatioItem(recipe, MACHINES));
+
+        buses.add(bus(new ItemStack(Items.BRICK, 64)));
+        groups.group(buses);
+        counter.clear();
+        counter.countItems(groups.getInventory(0));
+        assertEquals(MACHINES, counter.getMinRatioItem(recipe, MACHINES));
+    }
+
+    /**
+     * Sixteen buses holding four mixes, none of which has a recipe: the recipe map is searched once per group.
+     */
+    @Test
+    public void searchesOncePerGroup() {
+        ItemStack[] mixes = {
+                new ItemStack(Blocks.DIRT), new ItemStack(Blocks.SAND), new ItemStack(Blocks.GRAVEL), new ItemStack(Blocks.CLAY)
+        };
+        List<IItemHandlerModifiable> buses = new ArrayList<>();
+        for (int i = 0; i < MACHINES; i++) {
+            ItemStack stack = mixes[i % mixes.length].copy();
+            stack.setCount(1 + i);
+            buses.add(bus(stack, new ItemStack(Items.STICK, 1 + i % 3)));
+        }
+        FluidTankList fluids = new FluidTankList(false);
+        InputBusGroups groups = new InputBusGroups();
+        groups.group(buses);
+
+        COUNTING_MAP.searches = 0;
+        assertNull(groups.findRecipe(COUNTING_MAP, VOLTAGE, fluids));
+        assertEquals(4, COUNTING_MAP.searches);
+
+        // the search stops at the first group with a recipe
+        IItemHandlerModifiable brickBus = bus(new ItemStack(Items.BRICK, 2));
+        buses.add(0, brickBus);
+        groups.group(buses);
+        COUNTING_MAP.searches = 0;
+        Tuple<Recipe, IItemHandlerModifiable> found = groups.findRecipe(COUNTING_MAP, VOLTAGE, fluids);
+        assertNotNull(found);
+        assertSame(brickBus, found.getValue());
+        assertEquals(1, COUNTING_MAP.searches);
+    }
+
+    static ItemStackHandler bus(ItemStack... stacks) {
+        ItemStackHandler handler = new ItemStackHandler(stacks.length);
+        for (int i = 0; i < stacks.length; i++) {
+            handler.setStackInSlot(i, stacks[i]);
+        }
+        return handler;
+    }
+
+    private static class CountingRecipeMap extends RecipeMap<SimpleRecipeBuilder> {
+
+        private int searches = 0;
+
+        CountingRecipeMap() {
+            super("input_bus_groups_test", 1, 2, 1, 1, 0, 0, 0, 0, new SimpleRecipeBuilder());
+        }
+
+        @Nullable
+        @Override
+        public Recipe findRecipe(long voltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs, int outputFluidTankCapacity) {
+            searches++;
+            return super.findRecipe(voltage, inputs, fluidInputs, outputFluidTankCapacity);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package gtadditions;
+
+import gregicadditions.capabilities.impl.CountingItemStackHandler;
+import gregicadditions.capabilities.impl.ItemHandlerChangeTracker;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMaps;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ItemHandlerChangeTrackerTest {
+
+    private static Recipe recipe;
+    private static final FluidTankList NO_FLUIDS = new FluidTankList(false);
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        recipe = RecipeMaps.MACERATOR_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE, 4))
+                .outputs(new ItemStack(Blocks.GRAVEL))
+                .EUt(2).duration(40)
+                .build().getResult();
+    }
+
+    /**
+     * An insert into an idle bus must trigger a search that finds the recipe, and so must an extract after it.
+     */
+    @Test
+    public void countingBusPicksUpInsertAndExtract() {
+        ItemHandlerChangeTracker tracker = new ItemHandlerChangeTracker();
+        tracker.setSize(2);
+        CountingItemStackHandler bus = new CountingItemStackHandler(4);
+        CountingItemStackHandler otherBus = new CountingItemStackHandler(4);
+
+        assertTrue("A bus is dirty the first time it is seen", tracker.checkDirty(0, bus));
+        assertTrue(tracker.checkDirty(1, otherBus));
+        assertFalse(tracker.checkDirty(0, bus));
+
+        bus.insertItem(0, new ItemStack(Blocks.COBBLESTONE, 3), false);
+        assertNull("Not enough cobblestone yet", searchIfDirty(tracker, 0, bus));
+        assertFalse("Other bus was not touched", tracker.checkDirty(1, otherBus));
+
+        bus.insertItem(1, new ItemStack(Blocks.COBBLESTONE, 1), false);
+        assertSame(recipe, searchIfDirty(tracker, 0, bus));
+
+        bus.insertItem(2, new ItemStack(Blocks.COBBLESTONE, 8), true);
+        assertFalse("Simulated inserts change nothing", tracker.checkDirty(0, bus));
+
+        bus.extractItem(0, 1, false);
+        assertTrue(tracker.checkDirty(0, bus));
+        assertFalse(recipe.matches(false, bus, NO_FLUIDS));
+
+        bus.extractItem(1, 1, true);
+        assertFalse("Simulated extracts change nothing", tracker.checkDirty(0, bus));
+
+        bus.setStackInSlot(3, new ItemStack(Blocks.COBBLESTONE, 16));
+        assertSame(recipe, searchIfDirty(tracker, 0, bus));
+    }
+
+    /**
+     * A container click merging into a slot grows the stack in place without going through the handler,
+     * the bus must still be dirty although its counter did not move.
+     */
+    @Test
+    public void countingBusPicksUpStackGrownInPlace() {
+        ItemHandlerChangeTracker tracker = new ItemHandlerChangeTracker();
+        tracker.setSize(1);
+        CountingItemStackHandler bus = new CountingItemStackHandler(4);
+        bus.insertItem(0, new ItemStack(Blocks.COBBLESTONE, 3), false);
+        assertNull(searchIfDirty(tracker, 0, bus));
+
+        int modificationCount = bus.getModificationCount();
+        bus.getStackInSlot(0).grow(1);
+        assertEquals(modificationCount, bus.getModificationCount());
+        assertSame(recipe, searchIfDirty(tracker, 0, bus));
+        assertFalse(tracker.checkDirty(0, bus));
+    }
+
+    /**
+     * Handlers that do not count their modifications must still be picked up, including stacks shrunk in place.
+     */
+    @Test
+    public void plainHandlerFallsBackToSlots() {
+        ItemHandlerChangeTracker tracker = new ItemHandlerChangeTracker();
+        tracker.setSize(1);
+        ItemStackHandler bus = new ItemStackHandler(4);
+
+        assertTrue(tracker.checkDirty(0, bus));
+        assertFalse(tracker.checkDirty(0, bus));
+
+        bus.insertItem(0, new ItemStack(Blocks.COBBLESTONE, 4), false);
+        assertSame(recipe, searchIfDirty(tracker, 0, bus));
+
+        bus.getStackInSlot(0).shrink(1);
+        assertTrue(tracker.checkDirty(0, bus));
+        assertFalse(recipe.matches(false, bus, NO_FLUIDS));
+
+        bus.insertItem(0, new ItemStack(Blocks.COBBLESTONE, 1), false);
+        assertSame(recipe, searchIfDirty(tracker, 0, bus));
+
+        bus.extractItem(0, 4, false);
+        assertTrue(tracker.checkDirty(0, bus));
+        assertFalse(tracker.checkDirty(0, bus));
+    }
+
+    @Test
+    public void markedAndReplacedBusesAreDirty() {
+        ItemHandlerChangeTracker tracker = new ItemHandlerChangeTracker();
+        tracker.setSize(1);
+        CountingItemStackHandler bus = new CountingItemStackHandler(4);
+        bus.setStackInSlot(0, new ItemStack(Blocks.COBBLESTONE, 8));
+        tracker.checkDirty(0, bus);
+
+        // consuming a recipe shrinks the stacks in place, the counter does not see it
+        assertTrue(recipe.matches(true, bus, NO_FLUIDS));
+        tracker.markDirty(0);
+        assertTrue(tracker.checkDirty(0, bus));
+        assertFalse(tracker.checkDirty(0, bus));
+
+        CountingItemStackHandler newBus = new CountingItemStackHandler(4);
+        assertTrue("A different bus at the same index is dirty", tracker.checkDirty(0, newBus));
+
+        tracker.setSize(2);
+        assertTrue("Resizing forgets every bus", tracker.checkDirty(0, newBus));
+    }
+
+    private static Recipe searchIfDirty(ItemHandlerChangeTracker tracker, int index, IItemHandlerModifiable bus) {
+        assertTrue("Expected the change to mark the bus dirty", tracker.checkDirty(index, bus));
+        return recipe.matches(false, bus, NO_FLUIDS) ? recipe : null;
+    }
+}
@@ -0,0 +1,227 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.miner.MetaTileEntityLargeMiner;
+import gregicadditions.machines.multi.miner.Miner;
+import gregicadditions.machines.multi.miner.MinerChunkQueue;
+import gregicadditions.machines.multi.miner.OreClassificationCache;
+import gregtech.api.unification.OreDictUnifier;
+import gregtech.api.unification.material.Materials;
+import gregtech.api.unification.ore.OrePrefix;
+import gregtech.api.util.world.DummyWorld;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LargeMinerChunkLoadingTest {
+
+    private static final int TOP = 40;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        OreDictUnifier.registerOre(new ItemStack(Blocks.GOLD_ORE), OrePrefix.ore, Materials.Gold);
+        OreClassificationCache.invalidate();
+    }
+
+    /**
+     * A world holding only the chunks put in it, where anything that would load a chunk or look a block up through the world fails.
+     */
+    private static final class StubWorld extends DummyWorld {
+
+        private final Long2ObjectMap<Chunk> loaded = new Long2ObjectOpenHashMap<>();
+        private final IChunkProvider chunkProvider = new IChunkProvider() {
+            @Nullable
+            @Override
+            public Chunk getLoadedChunk(int x, int z) {
+                return loaded.get(ChunkPos.asLong(x, z));
+            }
+
+            @Override
+            public Chunk provideChunk(int x, int z) {
+                throw new AssertionError("chunk " + x + ", " + z + " loaded");
+            }
+
+            @Override
+            public boolean tick() {
+                return false;
+            }
+
+            @Override
+            public String makeString() {
+                return "StubChunkProvider";
+            }
+
+            @Override
+            public boolean isChunkGeneratedAt(int x, int z) {
+                return loaded.containsKey(ChunkPos.asLong(x, z));
+            }
+        };
+        private final boolean constructed;
+
+        private StubWorld() {
+            constructed = true;
+        }
+
+        @Override
+        public IChunkProvider getChunkProvider() {
+            return constructed ? chunkProvider : super.getChunkProvider();
+        }
+
+        @Override
+        public Chunk getChunk(int chunkX, int chunkZ) {
+            if (constructed)
+                throw new AssertionError("chunk " + chunkX + ", " + chunkZ + " loaded through the world");
+            return super.getChunk(chunkX, chunkZ);
+        }
+
+        @Override
+        public IBlockState getBlockState(BlockPos pos) {
+            if (constructed)
+                throw new AssertionError("block state of " + pos + " looked up through the world");
+            return super.getBlockState(pos);
+        }
+    }
+
+    @Test
+    public void chunksToMineAreTheSquareAroundTheController() {
+        BlockPos controllerPos = new BlockPos(-37, 70, 100);
+        int side = 5;
+        long[] chunks = MetaTileEntityLargeMiner.getChunksToMine(controllerPos, side);
+        assertEquals(side * side, chunks.length);
+        ChunkPos controllerChunk = new ChunkPos(controllerPos);
+        int index = 0;
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                assertEquals(ChunkPos.asLong(controllerChunk.x - 2 + i, controllerChunk.z - 2 + j), chunks[index++]);
+            }
+        }
+    }
+
+    /**
+     * Nine chunks with ores at four heights, placed through an ordinary world the stub world takes its chunks from.
+     */
+    private static List<BlockPos> placeOres(World source, long[] chunks) {
+        List<BlockPos> ores = new ArrayList<>();
+        for (int i = 0; i < chunks.length; i++) {
+            ChunkPos chunkPos = new ChunkPos((int) chunks[i], (int) (chunks[i] >> 32));
+            source.setBlockState(new BlockPos(chunkPos.getXStart(), 0, chunkPos.getZStart()), Blocks.STONE.getDefaultState());
+            for (int y = 35; y > 0; y -= 10) {
+                BlockPos orePos = new BlockPos(chunkPos.getXStart() + i, y, chunkPos.getZStart() + 3);
+                source.setBlockState(orePos, Blocks.GOLD_ORE.getDefaultState());
+                ores.add(orePos);
+            }
+        }
+        return ores;
+    }
+
+    /**
+     * Mines as the update of the Large Miner does, until no chunk left is loaded.
+     */
+    private static void mine(MinerChunkQueue queue, Miner miner, World source, AtomicLong x, AtomicLong y, AtomicLong z, List<BlockPos> mined, int maxCalls) {
+        for (int call = 0; call < maxCalls && !queue.isDone(); call++) {
+            Chunk chunk = queue.getLoadedChunk(miner.getWorld(), x, y, z, TOP);
+            if (chunk == null)
+                return;
+            Miner.getBlockToMinePerChunk(miner, x, y, z, chunk, (blockPos, blockState) -> {
+                // the state handed over is the one in the chunk, no second lookup needed
+                assertEquals(source.getBlockState(blockPos), blockState);
+                mined.add(blockPos);
+            });
+            if (y.get() < 0)
+                queue.finishCurrent(x, y, z, TOP);
+        }
+    }
+
+    @Test
+    public void unloadedChunksArePassedOverAndMinedLater() {
+        long[] chunks = MetaTileEntityLargeMiner.getChunksToMine(new BlockPos(8, TOP, 8), 3);
+        World source = new DummyWorld();
+        List<BlockPos> ores = placeOres(source, chunks);
+        StubWorld world = new StubWorld();
+        for (int i = 0; i < chunks.length; i++) {
+            if (i % 3 != 1)
+                world.loaded.put(chunks[i], source.getChunk((int) chunks[i], (int) (chunks[i] >> 32)));
+        }
+
+        MinerChunkQueue queue = new MinerChunkQueue();
+        queue.init(chunks);
+        AtomicLong x = new AtomicLong(Long.MAX_VALUE), y = new AtomicLong(Long.MAX_VALUE), z = new AtomicLong(Long.MAX_VALUE);
+        Miner miner = new TestMiner(world, 64);
+        List<BlockPos> mined = new ArrayList<>();
+        mine(queue, miner, source, x, y, z, mined, 10_000);
+        assertFalse(queue.isDone());
+        assertEquals(6, queue.getCurrent());
+        assertEquals(6 * 4, mined.size());
+
+        // nothing is loaded, the miner waits
+        assertNull(queue.getLoadedChunk(world, x, y, z, TOP));
+
+        for (int i = 1; i < chunks.length; i += 3) {
+            world.loaded.put(chunks[i], source.getChunk((int) chunks[i], (int) (chunks[i] >> 32)));
+        }
+        mine(queue, miner, source, x, y, z, mined, 10_000);
+        assertTrue(queue.isDone());
+        assertEquals(new HashSet<>(ores), new HashSet<>(mined));
+        assertEquals(ores.size(), mined.size());
+    }
+
+    /**
+     * A chunk unloaded halfway through is left for later and resumed where it got to, also across a save.
+     */
+    @Test
+    public void chunkUnloadedHalfwayResumes() {
+        long[] chunks = MetaTileEntityLargeMiner.getChunksToMine(new BlockPos(8, TOP, 8), 3);
+        World source = new DummyWorld();
+        List<BlockPos> ores = placeOres(source, chunks);
+        StubWorld world = new StubWorld();
+        for (long chunkPos : chunks) {
+            world.loaded.put(chunkPos, source.getChunk((int) chunkPos, (int) (chunkPos >> 32)));
+        }
+
+        MinerChunkQueue queue = new MinerChunkQueue();
+        queue.init(chunks);
+        AtomicLong x = new AtomicLong(Long.MAX_VALUE), y = new AtomicLong(Long.MAX_VALUE), z = new AtomicLong(Long.MAX_VALUE);
+        Miner miner = new TestMiner(world, 256);
+        List<BlockPos> mined = new ArrayList<>();
+        // down past the first two ores of the first chunk
+        mine(queue, miner, source, x, y, z, mined, 20);
+        assertEquals(2, mined.size());
+        assertEquals(0, queue.getCurrent());
+
+        // the next chunk is mined in its place, down past three of its ores
+        world.loaded.remove(chunks[0]);
+        mine(queue, miner, source, x, y, z, mined, 30);
+        assertEquals(5, mined.size());
+        assertEquals(ores.get(4), mined.get(2));
+        assertEquals(0, queue.getCurrent());
+
+        NBTTagCompound data = new NBTTagCompound();
+        queue.writeToNBT(data);
+        MinerChunkQueue loaded = new MinerChunkQueue();
+        loaded.readFromNBT(data);
+
+        world.loaded.put(chunks[0], source.getChunk((int) chunks[0], (int) (chunks[0] >> 32)));
+        mine(loaded, miner, source, x, y, z, mined, 10_000);
+        assertTrue(loaded.isDone());
+        assertEquals(new HashSet<>(ores), new HashSet<>(mined));
+        assertEquals(ores.size(), mined.size());
+    }
+}
@@ -0,0 +1,188 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.miner.MinedDropBuffer;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MinedDropBufferTest {
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    private static ItemStack[] randomDrops(Random random) {
+        Item[] items = {Item.getItemFromBlock(Blocks.COBBLESTONE), Items.REDSTONE, Items.DIAMOND, Item.getItemFromBlock(Blocks.GRAVEL), Items.IRON_PICKAXE};
+        ItemStack[] drops = new ItemStack[1 + random.nextInt(3)];
+        for (int i = 0; i < drops.length; i++) {
+            Item item = items[random.nextInt(items.length)];
+            drops[i] = new ItemStack(item, item.getItemStackLimit() == 1 ? 1 : 1 + random.nextInt(12));
+        }
+        return drops;
+    }
+
+    private static List<ItemStack> copy(ItemStack[] drops) {
+        List<ItemStack> list = new ArrayList<>();
+        for (ItemStack drop : drops) {
+            list.add(drop.copy());
+        }
+        return list;
+    }
+
+    /**
+     * A block is mined when all of its drops fit into a copy of the inventory, which then gets them for real.
+     */
+    private static boolean mineOneByOne(ItemStackHandler inventory, ItemStack[] drops) {
+        ItemStackHandler simulated = new ItemStackHandler(inventory.getSlots());
+        for (int slot = 0; slot < inventory.getSlots(); slot++) {
+            simulated.setStackInSlot(slot, inventory.getStackInSlot(slot).copy());
+        }
+        for (ItemStack drop : drops) {
+            if (!ItemHandlerHelper.insertItemStacked(simulated, drop.copy(), false).isEmpty())
+                return false;
+        }
+        for (ItemStack drop : drops) {
+            ItemHandlerHelper.insertItemStacked(inventory, drop.copy(), false);
+        }
+        return true;
+    }
+
+    private static Map<Item, Integer> count(IItemHandler inventory, List<ItemStack> extra) {
+        Map<Item, Integer> counts = new HashMap<>();
+        for (int slot = 0; slot < inventory.getSlots(); slot++) {
+            ItemStack stack = inventory.getStackInSlot(slot);
+            if (!stack.isEmpty())
+                counts.merge(stack.getItem(), stack.getCount(), Integer::sum);
+        }
+        for (ItemStack stack : extra) {
+            counts.merge(stack.getItem(), stack.getCount(), Integer::sum);
+        }
+        return counts;
+    }
+
+    private static Map<Item, Integer> count(List<ItemStack[]> minedDrops) {
+        Map<Item, Integer> counts = new HashMap<>();
+        for (ItemStack[] drops : minedDrops) {
+            for (ItemStack stack : drops) {
+                counts.merge(stack.getItem(), stack.getCount(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Cycles of many blocks into an inventory that fills up part way through: the same blocks are mined as one by one,
+     * and the inventory ends up holding exactly the drops of the mined blocks.
+     */
+    @Test
+    public void outputFillingUpMidBatch() {
+        Random random = new Random(5);
+        ItemStackHandler inventory = new ItemStackHandler(6);
+        ItemStackHandler reference = new ItemStackHandler(6);
+        MinedDropBuffer buffer = new MinedDropBuffer();
+        List<ItemStack[]> mined = new ArrayList<>();
+        int refused = 0;
+        for (int cycle = 0; cycle < 30; cycle++) {
+            buffer.begin(inventory);
+            for (int block = 0; block < 8; block++) {
+                ItemStack[] drops = randomDrops(random);
+                boolean taken = buffer.offer(copy(drops));
+                assertEquals(mineOneByOne(reference, drops), taken);
+                if (taken) {
+                    mined.add(drops);
+                } else {
+                    refused++;
+                }
+            }
+            buffer.flush();
+            assertTrue(buffer.isEmpty());
+            assertEquals(count(mined), count(inventory, buffer.getDrops()));
+        }
+        assertTrue(refused > 0);
+        // merged, the stacks may sit in other slots than one by one
+        assertEquals(count(reference, new ArrayList<>()), count(inventory, new ArrayList<>()));
+    }
+
+    @Test
+    public void blockIsTakenWholeOrNotAtAll() {
+        ItemStackHandler inventory = new ItemStackHandler(2);
+        inventory.setStackInSlot(0, new ItemStack(Blocks.COBBLESTONE, 60));
+        MinedDropBuffer buffer = new MinedDropBuffer();
+        buffer.begin(inventory);
+        // the cobblestone would fit, the redstone would take the last slot the diamonds need
+        assertFalse(buffer.offer(Arrays.asList(new ItemStack(Blocks.COBBLESTONE, 4), new ItemStack(Items.REDSTONE, 2), new ItemStack(Items.DIAMOND))));
+        assertTrue(buffer.offer(Arrays.asList(new ItemStack(Blocks.COBBLESTONE, 3), new ItemStack(Items.DIAMOND, 2))));
+        assertTrue(buffer.offer(Arrays.asList(new ItemStack(Blocks.COBBLESTONE, 1), new ItemStack(Items.DIAMOND, 5))));
+        assertFalse(buffer.offer(Arrays.asList(new ItemStack(Blocks.COBBLESTONE, 1))));
+        assertTrue(buffer.flush());
+        assertEquals(64, inventory.getStackInSlot(0).getCount());
+        assertEquals(7, inventory.getStackInSlot(1).getCount());
+        assertTrue(buffer.isEmpty());
+    }
+
+    /**
+     * The inventory filling up behind the buffer's back between taking the drops and inserting them:
+     * what does not fit is kept for the next cycle, which takes nothing else until it fits.
+     */
+    @Test
+    public void leftoversAreKept() {
+        ItemStackHandler inventory = new ItemStackHandler(1);
+        MinedDropBuffer buffer = new MinedDropBuffer();
+        buffer.begin(inventory);
+        assertTrue(buffer.offer(Arrays.asList(new ItemStack(Items.REDSTONE, 40))));
+        inventory.setStackInSlot(0, new ItemStack(Items.REDSTONE, 50));
+        assertTrue(buffer.flush());
+        assertEquals(64, inventory.getStackInSlot(0).getCount());
+        assertEquals(1, buffer.getDrops().size());
+        assertEquals(26, buffer.getDrops().get(0).getCount());
+
+        buffer.begin(inventory);
+        assertFalse(buffer.offer(Arrays.asList(new ItemStack(Items.DIAMOND))));
+        assertFalse(buffer.flush());
+        assertEquals(26, buffer.getDrops().get(0).getCount());
+
+        inventory.extractItem(0, 64, false);
+        buffer.begin(inventory);
+        assertTrue(buffer.offer(Arrays.asList(new ItemStack(Items.REDSTONE, 38))));
+        assertFalse(buffer.offer(Arrays.asList(new ItemStack(Items.REDSTONE, 1))));
+        assertTrue(buffer.flush());
+        assertEquals(64, inventory.getStackInSlot(0).getCount());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void leftoversSurviveSaving() {
+        ItemStackHandler inventory = new ItemStackHandler(1);
+        MinedDropBuffer buffer = new MinedDropBuffer();
+        buffer.begin(inventory);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(Arrays.asList(new ItemStack(Blocks.COBBLESTONE, 6))));
+        }
+        assertFalse(buffer.offer(Arrays.asList(new ItemStack(Items.IRON_PICKAXE))));
+        inventory.setStackInSlot(0, new ItemStack(Items.DIAMOND));
+        buffer.flush();
+
+        NBTTagList tag = buffer.serializeNBT();
+        MinedDropBuffer loaded = new MinedDropBuffer();
+        loaded.deserializeNBT(tag);
+        assertEquals(1, loaded.getDrops().size());
+        assertTrue(ItemStack.areItemStacksEqual(new ItemStack(Blocks.COBBLESTONE, 60), loaded.getDrops().get(0)));
+    }
+}
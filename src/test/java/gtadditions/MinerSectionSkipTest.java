@@ -0,0 +1,119 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.miner.Miner;
+import gregicadditions.machines.multi.miner.OreClassificationCache;
+import gregtech.api.unification.OreDictUnifier;
+import gregtech.api.unification.material.Materials;
+import gregtech.api.unification.ore.OrePrefix;
+import gregtech.api.util.world.DummyWorld;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class MinerSectionSkipTest {
+
+    private static final int TOP = 100;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        OreDictUnifier.registerOre(new ItemStack(Blocks.GOLD_ORE), OrePrefix.ore, Materials.Gold);
+        OreDictUnifier.registerOre(new ItemStack(Blocks.IRON_ORE), OrePrefix.ore, Materials.Iron);
+        OreClassificationCache.invalidate();
+    }
+
+    /**
+     * Stone up to the top of the scan with a vein in one section and a few stray ores in another.
+     */
+    static World syntheticWorld(ChunkPos chunkPos, int strayOres) {
+        World world = new DummyWorld();
+        Random random = new Random(11);
+        for (int y = 0; y <= TOP; y++) {
+            for (int z = chunkPos.getZStart(); z <= chunkPos.getZEnd(); z++) {
+                for (int x = chunkPos.getXStart(); x <= chunkPos.getXEnd(); x++) {
+                    world.setBlockState(new BlockPos(x, y, z), Blocks.STONE.getDefaultState());
+                }
+            }
+        }
+        for (int i = 0; i < 40; i++) {
+            world.setBlockState(new BlockPos(chunkPos.getXStart() + random.nextInt(6), 20 + random.nextInt(6), chunkPos.getZStart() + random.nextInt(6)), Blocks.IRON_ORE.getDefaultState());
+        }
+        for (int i = 0; i < strayOres; i++) {
+            world.setBlockState(new BlockPos(chunkPos.getXStart() + random.nextInt(16), 64 + random.nextInt(16), chunkPos.getZStart() + random.nextInt(16)), Blocks.GOLD_ORE.getDefaultState());
+        }
+        return world;
+    }
+
+    /**
+     * The block by block scan the section skipping replaces.
+     */
+    static List<BlockPos> scanEveryBlock(World world, ChunkPos chunkPos) {
+        List<BlockPos> blocks = new ArrayList<>();
+        for (int y = TOP; y >= 0; y--) {
+            for (int z = chunkPos.getZStart(); z <= chunkPos.getZEnd(); z++) {
+                for (int x = chunkPos.getXStart(); x <= chunkPos.getXEnd(); x++) {
+                    BlockPos blockPos = new BlockPos(x, y, z);
+                    if (world.getTileEntity(blockPos) == null && Miner.isOre(world.getBlockState(blockPos).getBlock()))
+                        blocks.add(blockPos);
+                }
+            }
+        }
+        return blocks;
+    }
+
+    static List<BlockPos> scan(Miner miner, ChunkPos chunkPos, int[] calls) {
+        AtomicLong x = new AtomicLong(chunkPos.getXStart());
+        AtomicLong y = new AtomicLong(TOP);
+        AtomicLong z = new AtomicLong(chunkPos.getZStart());
+        List<BlockPos> blocks = new ArrayList<>();
+        while (y.get() >= 0) {
+            blocks.addAll(Miner.getBlockToMinePerChunk(miner, x, y, z, chunkPos));
+            calls[0]++;
+        }
+        return blocks;
+    }
+
+    @Test
+    public void findsTheSameOres() {
+        ChunkPos chunkPos = new ChunkPos(-3, 5);
+        World world = syntheticWorld(chunkPos, 12);
+        List<BlockPos> expected = scanEveryBlock(world, chunkPos);
+        assertFalse(expected.isEmpty());
+        // one block per call as the chunk miner, and many as the large miners
+        for (long blocksPerCall : new long[]{1, 7, 64, 100_000}) {
+            assertEquals(expected, scan(new TestMiner(world, blocksPerCall), chunkPos, new int[1]));
+        }
+    }
+
+    @Test
+    public void sectionsWithoutOreAreStepsOfOne() {
+        ChunkPos chunkPos = new ChunkPos(0, 0);
+        World world = syntheticWorld(chunkPos, 0);
+        int[] calls = new int[1];
+        scan(new TestMiner(world, 1), chunkPos, calls);
+        // the section with the vein goes block by block, with a step at the end of every row and layer
+        int veinSection = 16 * (16 * 17 + 1);
+        assertTrue(calls[0] < veinSection + 16);
+    }
+
+    @Test
+    public void oreStatesOnlyInThePaletteAreHarmless() {
+        ChunkPos chunkPos = new ChunkPos(2, 2);
+        World world = syntheticWorld(chunkPos, 0);
+        BlockPos stray = new BlockPos(chunkPos.getXStart() + 3, 70, chunkPos.getZStart() + 3);
+        world.setBlockState(stray, Blocks.GOLD_ORE.getDefaultState());
+        world.setBlockState(stray, Blocks.STONE.getDefaultState());
+        assertEquals(scanEveryBlock(world, chunkPos), scan(new TestMiner(world, 64), chunkPos, new int[1]));
+    }
+}
@@ -0,0 +1,185 @@
+package gtadditions;
+
+import gregicadditions.machines.GATileEntities;
+import gregicadditions.machines.MultiRecipesTrait;
+import gregicadditions.recipes.GARecipeMaps;
+import gregicadditions.recipes.RecipeMapInputIndex;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.metatileentity.multiblock.RecipeMapMultiblockController;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.unification.material.Materials;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.EnumDyeColor;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.ItemStackHandler;
+import net.minecraftforge.oredict.OreDictionary;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MultiRecipesTraitTest {
+
+    private static final RecipeMap<?>[] MAPS = {
+            GARecipeMaps.CLUSTER_MILL_RECIPES,
+            GARecipeMaps.SIMPLE_ORE_WASHER_RECIPES,
+            GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES
+    };
+    private static final long VOLTAGE = 512;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        GARecipeMaps.CLUSTER_MILL_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Items.IRON_INGOT))
+                .outputs(new ItemStack(Items.IRON_NUGGET))
+                .EUt(30).duration(20)
+                .buildAndRegister();
+        GARecipeMaps.SIMPLE_ORE_WASHER_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Items.GOLD_NUGGET))
+                .outputs(new ItemStack(Items.GOLD_INGOT))
+                .buildAndRegister();
+        GARecipeMaps.SIMPLE_ORE_WASHER_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.WOOL, 1, OreDictionary.WILDCARD_VALUE))
+                .outputs(new ItemStack(Items.STRING, 4))
+                .buildAndRegister();
+        // the iron ingot is accepted by two maps
+        GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Items.IRON_INGOT))
+                .fluidInputs(Materials.Lava.getFluid(100))
+                .outputs(new ItemStack(Blocks.OBSIDIAN))
+                .EUt(30).duration(20)
+                .buildAndRegister();
+        // the recipes changed without the coremod hook running in tests
+        RecipeMapInputIndex.invalidateAll();
+    }
+
+    @Test
+    public void picksTheMapForTheInputs() {
+        MultiRecipesTrait trait = newTrait();
+        assertEquals(0, trait.getCurrentRecipe());
+
+        // off by default
+        assertNull(trait.dispatch(bus(new ItemStack(Items.GOLD_NUGGET)), tanks(), VOLTAGE));
+        assertEquals(0, trait.getCurrentRecipe());
+
+        trait.setAutoDispatch(true);
+        assertSame(GARecipeMaps.SIMPLE_ORE_WASHER_RECIPES, trait.dispatch(bus(new ItemStack(Items.GOLD_NUGGET)), tanks(), VOLTAGE));
+        assertEquals(1, trait.getCurrentRecipe());
+
+        // any wool color matches the wildcard input
+        assertNull(trait.dispatch(bus(new ItemStack(Blocks.WOOL, 3, EnumDyeColor.BLUE.getMetadata())), tanks(), VOLTAGE));
+        assertEquals(1, trait.getCurrentRecipe());
+
+        // iron and lava together are only taken by the dehydrator
+        assertSame(GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES, trait.dispatch(bus(new ItemStack(Items.IRON_INGOT)), tanks(Materials.Lava.getFluid(1000)), VOLTAGE));
+        assertEquals(2, trait.getCurrentRecipe());
+
+        // iron alone is taken by the current map too, but only the cluster mill has a recipe for it
+        assertSame(GARecipeMaps.CLUSTER_MILL_RECIPES, trait.dispatch(bus(new ItemStack(Items.IRON_INGOT)), tanks(), VOLTAGE));
+        assertEquals(0, trait.getCurrentRecipe());
+
+        // the current map has the recipe, it is kept
+        assertNull(trait.dispatch(bus(new ItemStack(Items.IRON_INGOT)), tanks(), VOLTAGE));
+        assertEquals(0, trait.getCurrentRecipe());
+    }
+
+    @Test
+    public void inputsNoMapTakesAreLeftOut() {
+        MultiRecipesTrait trait = newTrait();
+        trait.setAutoDispatch(true);
+        assertSame(GARecipeMaps.SIMPLE_ORE_WASHER_RECIPES, trait.dispatch(bus(new ItemStack(Items.GOLD_NUGGET), new ItemStack(Blocks.BEDROCK)), tanks(), VOLTAGE));
+        assertEquals(1, trait.getCurrentRecipe());
+    }
+
+    @Test
+    public void unknownOrEmptyInputsKeepTheMap() {
+        MultiRecipesTrait trait = newTrait();
+        trait.setAutoDispatch(true);
+        assertNull(trait.dispatch(bus(ItemStack.EMPTY), tanks(), VOLTAGE));
+        assertNull(trait.dispatch(bus(new ItemStack(Blocks.BEDROCK)), tanks(), VOLTAGE));
+        // nothing takes gold nuggets and lava together
+        assertNull(trait.dispatch(bus(new ItemStack(Items.GOLD_NUGGET)), tanks(Materials.Lava.getFluid(1000)), VOLTAGE));
+        assertEquals(0, trait.getCurrentRecipe());
+    }
+
+    /**
+     * The dehydrator takes iron and lava, but its recipe needs more lava than there is: the map is not switched to.
+     */
+    @Test
+    public void candidateWithoutRecipeKeepsTheMap() {
+        MultiRecipesTrait trait = newTrait();
+        trait.setAutoDispatch(true);
+        assertSame(GARecipeMaps.SIMPLE_ORE_WASHER_RECIPES, trait.dispatch(bus(new ItemStack(Items.GOLD_NUGGET)), tanks(), VOLTAGE));
+        // the current map has no recipe for them either
+        assertNull(trait.dispatch(bus(new ItemStack(Items.IRON_INGOT)), tanks(Materials.Lava.getFluid(50)), VOLTAGE));
+        assertEquals(1, trait.getCurrentRecipe());
+
+        assertSame(GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES, trait.dispatch(bus(new ItemStack(Items.IRON_INGOT)), tanks(Materials.Lava.getFluid(100)), VOLTAGE));
+        assertEquals(2, trait.getCurrentRecipe());
+    }
+
+    /**
+     * Telling which maps take the inputs must cost one lookup per kind of input, whatever the number of maps.
+     */
+    @Test
+    public void lookupsDoNotGrowWithMaps() {
+        List<RecipeMap<?>> manyMaps = new ArrayList<>();
+        for (RecipeMap<?> map : MAPS) {
+            manyMaps.add(map);
+        }
+        for (RecipeMap<?> map : RecipeMap.getRecipeMaps()) {
+            if (manyMaps.size() == RecipeMapInputIndex.MAX_RECIPE_MAPS)
+                break;
+            if (!manyMaps.contains(map))
+                manyMaps.add(map);
+        }
+        assertTrue(manyMaps.size() > MAPS.length * 4);
+
+        RecipeMapInputIndex few = new RecipeMapInputIndex(MAPS);
+        RecipeMapInputIndex many = new RecipeMapInputIndex(manyMaps.toArray(new RecipeMap<?>[0]));
+        ItemStackHandler inputs = bus(new ItemStack(Items.IRON_INGOT), new ItemStack(Items.GOLD_NUGGET), ItemStack.EMPTY);
+        FluidTankList fluids = tanks(Materials.Lava.getFluid(1000));
+
+        assertEquals(0, few.getCandidates(inputs, fluids));
+        assertEquals(0, many.getCandidates(inputs, fluids) & 0b111);
+        assertEquals(few.getLookups(), many.getLookups());
+
+        inputs = bus(new ItemStack(Items.IRON_INGOT));
+        assertEquals(0b101, few.getCandidates(inputs, tanks()));
+        assertEquals(0b101, many.getCandidates(inputs, tanks()) & 0b111);
+        assertEquals(few.getLookups(), many.getLookups());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyMaps() {
+        new RecipeMapInputIndex(new RecipeMap<?>[RecipeMapInputIndex.MAX_RECIPE_MAPS + 1]);
+    }
+
+    private static MultiRecipesTrait newTrait() {
+        RecipeMapMultiblockController controller = (RecipeMapMultiblockController) GATileEntities.LARGE_MACERATOR.createMetaTileEntity(null);
+        return new MultiRecipesTrait(controller, MAPS);
+    }
+
+    private static ItemStackHandler bus(ItemStack... stacks) {
+        ItemStackHandler handler = new ItemStackHandler(stacks.length);
+        for (int i = 0; i < stacks.length; i++) {
+            handler.setStackInSlot(i, stacks[i]);
+        }
+        return handler;
+    }
+
+    private static FluidTankList tanks(FluidStack... fluids) {
+        FluidTank[] tanks = new FluidTank[fluids.length];
+        for (int i = 0; i < fluids.length; i++) {
+            tanks[i] = new FluidTank(fluids[i], 16000);
+        }
+        return new FluidTankList(false, tanks);
+    }
+}
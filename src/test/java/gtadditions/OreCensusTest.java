@@ -0,0 +1,225 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.miner.Miner;
+import gregicadditions.machines.multi.miner.OreCensus;
+import gregicadditions.machines.multi.miner.OreClassificationCache;
+import gregtech.api.unification.OreDictUnifier;
+import gregtech.api.unification.material.Materials;
+import gregtech.api.unification.ore.OrePrefix;
+import gregtech.api.util.world.DummyWorld;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.terraingen.PopulateChunkEvent;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class OreCensusTest {
+
+    private static final int TOP = 90;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        OreDictUnifier.registerOre(new ItemStack(Blocks.GOLD_ORE), OrePrefix.ore, Materials.Gold);
+        OreDictUnifier.registerOre(new ItemStack(Blocks.IRON_ORE), OrePrefix.ore, Materials.Iron);
+        OreClassificationCache.invalidate();
+    }
+
+    /**
+     * Stone with ores scattered between y 10 and 40, and a few gold ores around y 70.
+     */
+    private static Set<BlockPos> fill(World world, ChunkPos chunkPos, int ores, long seed) {
+        Random random = new Random(seed);
+        for (int y = 0; y <= TOP; y++) {
+            for (int z = chunkPos.getZStart(); z <= chunkPos.getZEnd(); z++) {
+                for (int x = chunkPos.getXStart(); x <= chunkPos.getXEnd(); x++) {
+                    world.setBlockState(new BlockPos(x, y, z), Blocks.STONE.getDefaultState());
+                }
+            }
+        }
+        Set<BlockPos> orePositions = new HashSet<>();
+        for (int i = 0; i < ores; i++) {
+            BlockPos pos = i % 5 == 0 ?
+                    new BlockPos(chunkPos.getXStart() + random.nextInt(16), 68 + random.nextInt(4), chunkPos.getZStart() + random.nextInt(16)) :
+                    new BlockPos(chunkPos.getXStart() + random.nextInt(16), 10 + random.nextInt(31), chunkPos.getZStart() + random.nextInt(16));
+            world.setBlockState(pos, (i % 5 == 0 ? Blocks.GOLD_ORE : Blocks.IRON_ORE).getDefaultState());
+            orePositions.add(pos);
+        }
+        return orePositions;
+    }
+
+    private static Set<BlockPos> toPositions(OreCensus.ChunkCensus chunkCensus) {
+        Set<BlockPos> positions = new HashSet<>();
+        for (LongIterator iterator = chunkCensus.getOres().iterator(); iterator.hasNext(); ) {
+            positions.add(BlockPos.fromLong(iterator.nextLong()));
+        }
+        return positions;
+    }
+
+    private static List<BlockPos> mine(World world, ChunkPos chunkPos) {
+        Miner miner = new TestMiner(world, 512);
+        AtomicLong x = new AtomicLong(chunkPos.getXStart());
+        AtomicLong y = new AtomicLong(TOP);
+        AtomicLong z = new AtomicLong(chunkPos.getZStart());
+        List<BlockPos> found = new ArrayList<>();
+        while (y.get() >= 0) {
+            found.addAll(Miner.getBlockToMinePerChunk(miner, x, y, z, chunkPos));
+        }
+        return found;
+    }
+
+    @Test
+    public void roundTripsThroughNBT() {
+        World world = new DummyWorld();
+        // negative coordinates, an exhausted chunk and an empty census
+        ChunkPos withOres = new ChunkPos(-3, 7);
+        ChunkPos exhausted = new ChunkPos(4, -2);
+        Set<BlockPos> ores = fill(world, withOres, 60, 1);
+        fill(world, exhausted, 0, 2);
+
+        OreCensus census = new OreCensus(OreCensus.DATA_NAME);
+        NBTTagCompound emptyTag = census.writeToNBT(new NBTTagCompound());
+        OreCensus empty = new OreCensus(OreCensus.DATA_NAME);
+        empty.readFromNBT(emptyTag);
+        assertEquals(0, empty.size());
+
+        census.scanChunk(world.getChunk(withOres.x, withOres.z));
+        census.scanChunk(world.getChunk(exhausted.x, exhausted.z));
+        assertEquals(ores, toPositions(census.getChunk(ChunkPos.asLong(withOres.x, withOres.z))));
+
+        NBTTagCompound tag = census.writeToNBT(new NBTTagCompound());
+        OreCensus loaded = new OreCensus(OreCensus.DATA_NAME);
+        loaded.readFromNBT(tag);
+        assertEquals(2, loaded.size());
+        OreCensus.ChunkCensus loadedOres = loaded.getChunk(ChunkPos.asLong(withOres.x, withOres.z));
+        assertEquals(ores, toPositions(loadedOres));
+        for (int sectionY = 0; sectionY < 16; sectionY++) {
+            assertEquals(census.getChunk(ChunkPos.asLong(withOres.x, withOres.z)).hasOreInSection(sectionY), loadedOres.hasOreInSection(sectionY));
+        }
+        OreCensus.ChunkCensus loadedExhausted = loaded.getChunk(ChunkPos.asLong(exhausted.x, exhausted.z));
+        assertNotNull("an exhausted chunk is remembered as such", loadedExhausted);
+        assertTrue(loadedExhausted.isEmpty());
+        assertNull(loaded.getChunk(ChunkPos.asLong(0, 0)));
+    }
+
+    @Test
+    public void blockChangesKeepTheCensusRight() {
+        World world = new DummyWorld();
+        ChunkPos chunkPos = new ChunkPos(1, 1);
+        Set<BlockPos> ores = fill(world, chunkPos, 30, 3);
+        OreCensus census = new OreCensus(OreCensus.DATA_NAME);
+        census.scanChunk(world.getChunk(chunkPos.x, chunkPos.z));
+        long key = ChunkPos.asLong(chunkPos.x, chunkPos.z);
+        census.setDirty(false);
+
+        // an ore mined goes away
+        BlockPos mined = ores.iterator().next();
+        census.onBlockChanged(mined, Blocks.AIR.getDefaultState());
+        assertFalse(census.getChunk(key).contains(mined.toLong()));
+        assertEquals(ores.size() - 1, census.getChunk(key).size());
+        assertTrue(census.isDirty());
+
+        // nothing to do with ore
+        census.setDirty(false);
+        census.onBlockChanged(new BlockPos(chunkPos.getXStart(), 5, chunkPos.getZStart()), Blocks.DIRT.getDefaultState());
+        census.onBlockChanged(new BlockPos(chunkPos.getXStart() + 100, 20, chunkPos.getZStart()), Blocks.GOLD_ORE.getDefaultState());
+        assertFalse(census.isDirty());
+        assertNotNull(census.getChunk(key));
+
+        // an ore that was not there invalidates the chunk
+        census.onBlockChanged(new BlockPos(chunkPos.getXStart() + 2, 80, chunkPos.getZStart() + 2), Blocks.GOLD_ORE.getDefaultState());
+        assertNull(census.getChunk(key));
+        assertTrue(census.isDirty());
+    }
+
+    /**
+     * A miner coming back to a chunk with a census finds what the census lists without looking at the other blocks,
+     * here shown by an ore slipped into the chunk behind the census's back, which is only found once the chunk is invalidated.
+     */
+    @Test
+    public void minersResumeFromTheCensus() {
+        World world = new DummyWorld();
+        ChunkPos chunkPos = new ChunkPos(-1, 2);
+        fill(world, chunkPos, 50, 4);
+        List<BlockPos> withoutCensus = mine(world, chunkPos);
+
+        OreCensus census = new OreCensus(OreCensus.DATA_NAME);
+        OreCensus.register(world, census);
+        assertEquals(withoutCensus, mine(world, chunkPos));
+        long key = ChunkPos.asLong(chunkPos.x, chunkPos.z);
+        assertNotNull(census.getChunk(key));
+
+        // as after a restart
+        OreCensus loaded = new OreCensus(OreCensus.DATA_NAME);
+        loaded.readFromNBT(census.writeToNBT(new NBTTagCompound()));
+        OreCensus.register(world, loaded);
+        Chunk chunk = world.getChunk(chunkPos.x, chunkPos.z);
+        BlockPos unseen = new BlockPos(chunkPos.getXStart() + 7, 55, chunkPos.getZStart() + 7);
+        chunk.setBlockState(unseen, Blocks.IRON_ORE.getDefaultState());
+        assertEquals(withoutCensus, mine(world, chunkPos));
+
+        loaded.invalidate(key);
+        List<BlockPos> rescanned = mine(world, chunkPos);
+        assertTrue(rescanned.contains(unseen));
+        assertEquals(withoutCensus.size() + 1, rescanned.size());
+    }
+
+    @Test
+    public void censusOfOtherOresIsDropped() {
+        World world = new DummyWorld();
+        ChunkPos chunkPos = new ChunkPos(2, -5);
+        fill(world, chunkPos, 20, 5);
+        OreCensus census = new OreCensus(OreCensus.DATA_NAME);
+        census.scanChunk(world.getChunk(chunkPos.x, chunkPos.z));
+        long key = ChunkPos.asLong(chunkPos.x, chunkPos.z);
+
+        // as when loaded with other mods
+        NBTTagCompound tag = census.writeToNBT(new NBTTagCompound());
+        tag.setLong("stamp", tag.getLong("stamp") + 1);
+        OreCensus loaded = new OreCensus(OreCensus.DATA_NAME);
+        loaded.readFromNBT(tag);
+        assertNull(loaded.getChunk(key));
+        assertEquals(0, loaded.size());
+
+        // an ore dictionary reload that leaves the ores as they were keeps the census
+        OreClassificationCache.invalidate();
+        assertNotNull(census.getChunk(key));
+
+        OreDictUnifier.registerOre(new ItemStack(Blocks.LAPIS_ORE), OrePrefix.ore, Materials.Lapis);
+        OreClassificationCache.invalidate();
+        assertNull(census.getChunk(key));
+        assertEquals(0, census.size());
+    }
+
+    @Test
+    public void populatedChunksAreDropped() {
+        World world = new DummyWorld();
+        OreCensus census = new OreCensus(OreCensus.DATA_NAME);
+        OreCensus.register(world, census);
+        ChunkPos[] chunkPositions = {new ChunkPos(3, 3), new ChunkPos(4, 4), new ChunkPos(5, 5)};
+        for (ChunkPos chunkPos : chunkPositions) {
+            fill(world, chunkPos, 10, chunkPos.x);
+            census.scanChunk(world.getChunk(chunkPos.x, chunkPos.z));
+        }
+
+        OreCensus.onPopulateChunk(new PopulateChunkEvent.Pre(null, world, new Random(), 3, 3, false));
+        assertNull(census.getChunk(ChunkPos.asLong(3, 3)));
+        assertNull(census.getChunk(ChunkPos.asLong(4, 4)));
+        assertNotNull(census.getChunk(ChunkPos.asLong(5, 5)));
+    }
+}
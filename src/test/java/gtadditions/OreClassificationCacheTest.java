@@ -0,0 +1,117 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.miner.Miner;
+import gregicadditions.machines.multi.miner.OreClassificationCache;
+import gregtech.api.unification.OreDictUnifier;
+import gregtech.api.unification.material.Materials;
+import gregtech.api.unification.ore.OrePrefix;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class OreClassificationCacheTest {
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        OreDictUnifier.registerOre(new ItemStack(Blocks.GOLD_ORE), OrePrefix.ore, Materials.Gold);
+        OreDictUnifier.registerOre(new ItemStack(Blocks.IRON_ORE), OrePrefix.ore, Materials.Iron);
+        OreDictUnifier.registerOre(new ItemStack(Blocks.IRON_BLOCK), OrePrefix.block, Materials.Iron);
+        OreClassificationCache.invalidate();
+    }
+
+    /**
+     * The classification before the cache.
+     */
+    static boolean isOreUncached(IBlockState state) {
+        OrePrefix orePrefix = OreDictUnifier.getPrefix(new ItemStack(state.getBlock()));
+        return orePrefix != null && Miner.orePrefixes.contains(orePrefix);
+    }
+
+    /**
+     * A chunk of stone with ores, some air and a few blocks that are in the ore dictionary without being ores.
+     */
+    static IBlockState[] syntheticChunk() {
+        Random random = new Random(3);
+        IBlockState[] chunk = new IBlockState[16 * 256 * 16];
+        for (int i = 0; i < chunk.length; i++) {
+            int roll = random.nextInt(100);
+            if (i >= 16 * 128 * 16) {
+                chunk[i] = Blocks.AIR.getDefaultState();
+            } else if (roll < 3) {
+                chunk[i] = Blocks.GOLD_ORE.getDefaultState();
+            } else if (roll < 8) {
+                chunk[i] = Blocks.IRON_ORE.getDefaultState();
+            } else if (roll < 9) {
+                chunk[i] = Blocks.IRON_BLOCK.getDefaultState();
+            } else if (roll < 15) {
+                chunk[i] = Blocks.DIRT.getDefaultState();
+            } else {
+                chunk[i] = Blocks.STONE.getDefaultState();
+            }
+        }
+        return chunk;
+    }
+
+    @Test
+    public void classifiesAsBefore() {
+        for (IBlockState state : syntheticChunk()) {
+            assertEquals(state.toString(), isOreUncached(state), Miner.isOre(state));
+        }
+        assertEquals(OrePrefix.ore, OreClassificationCache.get(Blocks.GOLD_ORE.getDefaultState()).orePrefix);
+        assertEquals(OrePrefix.block, OreClassificationCache.get(Blocks.IRON_BLOCK.getDefaultState()).orePrefix);
+        assertFalse(OreClassificationCache.get(Blocks.IRON_BLOCK.getDefaultState()).isOre);
+        assertNull(OreClassificationCache.get(Blocks.STONE.getDefaultState()).orePrefix);
+        assertTrue(Miner.isOre(Blocks.GOLD_ORE));
+    }
+
+    @Test
+    public void oreDictionaryChangeIsSeenAfterInvalidate() {
+        IBlockState state = Blocks.REDSTONE_ORE.getDefaultState();
+        assertFalse(Miner.isOre(state));
+        OreDictUnifier.registerOre(new ItemStack(Blocks.REDSTONE_ORE), OrePrefix.ore, Materials.Redstone);
+        // the ore register event clears the cache in game, the bus is not running here
+        OreClassificationCache.invalidate();
+        assertTrue(Miner.isOre(state));
+    }
+
+    /**
+     * Once the states of a chunk are classified, scanning it again makes nothing, where the scan used to make an item stack per block.
+     */
+    @Test
+    public void cachedScanDoesNotAllocate() {
+        IBlockState[] chunk = syntheticChunk();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        int ores = 0;
+        // fills the cache
+        for (IBlockState state : chunk) {
+            if (Miner.isOre(state))
+                ores++;
+        }
+        long allocated = allocatedBytes(threads);
+        for (IBlockState state : chunk) {
+            if (Miner.isOre(state))
+                ores--;
+        }
+        long cachedBytes = allocatedBytes(threads) - allocated;
+
+        assertEquals(0, ores);
+        // well under a byte per block
+        assertTrue(cachedBytes < chunk.length);
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,158 @@
+package gtadditions;
+
+import gregicadditions.recipes.OutputReservation;
+import gregtech.api.capability.impl.ItemHandlerList;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMaps;
+import gregtech.api.util.InventoryUtils;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OutputReservationTest {
+
+    private static Recipe recipe;
+    private static ItemStack[] kinds;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        // cobblestone stacks to 64, ender pearls to 16 and buckets to 1
+        recipe = RecipeMaps.CENTRIFUGE_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE))
+                .outputs(new ItemStack(Blocks.COBBLESTONE, 100), new ItemStack(Items.ENDER_PEARL, 20), new ItemStack(Items.BUCKET))
+                .chancedOutput(new ItemStack(Items.ENDER_PEARL, 12), 5000, 500)
+                .chancedOutput(new ItemStack(Blocks.GRAVEL, 70), 2500, 500)
+                .EUt(8).duration(20)
+                .build().getResult();
+        kinds = new ItemStack[]{
+                new ItemStack(Blocks.COBBLESTONE),
+                new ItemStack(Items.ENDER_PEARL),
+                new ItemStack(Items.BUCKET),
+                new ItemStack(Blocks.GRAVEL),
+                new ItemStack(Blocks.DIRT)
+        };
+    }
+
+    @Test
+    public void emptyBusesFit() {
+        assertMatchesCurrentBehaviour(buses(new ItemStackHandler(4), new ItemStackHandler(4)), true, true);
+    }
+
+    @Test
+    public void fullBusesDoNotFit() {
+        ItemStackHandler bus = new ItemStackHandler(9);
+        for (int slot = 0; slot < bus.getSlots(); slot++) {
+            bus.setStackInSlot(slot, new ItemStack(Blocks.DIRT, 64));
+        }
+        assertMatchesCurrentBehaviour(bus, false, false);
+    }
+
+    /**
+     * The guaranteed outputs need 5 slots on their own, partial stacks already there must be topped up first.
+     */
+    @Test
+    public void partialStacksAreToppedUp() {
+        ItemStackHandler bus = new ItemStackHandler(5);
+        bus.setStackInSlot(0, new ItemStack(Blocks.COBBLESTONE, 28));
+        bus.setStackInSlot(1, new ItemStack(Items.ENDER_PEARL, 12));
+        bus.setStackInSlot(2, new ItemStack(Blocks.GRAVEL, 60));
+        // 36 cobblestone and 4 ender pearls go on top of the partial stacks, leaving 64 cobblestone, 16 pearls and the bucket
+        assertMatchesCurrentBehaviour(bus, false, false);
+
+        bus.setStackInSlot(2, ItemStack.EMPTY);
+        ItemStackHandler second = new ItemStackHandler(2);
+        assertMatchesCurrentBehaviour(buses(bus, second), true, true);
+    }
+
+    @Test
+    public void chancedOutputsAreCheckedOnTheirOwn() {
+        ItemStackHandler bus = new ItemStackHandler(7);
+        bus.setStackInSlot(6, new ItemStack(Blocks.DIRT, 64));
+        assertMatchesCurrentBehaviour(bus, true, true);
+
+        // the guaranteed outputs fit on the partial stacks and the empty slot, but 70 gravel does not fit in 4 + 64
+        bus = new ItemStackHandler(6);
+        bus.setStackInSlot(0, new ItemStack(Blocks.COBBLESTONE, 1));
+        bus.setStackInSlot(1, new ItemStack(Blocks.COBBLESTONE, 1));
+        bus.setStackInSlot(2, new ItemStack(Items.ENDER_PEARL, 1));
+        bus.setStackInSlot(3, new ItemStack(Items.ENDER_PEARL, 1));
+        bus.setStackInSlot(4, new ItemStack(Blocks.GRAVEL, 60));
+        assertMatchesCurrentBehaviour(bus, true, false);
+    }
+
+    /**
+     * Randomly filled buses of mixed stack sizes must get the same answer as the two checks done before.
+     */
+    @Test
+    public void randomBusesMatchCurrentBehaviour() {
+        Random random = new Random(42);
+        for (int run = 0; run < 2000; run++) {
+            List<IItemHandler> handlers = new ArrayList<>();
+            int busCount = 1 + random.nextInt(4);
+            for (int i = 0; i < busCount; i++) {
+                ItemStackHandler bus = new ItemStackHandler(1 + random.nextInt(9));
+                for (int slot = 0; slot < bus.getSlots(); slot++) {
+                    if (random.nextInt(3) == 0)
+                        continue;
+                    ItemStack stack = kinds[random.nextInt(kinds.length)].copy();
+                    stack.setCount(1 + random.nextInt(stack.getMaxStackSize()));
+                    bus.setStackInSlot(slot, stack);
+                }
+                handlers.add(bus);
+            }
+            ItemHandlerList inventory = new ItemHandlerList(handlers);
+
+            OutputReservation reservation = new OutputReservation();
+            boolean reserved = reservation.reserve(recipe, inventory);
+            assertEquals("Run " + run, InventoryUtils.simulateItemStackMerge(recipe.getOutputs(), inventory), reserved);
+            if (reserved) {
+                boolean current = MetaTileEntity.addItemsToItemHandler(inventory, true, recipe.getAllItemOutputs(inventory.getSlots()));
+                assertEquals("Run " + run, current, reservation.doChancedOutputsFit());
+            }
+        }
+    }
+
+    @Test
+    public void reservationIsTiedToRecipeAndInventory() {
+        ItemStackHandler bus = new ItemStackHandler(8);
+        OutputReservation reservation = new OutputReservation();
+        assertTrue(reservation.reserve(recipe, bus));
+        assertTrue(reservation.isReserved(recipe, bus));
+        assertFalse(reservation.isReserved(recipe, new ItemStackHandler(8)));
+
+        reservation.clear();
+        assertFalse(reservation.isReserved(recipe, bus));
+    }
+
+    private static void assertMatchesCurrentBehaviour(IItemHandlerModifiable inventory, boolean expectedMerge, boolean expectedAll) {
+        boolean merge = InventoryUtils.simulateItemStackMerge(recipe.getOutputs(), inventory);
+        boolean all = merge && MetaTileEntity.addItemsToItemHandler(inventory, true, recipe.getAllItemOutputs(inventory.getSlots()));
+        assertEquals(expectedMerge, merge);
+        assertEquals(expectedAll, all);
+
+        OutputReservation reservation = new OutputReservation();
+        assertEquals(merge, reservation.reserve(recipe, inventory));
+        assertEquals(all, merge && reservation.doChancedOutputsFit());
+    }
+
+    private static ItemHandlerList buses(IItemHandler... handlers) {
+        List<IItemHandler> list = new ArrayList<>();
+        for (IItemHandler handler : handlers) {
+            list.add(handler);
+        }
+        return new ItemHandlerList(list);
+    }
+}
@@ -0,0 +1,96 @@
+package gtadditions;
+
+import gregicadditions.GAUtility;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeBuilder;
+import gregtech.api.recipes.RecipeMaps;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelChancedOutputTest {
+
+    private static final int PARALLEL = 64;
+    private static final int SAMPLES = 20000;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    /**
+     * One binomial draw per collapsed entry must give the same mean and variance
+     * as rolling one chanced entry per parallel run.
+     */
+    @Test
+    public void collapsedEntriesMatchPerRunEntries() {
+        int chance = 1500;
+        int boost = 250;
+        int tier = 2;
+
+        RecipeBuilder<?> perRunBuilder = RecipeMaps.MACERATOR_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE, PARALLEL))
+                .EUt(2).duration(40);
+        for (int i = 0; i < PARALLEL; i++) {
+            perRunBuilder.chancedOutput(new ItemStack(Items.FLINT, 2), chance, boost);
+        }
+        Recipe perRun = perRunBuilder.build().getResult();
+
+        Recipe collapsed = RecipeMaps.MACERATOR_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE, PARALLEL))
+                .chancedOutput(new ItemStack(Items.FLINT, 2 * PARALLEL), chance, boost)
+                .EUt(2).duration(40)
+                .build().getResult();
+
+        assertEquals(1, collapsed.getChancedOutputs().size());
+
+        double[] expected = sampleMoments(SAMPLES, random -> perRun.getResultItemOutputs(Integer.MAX_VALUE, random, tier));
+        double[] actual = sampleMoments(SAMPLES, random -> GAUtility.getParallelResultItemOutputs(collapsed, Integer.MAX_VALUE, random, tier, PARALLEL));
+
+        double p = (chance + boost * tier + 1) / 10000.0;
+        double theoreticalMean = 2 * PARALLEL * p;
+        double theoreticalVariance = 4 * PARALLEL * p * (1 - p);
+
+        assertEquals(theoreticalMean, expected[0], 0.15);
+        assertEquals(theoreticalMean, actual[0], 0.15);
+        assertEquals(expected[0], actual[0], 0.2);
+        assertEquals(theoreticalVariance, expected[1], theoreticalVariance * 0.08);
+        assertEquals(theoreticalVariance, actual[1], theoreticalVariance * 0.08);
+        assertEquals(expected[1], actual[1], theoreticalVariance * 0.1);
+    }
+
+    @Test
+    public void binomialEdgeCases() {
+        Random random = new Random(42);
+        assertEquals(0, GAUtility.binomial(random, 0, 0.5));
+        assertEquals(0, GAUtility.binomial(random, 100, 0));
+        assertEquals(100, GAUtility.binomial(random, 100, 1));
+        for (int i = 0; i < 1000; i++) {
+            int draw = GAUtility.binomial(random, 5000, 0.9);
+            assertTrue(draw >= 0 && draw <= 5000);
+        }
+    }
+
+    private static double[] sampleMoments(int samples, java.util.function.Function<Random, List<ItemStack>> roll) {
+        Random random = new Random(1234);
+        double sum = 0;
+        double sumSquares = 0;
+        for (int i = 0; i < samples; i++) {
+            int total = 0;
+            for (ItemStack stack : roll.apply(random)) {
+                total += stack.getCount();
+            }
+            sum += total;
+            sumSquares += (double) total * total;
+        }
+        double mean = sum / samples;
+        return new double[]{mean, sumSquares / samples - mean * mean};
+    }
+}
@@ -0,0 +1,127 @@
+package gtadditions;
+
+import gregicadditions.GAConfig;
+import gregicadditions.GAValues;
+import gregicadditions.machines.GATileEntities;
+import gregicadditions.machines.multi.ProcessingArrayMachineTable;
+import gregicadditions.recipes.GARecipeMaps;
+import gregtech.api.GregTechAPI;
+import gregtech.api.metatileentity.ITieredMetaTileEntity;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.RecipeMaps;
+import gregtech.api.recipes.builders.*;
+import gregtech.common.metatileentities.MetaTileEntities;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ProcessingArrayMachineTableTest {
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        ProcessingArrayMachineTable.build();
+    }
+
+    /**
+     * Every registered machine must resolve to the same recipe map as the name parsing of the controller did,
+     * except the machines whose recipe map name is blacklisted, which that parsing never matched.
+     */
+    @Test
+    public void tableMatchesNameParsing() {
+        for (MetaTileEntity metaTileEntity : GregTechAPI.META_TILE_ENTITY_REGISTRY) {
+            int id = GregTechAPI.META_TILE_ENTITY_REGISTRY.getIDForObject(metaTileEntity);
+            ProcessingArrayMachineTable.MachineEntry entry = ProcessingArrayMachineTable.get(id);
+            RecipeMap<?> expected = resolveByName(metaTileEntity);
+            if (expected != null && Arrays.asList(GAConfig.multis.processingArray.machineBlackList).contains(expected.getUnlocalizedName()))
+                expected = null;
+
+            if (expected == null) {
+                assertNull("Unexpected entry for " + metaTileEntity.metaTileEntityId, entry);
+            } else {
+                assertNotNull("Missing entry for " + metaTileEntity.metaTileEntityId, entry);
+                assertSame(expected, entry.getRecipeMap());
+                assertEquals(GAValues.V[((ITieredMetaTileEntity) metaTileEntity).getTier()], entry.getVoltage());
+            }
+        }
+    }
+
+    @Test
+    public void knownMachinesResolve() {
+        assertMachine(MetaTileEntities.MACERATOR[0], RecipeMaps.MACERATOR_RECIPES);
+        assertMachine(MetaTileEntities.CUTTER[1], RecipeMaps.CUTTER_RECIPES);
+        assertMachine(MetaTileEntities.ELECTRIC_FURNACE[0], RecipeMaps.FURNACE_RECIPES);
+        assertMachine(MetaTileEntities.ORE_WASHER[2], RecipeMaps.ORE_WASHER_RECIPES);
+        assertMachine(GATileEntities.DEHYDRATOR[0].getMetaTileEntity(), GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES);
+    }
+
+    @Test
+    public void blacklistMatchesRecipeMapName() {
+        String[] blackList = GAConfig.multis.processingArray.machineBlackList;
+        try {
+            GAConfig.multis.processingArray.machineBlackList = new String[]{"macerator"};
+            ProcessingArrayMachineTable.build();
+            assertNull(ProcessingArrayMachineTable.get(getId(MetaTileEntities.MACERATOR[0])));
+            assertNotNull(ProcessingArrayMachineTable.get(getId(MetaTileEntities.CUTTER[0])));
+        } finally {
+            GAConfig.multis.processingArray.machineBlackList = blackList;
+            ProcessingArrayMachineTable.build();
+        }
+    }
+
+    @Test
+    public void unknownIdsAreRejected() {
+        assertNull(ProcessingArrayMachineTable.get(-1));
+        assertNull(ProcessingArrayMachineTable.get(Short.MAX_VALUE + 1));
+    }
+
+    private static void assertMachine(MetaTileEntity metaTileEntity, RecipeMap<?> recipeMap) {
+        ProcessingArrayMachineTable.MachineEntry entry = ProcessingArrayMachineTable.get(getId(metaTileEntity));
+        assertNotNull("Missing entry for " + metaTileEntity.metaTileEntityId, entry);
+        assertSame(recipeMap, entry.getRecipeMap());
+    }
+
+    private static int getId(MetaTileEntity metaTileEntity) {
+        return GregTechAPI.META_TILE_ENTITY_REGISTRY.getIDForObject(metaTileEntity);
+    }
+
+    /**
+     * The resolution the controller did before the table, kept here as the reference.
+     */
+    private static RecipeMap<?> resolveByName(MetaTileEntity metaTileEntity) {
+        if (!(metaTileEntity instanceof ITieredMetaTileEntity))
+            return null;
+        String unlocalizedName = metaTileEntity.getMetaFullName();
+        if (Arrays.asList(GAConfig.multis.processingArray.machineBlackList).contains(unlocalizedName))
+            return null;
+        RecipeMap<?> rmap = RecipeMap.getByName(findRecipeMapName(unlocalizedName));
+        if (rmap != null && (rmap.recipeBuilder() instanceof SimpleRecipeBuilder ||
+                rmap.recipeBuilder() instanceof IntCircuitRecipeBuilder ||
+                rmap.recipeBuilder() instanceof ArcFurnaceRecipeBuilder ||
+                rmap.recipeBuilder() instanceof CutterRecipeBuilder ||
+                rmap.recipeBuilder() instanceof UniversalDistillationRecipeBuilder)) {
+            return rmap;
+        }
+        return null;
+    }
+
+    private static String findRecipeMapName(String unlocalizedName) {
+        String trimmedName = unlocalizedName.substring(0, unlocalizedName.lastIndexOf("."));
+        trimmedName = trimmedName.substring(trimmedName.lastIndexOf(".") + 1);
+        switch (trimmedName) {
+            case "cutter":
+                trimmedName = "cutting_saw"; break;
+            case "electric_furnace":
+                trimmedName = "furnace"; break;
+            case "ore_washer":
+                trimmedName = "orewasher"; break;
+            case "dehydrator":
+                trimmedName = "chemical_dehydrator"; break;
+        }
+        return trimmedName;
+    }
+}
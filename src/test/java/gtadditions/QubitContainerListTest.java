@@ -0,0 +1,155 @@
+package gtadditions;
+
+import gregicadditions.capabilities.IQubitContainer;
+import gregicadditions.capabilities.impl.QubitContainerHandler;
+import gregicadditions.capabilities.impl.QubitContainerList;
+import gregicadditions.machines.GATileEntities;
+import gregtech.api.metatileentity.MetaTileEntity;
+import net.minecraft.util.EnumFacing;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QubitContainerListTest {
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    @Test
+    public void addAndRemoveMatchStreams() {
+        List<IQubitContainer> containers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            containers.add(QubitContainerHandler.receiverContainer(newMetaTileEntity(), 1000L * (i + 1), 10L * (i + 1), 4));
+        }
+        QubitContainerList list = new QubitContainerList(containers);
+        assertMatchesStreams(list, containers);
+
+        Random random = new Random(3);
+        for (int step = 0; step < 2000; step++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    list.addQubit(random.nextInt(3000));
+                    break;
+                case 1:
+                    list.removeQubit(random.nextInt(3000));
+                    break;
+                case 2:
+                    // hatches filled from the network directly, behind the list
+                    containers.get(random.nextInt(containers.size())).acceptQubitFromNetwork(null, 10, 1 + random.nextInt(4));
+                    break;
+                default:
+                    list.acceptQubitFromNetwork(null, 10, random.nextInt(16));
+            }
+            assertMatchesStreams(list, containers);
+        }
+    }
+
+    @Test
+    public void overflowIsCapped() {
+        List<IQubitContainer> containers = Arrays.asList(
+                QubitContainerHandler.receiverContainer(newMetaTileEntity(), 500L, 10L, 1),
+                QubitContainerHandler.receiverContainer(newMetaTileEntity(), 700L, 10L, 1));
+        QubitContainerList list = new QubitContainerList(containers);
+
+        assertEquals(1200L, list.addQubit(Long.MAX_VALUE / 2));
+        assertEquals(1200L, list.getQubitStored());
+        assertEquals(0L, list.getQubitCanBeInserted());
+        assertMatchesStreams(list, containers);
+
+        assertEquals(-1200L, list.removeQubit(Long.MAX_VALUE / 2));
+        assertEquals(0L, list.getQubitStored());
+        assertMatchesStreams(list, containers);
+    }
+
+    /**
+     * Containers that do not tell the list about changes must still be seen.
+     */
+    @Test
+    public void otherContainersAreNotCached() {
+        SimpleQubitContainer simple = new SimpleQubitContainer();
+        List<IQubitContainer> containers = Arrays.asList(
+                QubitContainerHandler.receiverContainer(newMetaTileEntity(), 500L, 10L, 1), simple);
+        QubitContainerList list = new QubitContainerList(containers);
+        assertMatchesStreams(list, containers);
+
+        simple.stored = 40L;
+        simple.capacity = 80L;
+        simple.inputQubit = 7L;
+        assertMatchesStreams(list, containers);
+        assertEquals(40L, list.getQubitStored());
+    }
+
+    @Test
+    public void newListTakesOverTheHatches() {
+        QubitContainerHandler handler = QubitContainerHandler.receiverContainer(newMetaTileEntity(), 500L, 10L, 1);
+        QubitContainerList first = new QubitContainerList(new ArrayList<>(Arrays.asList(handler)));
+        Runnable firstListener = handler.getQubitStoredListener();
+        assertNotNull(firstListener);
+
+        QubitContainerList second = new QubitContainerList(new ArrayList<>(Arrays.asList(handler)));
+        assertNotSame(firstListener, handler.getQubitStoredListener());
+        handler.addQubit(100L);
+        assertEquals(100L, second.getQubitStored());
+    }
+
+    private static void assertMatchesStreams(QubitContainerList list, List<IQubitContainer> containers) {
+        assertEquals(containers.stream().mapToLong(IQubitContainer::getQubitStored).sum(), list.getQubitStored());
+        assertEquals(containers.stream().mapToLong(IQubitContainer::getQubitCapacity).sum(), list.getQubitCapacity());
+        assertEquals(containers.stream().mapToLong(v -> v.getInputQubit() * v.getInputParallel()).sum(), list.getInputQubit());
+        assertEquals(containers.stream().mapToLong(v -> v.getOutputQubit() * v.getOutputParallel()).sum(), list.getOutputQubit());
+    }
+
+    private static MetaTileEntity newMetaTileEntity() {
+        return GATileEntities.LARGE_MACERATOR.createMetaTileEntity(null);
+    }
+
+    private static class SimpleQubitContainer implements IQubitContainer {
+
+        private long stored;
+        private long capacity;
+        private long inputQubit;
+
+        @Override
+        public long acceptQubitFromNetwork(EnumFacing side, long voltage, long parallel) {
+            return 0;
+        }
+
+        @Override
+        public boolean inputsQubit(EnumFacing side) {
+            return true;
+        }
+
+        @Override
+        public long changeQubit(long differenceAmount) {
+            return 0;
+        }
+
+        @Override
+        public long getQubitStored() {
+            return stored;
+        }
+
+        @Override
+        public long getQubitCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public long getInputParallel() {
+            return 1;
+        }
+
+        @Override
+        public long getInputQubit() {
+            return inputQubit;
+        }
+    }
+}
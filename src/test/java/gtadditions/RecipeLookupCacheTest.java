@@ -0,0 +1,182 @@
+package gtadditions;
+
+import gregicadditions.recipes.GARecipeMaps;
+import gregicadditions.recipes.RecipeLookupCache;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.unification.material.Materials;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RecipeLookupCacheTest {
+
+    private static final long LV = 32;
+    private static final long MV = 128;
+
+    private static Recipe itemRecipe;
+    private static Recipe fluidRecipe;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE, 2), new ItemStack(Items.FLINT))
+                .outputs(new ItemStack(Blocks.GRAVEL))
+                .EUt(30).duration(20)
+                .buildAndRegister();
+        GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Items.CLAY_BALL))
+                .fluidInputs(Materials.Water.getFluid(100))
+                .outputs(new ItemStack(Blocks.CLAY))
+                .EUt(100).duration(20)
+                .buildAndRegister();
+        itemRecipe = GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES.findRecipe(LV, bus(new ItemStack(Blocks.COBBLESTONE, 2), new ItemStack(Items.FLINT)), tanks(), 0);
+        fluidRecipe = GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES.findRecipe(MV, bus(new ItemStack(Items.CLAY_BALL)), tanks(Materials.Water.getFluid(100)), 0);
+        assertNotNull(itemRecipe);
+        assertNotNull(fluidRecipe);
+    }
+
+    /**
+     * The same inputs spread over the slots in another order must hit the entry of the first search.
+     */
+    @Test
+    public void sameInputsInAnyOrderHit() {
+        RecipeLookupCache cache = new RecipeLookupCache(16);
+        assertSame(itemRecipe, find(cache, LV, bus(new ItemStack(Blocks.COBBLESTONE, 2), new ItemStack(Items.FLINT)), tanks()));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        assertSame(itemRecipe, find(cache, LV, bus(new ItemStack(Items.FLINT), ItemStack.EMPTY, new ItemStack(Blocks.COBBLESTONE, 2)), tanks()));
+        assertSame(itemRecipe, find(cache, LV, bus(new ItemStack(Blocks.COBBLESTONE), new ItemStack(Items.FLINT), new ItemStack(Blocks.COBBLESTONE)), tanks()));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void otherAmountsOrVoltagesMiss() {
+        RecipeLookupCache cache = new RecipeLookupCache(16);
+        ItemStackHandler inputs = bus(new ItemStack(Items.CLAY_BALL));
+        assertSame(fluidRecipe, find(cache, MV, inputs, tanks(Materials.Water.getFluid(100))));
+        assertSame(fluidRecipe, find(cache, MV, inputs, tanks(Materials.Water.getFluid(100))));
+        assertEquals(1, cache.getHits());
+
+        // not enough voltage for the recipe, and not enough water
+        assertNull(find(cache, LV, inputs, tanks(Materials.Water.getFluid(100))));
+        assertNull(find(cache, MV, inputs, tanks(Materials.Water.getFluid(50))));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+
+        // searches that found nothing are kept as well
+        assertNull(find(cache, LV, inputs, tanks(Materials.Water.getFluid(100))));
+        assertEquals(2, cache.getHits());
+
+        // water split over two tanks is the same input
+        assertSame(fluidRecipe, find(cache, MV, inputs, tanks(Materials.Water.getFluid(60), Materials.Water.getFluid(40))));
+        assertEquals(3, cache.getHits());
+    }
+
+    @Test
+    public void invalidateDropsEverything() {
+        RecipeLookupCache cache = new RecipeLookupCache(16);
+        ItemStackHandler inputs = bus(new ItemStack(Blocks.COBBLESTONE, 2), new ItemStack(Items.FLINT));
+        find(cache, LV, inputs, tanks());
+        find(cache, MV, inputs, tanks());
+        assertEquals(2, cache.size());
+
+        cache.invalidate();
+        assertEquals(0, cache.size());
+        assertSame(itemRecipe, find(cache, LV, inputs, tanks()));
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() {
+        RecipeLookupCache cache = new RecipeLookupCache(2);
+        ItemStackHandler inputs = bus(new ItemStack(Blocks.COBBLESTONE, 2), new ItemStack(Items.FLINT));
+        find(cache, 1, inputs, tanks());
+        find(cache, 2, inputs, tanks());
+        // touch the first so the second is the eldest
+        find(cache, 1, inputs, tanks());
+        find(cache, 3, inputs, tanks());
+        assertEquals(2, cache.size());
+        cache.resetCounters();
+
+        find(cache, 1, inputs, tanks());
+        find(cache, 3, inputs, tanks());
+        assertEquals(2, cache.getHits());
+        find(cache, 2, inputs, tanks());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * The input stacks may change after the search, the cached entry must not.
+     */
+    @Test
+    public void keyIsNotTiedToTheSlots() {
+        RecipeLookupCache cache = new RecipeLookupCache(16);
+        ItemStackHandler inputs = bus(new ItemStack(Blocks.COBBLESTONE, 2), new ItemStack(Items.FLINT));
+        find(cache, LV, inputs, tanks());
+        inputs.getStackInSlot(0).shrink(1);
+        assertNull(find(cache, LV, inputs, tanks()));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void sharedBetweenThreads() throws InterruptedException {
+        RecipeLookupCache cache = new RecipeLookupCache(8);
+        AtomicInteger wrong = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    long voltage = LV + i % 12;
+                    Recipe recipe = find(cache, voltage, bus(new ItemStack(Items.FLINT), new ItemStack(Blocks.COBBLESTONE, 2)), tanks());
+                    if (recipe != itemRecipe)
+                        wrong.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, wrong.get());
+        assertEquals(8000, cache.getHits() + cache.getMisses());
+        assertTrue(cache.size() <= 8);
+    }
+
+    private static Recipe find(RecipeLookupCache cache, long voltage, ItemStackHandler inputs, FluidTankList fluidInputs) {
+        return cache.findRecipe(GARecipeMaps.CHEMICAL_DEHYDRATOR_RECIPES, voltage, inputs, fluidInputs, 0);
+    }
+
+    private static ItemStackHandler bus(ItemStack... stacks) {
+        ItemStackHandler handler = new ItemStackHandler(stacks.length);
+        for (int i = 0; i < stacks.length; i++) {
+            handler.setStackInSlot(i, stacks[i]);
+        }
+        return handler;
+    }
+
+    private static FluidTankList tanks(FluidStack... fluids) {
+        FluidTank[] tanks = new FluidTank[fluids.length];
+        for (int i = 0; i < fluids.length; i++) {
+            tanks[i] = new FluidTank(fluids[i], 16000);
+        }
+        return new FluidTankList(false, tanks);
+    }
+}
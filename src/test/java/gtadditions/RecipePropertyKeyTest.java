@@ -0,0 +1,79 @@
+package gtadditions;
+
+import com.google.common.collect.ImmutableMap;
+import gregicadditions.recipes.GARecipeMaps;
+import gregicadditions.recipes.RecipePropertyKey;
+import gregicadditions.recipes.TypedPropertyRecipe;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.unification.material.Materials;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class RecipePropertyKeyTest {
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    @Test
+    public void qubitValuesReadBackUnchanged() {
+        Recipe consumer = GARecipeMaps.CIRCUIT_ASSEMBLER_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE))
+                .outputs(new ItemStack(Blocks.GRAVEL))
+                .qubit(7)
+                .EUt(30).duration(20)
+                .build().getResult();
+        assertTrue(consumer instanceof TypedPropertyRecipe);
+        assertEquals(consumer.getIntegerProperty("qubitConsume"), (int) RecipePropertyKey.QUBIT_CONSUME.get(consumer));
+        assertEquals(7, (int) RecipePropertyKey.QUBIT_CONSUME.get(consumer));
+
+        Recipe producer = GARecipeMaps.SIMPLE_QUBIT_GENERATOR.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE))
+                .qubit(3)
+                .EUt(30).duration(20)
+                .build().getResult();
+        assertTrue(producer instanceof TypedPropertyRecipe);
+        assertEquals(producer.getIntegerProperty("qubitProduce"), (int) RecipePropertyKey.QUBIT_PRODUCE.get(producer));
+        assertEquals(3, (int) RecipePropertyKey.QUBIT_PRODUCE.get(producer));
+        assertNull(RecipePropertyKey.QUBIT_CONSUME.get(producer));
+    }
+
+    @Test
+    public void fusionValuesReadBackUnchanged() {
+        Recipe recipe = fusionRecipe();
+        assertTrue(recipe instanceof TypedPropertyRecipe);
+        assertEquals(recipe.getIntegerProperty("coil_tier"), (int) RecipePropertyKey.COIL_TIER.get(recipe));
+        assertEquals(2, (int) RecipePropertyKey.COIL_TIER.get(recipe));
+        assertEquals((long) recipe.getProperty("eu_to_start"), (long) RecipePropertyKey.EU_TO_START.get(recipe));
+        assertEquals(2080000000L, (long) RecipePropertyKey.EU_TO_START.get(recipe));
+    }
+
+    /**
+     * Recipes not built by a GA builder are read through their property map.
+     */
+    @Test
+    public void plainRecipesAreStillRead() {
+        Recipe recipe = new Recipe(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), ImmutableMap.of("coil_tier", 4, "eu_to_start", 12L),
+                20, 30, false);
+        assertEquals(4, (int) RecipePropertyKey.COIL_TIER.get(recipe));
+        assertEquals(12L, (long) RecipePropertyKey.EU_TO_START.get(recipe));
+        assertNull(RecipePropertyKey.QUBIT_PRODUCE.get(recipe));
+    }
+
+    static Recipe fusionRecipe() {
+        return GARecipeMaps.ADV_FUSION_RECIPES.recipeBuilder()
+                .coilTier(2).euStart(2080000000L).euReturn(40)
+                .fluidInputs(Materials.Hydrogen.getFluid(144), Materials.Deuterium.getFluid(144))
+                .fluidOutputs(Materials.Helium.getFluid(144))
+                .EUt(75000).duration(100)
+                .build().getResult();
+    }
+}
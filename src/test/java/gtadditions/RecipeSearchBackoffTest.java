@@ -0,0 +1,231 @@
+package gtadditions;
+
+import gregicadditions.capabilities.impl.CountingItemStackHandler;
+import gregicadditions.capabilities.impl.GAMultiblockRecipeLogic;
+import gregicadditions.capabilities.impl.RecipeSearchBackoff;
+import gregicadditions.machines.GATileEntities;
+import gregtech.api.capability.IEnergyContainer;
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.capability.impl.EnergyContainerHandler;
+import gregtech.api.metatileentity.multiblock.RecipeMapMultiblockController;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMaps;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RecipeSearchBackoffTest {
+
+    private static final int TICKS = 10000;
+    private static final long VOLTAGE = 32;
+    // 9 lookups to reach the longest delay, then one every MAX_DELAY + 1 ticks
+    private static final int STALLED_LOOKUPS = 9 + (TICKS - 264) / (RecipeSearchBackoff.MAX_DELAY + 1);
+
+    private static Recipe recipe;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        recipe = RecipeMaps.MACERATOR_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Items.IRON_INGOT))
+                .outputs(new ItemStack(Items.IRON_NUGGET))
+                .EUt(30).duration(100)
+                .build().getResult();
+    }
+
+    /**
+     * A machine whose search keeps failing with nothing changing must only look recipes up a handful of times.
+     */
+    @Test
+    public void stalledMachineSearchesRarely() {
+        CountingRecipeLogic logic = new CountingRecipeLogic();
+        for (int tick = 0; tick < TICKS; tick++) {
+            logic.tick();
+        }
+        assertTrue("Looked up " + logic.lookups + " times", logic.lookups <= STALLED_LOOKUPS + 1);
+        assertTrue("Looked up " + logic.lookups + " times", logic.lookups >= STALLED_LOOKUPS - 1);
+        assertEquals(RecipeSearchBackoff.MAX_DELAY, logic.getBackoff().getDelay());
+    }
+
+    /**
+     * Any change of the inputs must be picked up on the very next tick.
+     */
+    @Test
+    public void changeSearchesImmediately() {
+        CountingRecipeLogic logic = new CountingRecipeLogic();
+        logic.backOff();
+        int lookups = logic.lookups;
+        logic.tick();
+        assertEquals("Backing off", lookups, logic.lookups);
+
+        logic.bus.insertItem(0, new ItemStack(Items.IRON_INGOT), false);
+        logic.tick();
+        assertEquals(lookups + 1, logic.lookups);
+        assertEquals("Failed once since the change", 1, logic.getBackoff().getDelay());
+    }
+
+    /**
+     * A stack grown in place, as by a container click merging into the slot, does not move the counter of the bus
+     * but must still be picked up.
+     */
+    @Test
+    public void stackGrownInPlaceSearchesImmediately() {
+        CountingRecipeLogic logic = new CountingRecipeLogic();
+        logic.bus.insertItem(0, new ItemStack(Items.IRON_INGOT), false);
+        logic.backOff();
+        int lookups = logic.lookups;
+        int modificationCount = logic.bus.getModificationCount();
+
+        logic.bus.getStackInSlot(0).grow(1);
+        logic.tick();
+        assertEquals(modificationCount, logic.bus.getModificationCount());
+        assertEquals(lookups + 1, logic.lookups);
+    }
+
+    @Test
+    public void startedRecipeResetsBackoff() {
+        CountingRecipeLogic logic = new CountingRecipeLogic();
+        logic.backOff();
+        assertTrue(logic.getBackoff().getDelay() > 0);
+
+        logic.recipe = recipe;
+        logic.bus.insertItem(0, new ItemStack(Items.IRON_INGOT), false);
+        logic.succeed = true;
+        logic.tick();
+        assertEquals(0, logic.getBackoff().getDelay());
+
+        // the recipe completed with its input used up, the next searches run every tick until one fails
+        logic.complete();
+        logic.bus.setStackInSlot(0, ItemStack.EMPTY);
+        logic.succeed = false;
+        int lookups = logic.lookups;
+        logic.tick();
+        logic.tick();
+        assertEquals(lookups + 1, logic.lookups);
+        logic.tick();
+        assertEquals(lookups + 2, logic.lookups);
+    }
+
+    /**
+     * A hatch charging every tick must not reset the backoff of a machine that finds nothing to run.
+     */
+    @Test
+    public void chargingHatchKeepsBackingOff() {
+        CountingRecipeLogic logic = new CountingRecipeLogic();
+        for (int tick = 0; tick < TICKS; tick++) {
+            logic.energyContainer.addEnergy(1);
+            logic.tick();
+        }
+        assertEquals(TICKS, logic.energyContainer.getEnergyStored());
+        assertTrue("Looked up " + logic.lookups + " times", logic.lookups <= STALLED_LOOKUPS + 1);
+        assertEquals(RecipeSearchBackoff.MAX_DELAY, logic.getBackoff().getDelay());
+    }
+
+    /**
+     * A machine short of the energy to start its recipe keeps backing off while the hatch charges,
+     * and searches on the tick the hatch holds enough, whatever the voltage.
+     */
+    @Test
+    public void chargingUpToTheRecipeSearchesImmediately() {
+        CountingRecipeLogic logic = new CountingRecipeLogic();
+        logic.recipe = recipe;
+        for (int tick = 0; tick < 2000; tick++) {
+            logic.energyContainer.addEnergy(1);
+            logic.tick();
+        }
+        long energyNeeded = logic.getEnergyNeeded();
+        assertTrue("Needs " + energyNeeded, energyNeeded > logic.energyContainer.getEnergyStored());
+        assertTrue("Above the voltage", logic.energyContainer.getEnergyStored() > VOLTAGE);
+        assertTrue("Looked up " + logic.lookups + " times", logic.lookups < 30);
+        int lookups = logic.lookups;
+
+        logic.energyContainer.addEnergy(energyNeeded - 1 - logic.energyContainer.getEnergyStored());
+        logic.tick();
+        assertEquals("Still short", lookups, logic.lookups);
+
+        logic.energyContainer.addEnergy(1);
+        logic.tick();
+        assertEquals(lookups + 1, logic.lookups);
+    }
+
+    /**
+     * Looks a recipe up on every search, as when the inputs changed, and counts the lookups.
+     */
+    private static class CountingRecipeLogic extends GAMultiblockRecipeLogic {
+
+        private final IEnergyContainer energyContainer;
+        private final CountingItemStackHandler bus = new CountingItemStackHandler(4);
+        // what every lookup finds
+        private Recipe recipe;
+        private boolean succeed = false;
+        private int lookups = 0;
+
+        CountingRecipeLogic() {
+            this((RecipeMapMultiblockController) GATileEntities.LARGE_MACERATOR.createMetaTileEntity(null));
+        }
+
+        private CountingRecipeLogic(RecipeMapMultiblockController controller) {
+            super(controller);
+            this.energyContainer = EnergyContainerHandler.receiverContainer(controller, 1 << 16, VOLTAGE, 1);
+        }
+
+        void tick() {
+            if (progressTime == 0)
+                trySearchNewRecipe();
+        }
+
+        void backOff() {
+            for (int tick = 0; tick < 1000; tick++) {
+                tick();
+            }
+        }
+
+        void complete() {
+            progressTime = 0;
+        }
+
+        RecipeSearchBackoff getBackoff() {
+            return searchBackoff;
+        }
+
+        long getEnergyNeeded() {
+            return energyNeeded;
+        }
+
+        @Override
+        public IEnergyContainer getEnergyContainer() {
+            return energyContainer;
+        }
+
+        @Override
+        protected IItemHandlerModifiable getInputInventory() {
+            return bus;
+        }
+
+        @Override
+        protected boolean checkRecipeInputsDirty(IItemHandler inputs, IMultipleTankHandler fluidInputs) {
+            return true;
+        }
+
+        @Override
+        protected Recipe findRecipe(long maxVoltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs) {
+            lookups++;
+            return recipe;
+        }
+
+        @Override
+        protected boolean setupAndConsumeRecipeInputs(Recipe recipe) {
+            return succeed || super.setupAndConsumeRecipeInputs(recipe);
+        }
+
+        @Override
+        protected void setupRecipe(Recipe recipe) {
+            progressTime = 1;
+        }
+    }
+}
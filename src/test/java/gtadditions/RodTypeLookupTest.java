@@ -0,0 +1,103 @@
+package gtadditions;
+
+import gregicadditions.item.GAMetaBlocks;
+import gregicadditions.machines.multi.nuclear.MetaTileEntityNuclearReactor;
+import gregicadditions.machines.multi.nuclear.MetaTileEntityNuclearReactor.RodType;
+import gregtech.api.multiblock.BlockWorldState;
+import gregtech.api.multiblock.PatternMatchContext;
+import gregtech.api.unification.material.Materials;
+import gregtech.api.util.world.DummyWorld;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class RodTypeLookupTest {
+
+    static final Set<IBlockState> STATES = new LinkedHashSet<>();
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        for (Block block : Block.REGISTRY) {
+            STATES.addAll(block.getBlockState().getValidStates());
+        }
+        for (Block block : GAMetaBlocks.METAL_CASING.values()) {
+            STATES.addAll(block.getBlockState().getValidStates());
+        }
+    }
+
+    /**
+     * The rod type search the lookup replaces.
+     */
+    static RodType findRodType(IBlockState blockState) {
+        Optional<RodType> optionalRodType = Arrays.stream(RodType.values()).filter(rodType -> rodType.casingState == blockState).findFirst();
+        return optionalRodType.orElse(null);
+    }
+
+    @Test
+    public void everyStateResolvesAsBefore() {
+        int rods = 0;
+        for (IBlockState state : STATES) {
+            RodType expected = findRodType(state);
+            assertSame(state.toString(), expected, RodType.getRodType(state));
+            if (expected != null)
+                rods++;
+        }
+        assertEquals(RodType.values().length, rods);
+    }
+
+    /**
+     * Reactors with one kind of rod or several, and with a block that is no rod, go through the predicate as before:
+     * rods of any kind are taken and their temperatures add up, anything else is rejected.
+     */
+    @Test
+    public void predicateMatchesTheSearch() {
+        World world = new DummyWorld();
+        Predicate<BlockWorldState> predicate = MetaTileEntityNuclearReactor.heatingCoilPredicate();
+        List<IBlockState[]> reactors = new ArrayList<>();
+        for (RodType rodType : RodType.values()) {
+            reactors.add(new IBlockState[]{rodType.casingState, rodType.casingState, rodType.casingState});
+        }
+        reactors.add(new IBlockState[]{RodType.THORIUM.casingState, RodType.PLUTONIUM.casingState, RodType.MENDELEVIUM.casingState});
+        reactors.add(new IBlockState[]{RodType.URANIUM.casingState, Blocks.IRON_BLOCK.getDefaultState(), RodType.URANIUM.casingState});
+        reactors.add(new IBlockState[]{GAMetaBlocks.getMetalCasingBlockState(Materials.Steel)});
+
+        BlockWorldState worldState = new BlockWorldState();
+        for (IBlockState[] rods : reactors) {
+            PatternMatchContext matchContext = new PatternMatchContext();
+            PatternMatchContext layerContext = new PatternMatchContext();
+            boolean accepted = true;
+            int expectedTemperature = 0;
+            boolean expectedAccepted = true;
+            for (int i = 0; i < rods.length; i++) {
+                BlockPos pos = new BlockPos(0, 64 + i, 0);
+                world.setBlockState(pos, rods[i]);
+                worldState.update(world, pos, matchContext, layerContext);
+                accepted &= predicate.test(worldState);
+
+                RodType rodType = findRodType(rods[i]);
+                if (rodType == null) {
+                    expectedAccepted = false;
+                } else {
+                    expectedTemperature += rodType.additionalTemperature;
+                }
+            }
+            assertEquals(expectedAccepted, accepted);
+            assertEquals(expectedTemperature, (int) matchContext.getOrDefault("rodAdditionalTemperature", 0));
+        }
+    }
+}
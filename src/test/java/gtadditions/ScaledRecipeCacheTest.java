@@ -0,0 +1,119 @@
+package gtadditions;
+
+import gregicadditions.machines.GATileEntities;
+import gregicadditions.machines.multi.simple.LargeSimpleRecipeMapMultiblockController.LargeSimpleMultiblockRecipeLogic;
+import gregicadditions.recipes.ParallelRecipe;
+import gregicadditions.recipes.ScaledRecipeCache;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMaps;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScaledRecipeCacheTest {
+
+    private static Recipe baseRecipe;
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+        baseRecipe = RecipeMaps.MACERATOR_RECIPES.recipeBuilder()
+                .inputs(new ItemStack(Blocks.COBBLESTONE, 2))
+                .outputs(new ItemStack(Blocks.GRAVEL))
+                .chancedOutput(new ItemStack(Items.FLINT), 1000, 500)
+                .EUt(2).duration(40)
+                .build().getResult();
+    }
+
+    /**
+     * The recipe handed out from the cache must be indistinguishable from one built from scratch.
+     */
+    @Test
+    public void cachedRecipeMatchesFreshRecipe() {
+        LargeSimpleMultiblockRecipeLogic logic = new LargeSimpleMultiblockRecipeLogic(GATileEntities.LARGE_MACERATOR, 80, 60, 100, 4);
+
+        Recipe first = logic.getScaledRecipe(baseRecipe, 8, 3);
+        Recipe cached = logic.getScaledRecipe(baseRecipe, 8, 3);
+        Recipe fresh = logic.buildScaledRecipe(baseRecipe, 8);
+
+        assertNotNull(first);
+        assertSame("Second lookup should hit the cache", first, cached);
+        assertNotSame(fresh, cached);
+        assertRecipesEqual(fresh, cached);
+    }
+
+    @Test
+    public void differentKeysAreNotShared() {
+        LargeSimpleMultiblockRecipeLogic logic = new LargeSimpleMultiblockRecipeLogic(GATileEntities.LARGE_MACERATOR, 100, 100, 100, 4);
+
+        Recipe eight = logic.getScaledRecipe(baseRecipe, 8, 3);
+        Recipe four = logic.getScaledRecipe(baseRecipe, 4, 3);
+        Recipe otherTier = logic.getScaledRecipe(baseRecipe, 8, 4);
+
+        assertNotSame(eight, four);
+        assertNotSame(eight, otherTier);
+        assertEquals(16, eight.getInputs().get(0).getCount());
+        assertEquals(8, four.getInputs().get(0).getCount());
+        assertRecipesEqual(eight, otherTier);
+    }
+
+    /**
+     * The number of runs goes with the scaled recipe, cached or not, for its chanced outputs to be rolled per run.
+     */
+    @Test
+    public void scaledRecipesCarryTheirParallel() {
+        LargeSimpleMultiblockRecipeLogic logic = new LargeSimpleMultiblockRecipeLogic(GATileEntities.LARGE_MACERATOR, 100, 100, 100, 4);
+
+        Recipe eight = logic.getScaledRecipe(baseRecipe, 8, 3);
+        logic.getScaledRecipe(baseRecipe, 4, 3);
+        assertEquals(8, ParallelRecipe.getParallel(eight));
+        assertEquals(8, ParallelRecipe.getParallel(logic.getScaledRecipe(baseRecipe, 8, 3)));
+        assertEquals(4, ParallelRecipe.getParallel(logic.getScaledRecipe(baseRecipe, 4, 3)));
+        assertEquals(1, ParallelRecipe.getParallel(baseRecipe));
+        // one flint per run in the single chanced entry
+        assertEquals(8, eight.getChancedOutputs().get(0).getItemStack().getCount());
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        ScaledRecipeCache cache = new ScaledRecipeCache(4);
+        for (int multiplier = 1; multiplier <= 10; multiplier++) {
+            cache.put(baseRecipe, multiplier, 1, baseRecipe);
+        }
+        assertEquals(4, cache.size());
+        assertNull("Eldest entry should have been evicted", cache.get(baseRecipe, 1, 1));
+        assertSame(baseRecipe, cache.get(baseRecipe, 10, 1));
+    }
+
+    private static void assertRecipesEqual(Recipe expected, Recipe actual) {
+        assertEquals(expected.getEUt(), actual.getEUt());
+        assertEquals(expected.getDuration(), actual.getDuration());
+
+        assertEquals(expected.getInputs().size(), actual.getInputs().size());
+        for (int i = 0; i < expected.getInputs().size(); i++) {
+            assertEquals(expected.getInputs().get(i).getCount(), actual.getInputs().get(i).getCount());
+            assertSame(expected.getInputs().get(i).getIngredient(), actual.getInputs().get(i).getIngredient());
+        }
+
+        assertEquals(expected.getOutputs().size(), actual.getOutputs().size());
+        for (int i = 0; i < expected.getOutputs().size(); i++) {
+            assertTrue(ItemStack.areItemStacksEqual(expected.getOutputs().get(i), actual.getOutputs().get(i)));
+        }
+
+        assertEquals(expected.getChancedOutputs().size(), actual.getChancedOutputs().size());
+        for (int i = 0; i < expected.getChancedOutputs().size(); i++) {
+            Recipe.ChanceEntry expectedEntry = expected.getChancedOutputs().get(i);
+            Recipe.ChanceEntry actualEntry = actual.getChancedOutputs().get(i);
+            assertEquals(expectedEntry.getChance(), actualEntry.getChance());
+            assertEquals(expectedEntry.getBoostPerTier(), actualEntry.getBoostPerTier());
+            assertTrue(ItemStack.areItemStacksEqual(expectedEntry.getItemStack(), actualEntry.getItemStack()));
+        }
+
+        assertEquals(expected.getFluidInputs(), actual.getFluidInputs());
+        assertEquals(expected.getFluidOutputs(), actual.getFluidOutputs());
+    }
+}
@@ -0,0 +1,137 @@
+package gtadditions;
+
+import gregicadditions.utils.StructureCheckScheduler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class StructureCheckSchedulerTest {
+
+    private static final long MICROS = 1000;
+
+    /**
+     * Stands for the time, moved by the checks as they run.
+     */
+    private static final class FakeClock {
+        long nanos;
+    }
+
+    @Test
+    public void countBudgetSpreadsChecks() {
+        FakeClock clock = new FakeClock();
+        StructureCheckScheduler<Integer> scheduler = new StructureCheckScheduler<>(10, Long.MAX_VALUE, () -> clock.nanos);
+        for (int i = 0; i < 95; i++) {
+            scheduler.request(i);
+        }
+        List<Integer> checked = new ArrayList<>();
+        int ticks = 0;
+        while (scheduler.getPending() > 0) {
+            int checks = scheduler.runTick(checked::add);
+            assertTrue(checks <= 10);
+            ticks++;
+        }
+        assertEquals(10, ticks);
+        // in the order asked for
+        for (int i = 0; i < 95; i++) {
+            assertEquals(i, (int) checked.get(i));
+        }
+    }
+
+    @Test
+    public void timeBudgetSpreadsChecks() {
+        FakeClock clock = new FakeClock();
+        StructureCheckScheduler<Integer> scheduler = new StructureCheckScheduler<>(Integer.MAX_VALUE, 2000 * MICROS, () -> clock.nanos);
+        for (int i = 0; i < 50; i++) {
+            scheduler.request(i);
+        }
+        Set<Integer> checked = new HashSet<>();
+        int ticks = 0;
+        while (scheduler.getPending() > 0) {
+            long start = clock.nanos;
+            scheduler.runTick(owner -> {
+                checked.add(owner);
+                // a large structure takes 300us
+                clock.nanos += 300 * MICROS;
+            });
+            // the budget is checked before every check, one may start just under it
+            assertTrue(clock.nanos - start < 2000 * MICROS + 300 * MICROS);
+            clock.nanos += 50_000 * MICROS;
+            ticks++;
+        }
+        assertEquals(50, checked.size());
+        // 7 checks fit in 2ms
+        assertEquals(8, ticks);
+    }
+
+    @Test
+    public void slowCheckStillProgresses() {
+        FakeClock clock = new FakeClock();
+        StructureCheckScheduler<Integer> scheduler = new StructureCheckScheduler<>(10, 100 * MICROS, () -> clock.nanos);
+        for (int i = 0; i < 3; i++) {
+            scheduler.request(i);
+        }
+        for (int tick = 0; tick < 3; tick++) {
+            // each check blows the budget on its own, one still runs per tick
+            assertEquals(1, scheduler.runTick(owner -> clock.nanos += 500 * MICROS));
+        }
+        assertEquals(0, scheduler.getPending());
+        assertEquals(0, scheduler.runTick(owner -> fail()));
+    }
+
+    @Test
+    public void controllersAreQueuedOnce() {
+        FakeClock clock = new FakeClock();
+        StructureCheckScheduler<String> scheduler = new StructureCheckScheduler<>(5, Long.MAX_VALUE, () -> clock.nanos);
+        scheduler.request("a");
+        scheduler.request("b");
+        scheduler.request("a");
+        assertEquals(2, scheduler.getPending());
+        assertTrue(scheduler.isQueued("a"));
+
+        scheduler.cancel("b");
+        List<String> checked = new ArrayList<>();
+        scheduler.runTick(checked::add);
+        assertEquals(1, checked.size());
+        assertFalse(scheduler.isQueued("a"));
+
+        // can be asked for again once checked
+        scheduler.request("a");
+        assertEquals(1, scheduler.getPending());
+    }
+
+    /**
+     * A restart with many controllers asking for a check at once, while more keep asking every tick:
+     * no tick goes over the budget and every controller gets checked.
+     */
+    @Test
+    public void restartBurstIsDrained() {
+        FakeClock clock = new FakeClock();
+        StructureCheckScheduler<Integer> scheduler = new StructureCheckScheduler<>(20, 2000 * MICROS, () -> clock.nanos);
+        int controllers = 1000;
+        for (int i = 0; i < controllers; i++) {
+            scheduler.request(i);
+        }
+        Set<Integer> checked = new HashSet<>();
+        int next = controllers;
+        int maxPerTick = 0;
+        for (int tick = 0; tick < 1000 && scheduler.getPending() > 0; tick++) {
+            // a couple of block changes every tick
+            scheduler.request(next++);
+            scheduler.request(next++);
+            int checks = scheduler.runTick(owner -> {
+                checked.add(owner);
+                clock.nanos += (owner % 7 + 1) * 40 * MICROS;
+            });
+            maxPerTick = Math.max(maxPerTick, checks);
+            clock.nanos += 50_000 * MICROS;
+        }
+        assertEquals(0, scheduler.getPending());
+        assertEquals(next, checked.size());
+        assertTrue(maxPerTick <= 20);
+    }
+}
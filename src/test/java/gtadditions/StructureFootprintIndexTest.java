@@ -0,0 +1,133 @@
+package gtadditions;
+
+import gregicadditions.utils.StructureFootprintIndex;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StructureFootprintIndexTest {
+
+    private static final long FALLBACK = 600;
+
+    @Test
+    public void onlyChangesInTheFootprintMarkIt() {
+        StructureFootprintIndex<Object> index = new StructureFootprintIndex<>(FALLBACK);
+        Object structure = new Object();
+        assertTrue(index.needsCheck(structure, 0));
+
+        // spans the corner of four chunks
+        index.register(structure, -3, 60, -3, 3, 66, 3, 0);
+        assertFalse(index.needsCheck(structure, 20));
+
+        index.onBlockChanged(4, 63, 0);
+        index.onBlockChanged(0, 67, 0);
+        index.onBlockChanged(-100, 63, 0);
+        assertFalse(index.needsCheck(structure, 40));
+
+        index.onBlockChanged(-3, 60, 3);
+        assertTrue(index.needsCheck(structure, 40));
+        index.markChecked(structure, 40);
+        assertFalse(index.needsCheck(structure, 60));
+    }
+
+    @Test
+    public void fallbackIntervalStillChecks() {
+        StructureFootprintIndex<Object> index = new StructureFootprintIndex<>(FALLBACK);
+        Object structure = new Object();
+        index.register(structure, 0, 0, 0, 10, 10, 10, 100);
+        assertFalse(index.needsCheck(structure, 100 + FALLBACK - 1));
+        assertTrue(index.needsCheck(structure, 100 + FALLBACK));
+        index.markChecked(structure, 100 + FALLBACK);
+        assertFalse(index.needsCheck(structure, 100 + FALLBACK + 20));
+    }
+
+    @Test
+    public void registeringAgainMovesTheFootprint() {
+        StructureFootprintIndex<Object> index = new StructureFootprintIndex<>(FALLBACK);
+        Object structure = new Object();
+        index.register(structure, 0, 0, 0, 4, 4, 4, 0);
+        index.register(structure, 100, 0, 100, 104, 4, 104, 0);
+        assertEquals(1, index.size());
+
+        index.onBlockChanged(2, 2, 2);
+        assertFalse(index.needsCheck(structure, 20));
+        index.onBlockChanged(102, 2, 102);
+        assertTrue(index.needsCheck(structure, 20));
+
+        index.unregister(structure);
+        assertFalse(index.isRegistered(structure));
+        assertTrue(index.needsCheck(structure, 20));
+        // nothing left to mark
+        index.onBlockChanged(102, 2, 102);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void markChangedForcesACheck() {
+        StructureFootprintIndex<Object> index = new StructureFootprintIndex<>(FALLBACK);
+        Object structure = new Object();
+        index.register(structure, 0, 0, 0, 4, 4, 4, 0);
+        index.markChanged(structure);
+        assertTrue(index.needsCheck(structure, 20));
+    }
+
+    /**
+     * Many structures and random block changes: a structure needs a check exactly when a change fell in its footprint,
+     * and the per tick checks every 20 ticks drop to the structures that saw a change.
+     */
+    @Test
+    public void syntheticBlockChanges() {
+        Random random = new Random(17);
+        StructureFootprintIndex<Object> index = new StructureFootprintIndex<>(FALLBACK);
+        List<Object> structures = new ArrayList<>();
+        List<int[]> bounds = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Object structure = new Object();
+            int x = random.nextInt(2000) - 1000, y = random.nextInt(200), z = random.nextInt(2000) - 1000;
+            int size = 2 + random.nextInt(14);
+            int[] box = {x, y, z, x + size, y + size, z + size};
+            index.register(structure, box[0], box[1], box[2], box[3], box[4], box[5], 0);
+            structures.add(structure);
+            bounds.add(box);
+        }
+
+        int checks = 0;
+        for (long tick = 20; tick < FALLBACK; tick += 20) {
+            boolean[] expected = new boolean[structures.size()];
+            for (int change = 0; change < 50; change++) {
+                int x, y, z;
+                if (change % 10 == 0) {
+                    // next to or inside a structure
+                    int[] box = bounds.get(random.nextInt(bounds.size()));
+                    x = box[0] - 1 + random.nextInt(box[3] - box[0] + 3);
+                    y = box[1] - 1 + random.nextInt(box[4] - box[1] + 3);
+                    z = box[2] - 1 + random.nextInt(box[5] - box[2] + 3);
+                } else {
+                    x = random.nextInt(2100) - 1050;
+                    y = random.nextInt(220);
+                    z = random.nextInt(2100) - 1050;
+                }
+                index.onBlockChanged(x, y, z);
+                for (int i = 0; i < bounds.size(); i++) {
+                    int[] box = bounds.get(i);
+                    if (x >= box[0] && x <= box[3] && y >= box[1] && y <= box[4] && z >= box[2] && z <= box[5])
+                        expected[i] = true;
+                }
+            }
+            for (int i = 0; i < structures.size(); i++) {
+                assertEquals(expected[i], index.needsCheck(structures.get(i), tick));
+                if (expected[i]) {
+                    checks++;
+                    index.markChecked(structures.get(i), tick);
+                }
+            }
+        }
+        int timedChecks = structures.size() * (int) (FALLBACK / 20 - 1);
+        assertTrue(checks > 0);
+        assertTrue(checks < timedChecks / 10);
+    }
+}
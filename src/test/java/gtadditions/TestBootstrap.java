@@ -0,0 +1,48 @@
+package gtadditions;
+
+import gregicadditions.GAEnums;
+import gregicadditions.GAMaterials;
+import gregicadditions.fluid.GAMetaFluids;
+import gregicadditions.item.GAMetaBlocks;
+import gregicadditions.machines.GATileEntities;
+import gregtech.api.GTValues;
+import gregtech.api.unification.material.Materials;
+import gregtech.api.unification.material.type.Material;
+import gregtech.api.util.GTLog;
+import gregtech.common.MetaFluids;
+import gregtech.common.blocks.MetaBlocks;
+import gregtech.common.metatileentities.MetaTileEntities;
+import net.minecraft.init.Bootstrap;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Shared registry setup for tests, the registries can only be filled once per JVM.
+ */
+public class TestBootstrap {
+
+    private static boolean initialized = false;
+
+    public static synchronized void init() {
+        if (initialized)
+            return;
+        initialized = true;
+
+        Bootstrap.register();
+
+        // Bootstrap the GTCE Material System
+        GTLog.init(LogManager.getLogger(GTValues.MODID)); // yes this was necessary
+        Materials.register();
+        GAEnums.preInit();
+        GAMaterials gaMaterials = new GAMaterials();
+        gaMaterials.onMaterialsInit();
+        Material.freezeRegistry();
+        MetaFluids.init();
+        GAMetaFluids.init();
+
+        // Bootstrap the GTCE MetaTileEntity System
+        MetaBlocks.init();
+        GAMetaBlocks.init();
+        MetaTileEntities.init();
+        GATileEntities.init();
+    }
+}
@@ -0,0 +1,38 @@
+package gtadditions;
+
+import gregicadditions.machines.multi.miner.Miner;
+import net.minecraft.world.World;
+
+/**
+ * Miner mining a given number of blocks per call in a test world, for the scan tests.
+ */
+class TestMiner implements Miner {
+
+    private final World world;
+    private final long blocksPerCall;
+
+    TestMiner(World world, long blocksPerCall) {
+        this.world = world;
+        this.blocksPerCall = blocksPerCall;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.LV;
+    }
+
+    @Override
+    public World getWorld() {
+        return world;
+    }
+
+    @Override
+    public long getTimer() {
+        return 0;
+    }
+
+    @Override
+    public long getNbBlock() {
+        return blocksPerCall;
+    }
+}
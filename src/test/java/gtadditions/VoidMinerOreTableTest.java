@@ -0,0 +1,152 @@
+package gtadditions;
+
+import gregicadditions.GAConfig;
+import gregicadditions.machines.multi.miner.VoidMinerOreTable;
+import gregicadditions.utils.WeightedAliasTable;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class VoidMinerOreTableTest {
+
+    // chi-squared at p = 0.001, by degrees of freedom
+    private static final double[] CHI_SQUARED_CRITICAL = {0, 10.83, 13.82, 16.27, 18.47, 20.52, 22.46};
+
+    @BeforeClass
+    public static void bootStrap() {
+        TestBootstrap.init();
+    }
+
+    private static double chiSquared(long[] counts, double[] weights, long samples) {
+        double total = Arrays.stream(weights).sum();
+        double chiSquared = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] == 0) {
+                assertEquals("drew an ore that weighs nothing", 0, counts[i]);
+                continue;
+            }
+            double expected = samples * weights[i] / total;
+            chiSquared += (counts[i] - expected) * (counts[i] - expected) / expected;
+        }
+        return chiSquared;
+    }
+
+    @Test
+    public void samplesFollowTheWeights() {
+        double[] weights = {1, 2, 3, 4, 10, 0, 0.5};
+        WeightedAliasTable table = new WeightedAliasTable(weights);
+        Random random = new Random(42);
+        int samples = 500_000;
+        long[] counts = new long[weights.length];
+        for (int i = 0; i < samples; i++) {
+            counts[table.sample(random)]++;
+        }
+        assertTrue(chiSquared(counts, weights, samples) < CHI_SQUARED_CRITICAL[5]);
+    }
+
+    @Test
+    public void uniformAndDegenerateWeights() {
+        Random random = new Random(1);
+        double[] uniform = new double[300];
+        Arrays.fill(uniform, 1);
+        WeightedAliasTable table = new WeightedAliasTable(uniform);
+        long[] counts = new long[uniform.length];
+        for (int i = 0; i < 600_000; i++) {
+            counts[table.sample(random)]++;
+        }
+        // 299 degrees of freedom, mean 299 and deviation about 24.5
+        assertTrue(chiSquared(counts, uniform, 600_000) < 299 + 6 * 24.5);
+
+        WeightedAliasTable single = new WeightedAliasTable(new double[]{0, 0, 7, 0});
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(2, single.sample(random));
+        }
+        assertTrue(new WeightedAliasTable(new double[]{0, 0}).isEmpty());
+        assertTrue(new WeightedAliasTable(new double[0]).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeWeightsAreRejected() {
+        new WeightedAliasTable(new double[]{1, -1});
+    }
+
+    @Test
+    public void configuredWeightsAreUsed() {
+        String[] oreWeights = GAConfig.multis.voidMiner.oreWeights;
+        try {
+            GAConfig.multis.voidMiner.oreWeights = new String[]{"minecraft:diamond=6", "minecraft:wool:3=2", "minecraft:dirt=0", "minecraft:gravel", "minecraft:stone=lots", ""};
+            VoidMinerOreTable.invalidate();
+            List<ItemStack> ores = Arrays.asList(new ItemStack(Items.DIAMOND), new ItemStack(Blocks.WOOL, 1, 3), new ItemStack(Blocks.WOOL),
+                    new ItemStack(Blocks.DIRT), new ItemStack(Blocks.STONE), new ItemStack(Blocks.GRAVEL));
+            WeightedAliasTable table = VoidMinerOreTable.get(ores).getAliasTable();
+            double[] expected = {6, 2, 1, 0, 1, 1};
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], table.getWeight(i), 0);
+            }
+
+            // a single ore per pick is drawn straight from the weights
+            Random random = new Random(7);
+            long[] counts = new long[ores.size()];
+            int picks = 200_000;
+            for (int i = 0; i < picks; i++) {
+                VoidMinerOreTable.get(ores).pick(random, 1, index -> counts[index]++);
+            }
+            assertTrue(chiSquared(counts, expected, picks) < CHI_SQUARED_CRITICAL[4]);
+        } finally {
+            GAConfig.multis.voidMiner.oreWeights = oreWeights;
+            VoidMinerOreTable.invalidate();
+        }
+    }
+
+    @Test
+    public void picksAreDifferentOres() {
+        List<ItemStack> ores = new ArrayList<>();
+        for (int meta = 0; meta < 16; meta++) {
+            ores.add(new ItemStack(Blocks.WOOL, 1, meta));
+            ores.add(new ItemStack(Blocks.STAINED_GLASS, 1, meta));
+        }
+        VoidMinerOreTable table = VoidMinerOreTable.get(ores);
+        Random random = new Random(3);
+        for (int round = 0; round < 1000; round++) {
+            Set<Integer> picked = new HashSet<>();
+            List<Integer> order = new ArrayList<>();
+            table.pick(random, 10, index -> {
+                picked.add(index);
+                order.add(index);
+            });
+            assertEquals(10, order.size());
+            assertEquals(10, picked.size());
+        }
+
+        // fewer ores than asked for
+        List<ItemStack> few = Arrays.asList(new ItemStack(Items.DIAMOND), new ItemStack(Items.EMERALD), new ItemStack(Items.COAL));
+        Set<Integer> picked = new HashSet<>();
+        VoidMinerOreTable.get(few).pick(random, 10, picked::add);
+        assertEquals(3, picked.size());
+    }
+
+    @Test
+    public void builtAgainOnlyWhenTheConfigChanges() {
+        List<ItemStack> ores = Arrays.asList(new ItemStack(Items.DIAMOND), new ItemStack(Items.EMERALD));
+        VoidMinerOreTable table = VoidMinerOreTable.get(ores);
+        assertSame(table, VoidMinerOreTable.get(ores));
+        assertTrue(table.isCurrent());
+
+        VoidMinerOreTable.invalidate();
+        assertFalse(table.isCurrent());
+        VoidMinerOreTable rebuilt = VoidMinerOreTable.get(ores);
+        assertNotSame(table, rebuilt);
+        assertTrue(rebuilt.isCurrent());
+    }
+}